@@ -0,0 +1,75 @@
+package src;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Un bus suelto sobre la primera fila de la grilla: su movimiento y una
+ * visita a parada con pasajeros.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BancoBus {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int paradas;
+
+    private Bus enMovimiento;
+    private Bus enParada;
+    private PoolPasajeros pool;
+    private EstadoParadas estado;
+    private int parada;
+    private int id;
+
+    @Setup
+    public void preparar() {
+        Grafo grafo = RedesPrueba.grilla(paradas);
+        int lado = RedesPrueba.lado(paradas);
+        int n = grafo.getNumParaderos();
+        enMovimiento = new Bus(1, 40, RedesPrueba.lineaGrilla(grafo, lado, 0, true));
+        enParada = new Bus(2, 40, RedesPrueba.lineaGrilla(grafo, lado, 0, true));
+        pool = new PoolPasajeros(64);
+        estado = new EstadoParadas(n);
+        enParada.asignarSimulacion(pool, estado, new EstadisticasEspera(n));
+        parada = enParada.getNodoActual().getIndice();
+    }
+
+    /**
+     * Un tick de movimiento (sin pasajeros).
+     */
+    @Benchmark
+    public int avanzar() {
+        enMovimiento.avanzar();
+        return enMovimiento.getIndiceSiguiente();
+    }
+
+    /**
+     * Una visita a parada: llegan 32 pasajeros con destino en ella, el bus
+     * los sube, los baja y devuelve sus casillas al pool.
+     */
+    @Benchmark
+    public long subirYBajarPasajeros() {
+        for (int k = 0; k < 32; k++) {
+            estado.agregar(pool, parada, pool.crear(id++, parada, 0));
+        }
+        enParada.subirPasajeros();
+        enParada.bajarPasajeros();
+        enParada.liberarBajados();
+        return enParada.getAbordajes();
+    }
+}
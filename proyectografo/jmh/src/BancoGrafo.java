@@ -0,0 +1,126 @@
+package src;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Consultas sobre el grafo: rutas, búsqueda de arcos y de paradas por
+ * nombre y por cercanía, sobre una grilla de la cantidad de paradas dada.
+ * Cada operación toma el siguiente de 1024 pares o puntos al azar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BancoGrafo {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int paradas;
+
+    private Grafo grafo;          // con caché de árboles, como en la interfaz
+    private Grafo grafoSinCache;
+    private int[][] pares;
+    private Nodo[][] arcos;
+    private int[][] paresNombre;
+    private String[] nombres;
+    private double[][] puntos;
+    private int i;
+
+    @Setup
+    public void preparar() {
+        grafo = RedesPrueba.grilla(paradas);
+        grafoSinCache = RedesPrueba.grilla(paradas);
+        grafoSinCache.setCapacidadCache(0);
+        int n = grafo.getNumParaderos();
+        pares = RedesPrueba.paresAlAzar(n, 1024);
+
+        int[] off = grafo.offsets();
+        int[] dst = grafo.destinos();
+        Random random = new Random(1);
+        arcos = new Nodo[1024][];
+        for (int k = 0; k < arcos.length; k++) {
+            int e = random.nextInt(grafo.getNumArcos());
+            int u = Arrays.binarySearch(off, e);
+            u = u >= 0 ? ultimoCon(off, u) : -u - 2;
+            arcos[k] = new Nodo[]{grafo.getNodo(u), grafo.getNodo(dst[e])};
+        }
+
+        paresNombre = RedesPrueba.paresAlAzar(Math.min(8, n), 64);
+        nombres = new String[8];
+        random = new Random(2);
+        for (int k = 0; k < nombres.length; k++) {
+            nombres[k] = grafo.getNodo(random.nextInt(n)).getNombre();
+        }
+
+        puntos = RedesPrueba.puntosAlAzar(grafo, 1024);
+        grafo.paradaMasCercana(0, 0);     // el índice k-d se arma antes de medir
+    }
+
+    private static int ultimoCon(int[] off, int i) {
+        while (i + 1 < off.length && off[i + 1] == off[i]) i++;
+        return i;
+    }
+
+    /**
+     * Camino más corto entre pares al azar, sin caché de árboles.
+     */
+    @Benchmark
+    public int dijkstra() {
+        int[] par = pares[i++ & 1023];
+        return grafoSinCache.dijkstra(grafoSinCache.getNodo(par[0]), grafoSinCache.getNodo(par[1])).size();
+    }
+
+    /**
+     * Búsqueda de arcos existentes al azar.
+     */
+    @Benchmark
+    public int getArco() {
+        Nodo[] arco = arcos[i++ & 1023];
+        return grafo.getArco(arco[0], arco[1]).getTiempo();
+    }
+
+    /**
+     * Lo que hace la interfaz al pedir una ruta: busca las paradas por
+     * nombre y consulta distancia y camino, repitiendo pocos orígenes.
+     */
+    @Benchmark
+    public int consultaRuta() {
+        int[] par = paresNombre[i++ & 63];
+        Nodo inicio = grafo.getParaderoPorNombre(nombres[par[0]]);
+        Nodo fin = grafo.getParaderoPorNombre(nombres[par[1]]);
+        return grafo.distancia(inicio, fin) + grafo.dijkstra(inicio, fin).size();
+    }
+
+    /**
+     * Parada más cercana a puntos al azar dentro de la grilla.
+     */
+    @Benchmark
+    public int paradaMasCercana() {
+        double[] punto = puntos[i++ & 1023];
+        return grafo.paradaMasCercana(punto[0], punto[1]).getIndice();
+    }
+
+    /**
+     * Paradas a menos de 25 m (unas 20 en la grilla de 10 m) de puntos al azar.
+     */
+    @Benchmark
+    public int paradasEnRadio() {
+        double[] punto = puntos[i++ & 1023];
+        return grafo.paradasEnRadio(punto[0], punto[1], 25).size();
+    }
+}
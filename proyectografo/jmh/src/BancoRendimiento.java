@@ -0,0 +1,65 @@
+package src;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Mediciones de rendimiento de las operaciones centrales: rutas en el
+ * grafo (BancoGrafo), ticks del simulador (BancoSimulador) y movimiento y
+ * abordaje de buses (BancoBus).
+ *
+ * Son mediciones JMH con parámetros paradas y buses; esta clase solo las
+ * lanza con las opciones de siempre y el perfilador "gc", que informa los
+ * bytes asignados por operación y la tasa de asignación. Cada medición
+ * corre en una JVM propia. También se pueden correr directamente con
+ * java -jar target/benchmarks.jar -prof gc (ver pom.xml).
+ *
+ * Uso: java -cp target/benchmarks.jar src.BancoRendimiento [--filtro regex]
+ *      [--paradas 10,1000,...] [--buses 10,1000,...] [--calentamiento N]
+ *      [--iteraciones N] [--tiempo ms] [--csv archivo]
+ *
+ * El filtro se aplica al nombre completo, por ejemplo BancoGrafo.dijkstra.
+ */
+public class BancoRendimiento {
+
+    private BancoRendimiento() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .addProfiler(GCProfiler.class);
+        String filtro = "src\\.Banco(Grafo|Simulador|Bus)\\.";
+        for (int i = 0; i < args.length; i++) {
+            String opcion = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + opcion);
+            }
+            String valor = args[++i];
+            switch (opcion) {
+                case "--filtro": filtro = valor; break;
+                case "--paradas": opciones.param("paradas", lista(valor)); break;
+                case "--buses": opciones.param("buses", lista(valor)); break;
+                case "--calentamiento": opciones.warmupIterations(Integer.parseInt(valor)); break;
+                case "--iteraciones": opciones.measurementIterations(Integer.parseInt(valor)); break;
+                case "--tiempo":
+                    TimeValue tiempo = TimeValue.milliseconds(Long.parseLong(valor));
+                    opciones.warmupTime(tiempo).measurementTime(tiempo);
+                    break;
+                case "--csv": opciones.resultFormat(ResultFormatType.CSV).result(valor); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + opcion);
+            }
+        }
+        new Runner(opciones.include(filtro).build()).run();
+    }
+
+    private static String[] lista(String valores) {
+        return Arrays.stream(valores.split(",")).map(String::trim).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,92 @@
+package src;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Un tick del simulador secuencial, con la flota repartida entre líneas
+ * que recorren cada fila y cada columna de la grilla y la demanda por
+ * omisión del simulador.
+ *
+ * Se calienta dos vueltas de bus (a lo más 1000 ticks) para que colas y
+ * carga lleguen a su nivel de régimen; ahí se guarda una instantánea y cada
+ * iteración parte de ella, así que todas miden el mismo tramo. Con un
+ * millón de paradas y 1000 buses la flota no alcanza a llevar la demanda y
+ * las colas siguen creciendo, pero el costo del tick lo domina el sorteo de
+ * llegadas en todas las paradas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BancoSimulador {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int paradas;
+
+    @Param({"10", "1000"})
+    private int buses;
+
+    private Simulador simulador;
+    private Path instantanea;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        Grafo grafo = RedesPrueba.grilla(paradas);
+        int lado = RedesPrueba.lado(paradas);
+        simulador = new Simulador(grafo, 1);
+        List<Ruta> lineas = new ArrayList<>(2 * lado);
+        for (int f = 0; f < lado; f++) {
+            lineas.add(RedesPrueba.lineaGrilla(grafo, lado, f, true));
+            lineas.add(RedesPrueba.lineaGrilla(grafo, lado, f, false));
+        }
+        for (int b = 0; b < buses; b++) {
+            simulador.agregarBus(new Bus(b + 1, 40, lineas.get(b % lineas.size())));
+        }
+
+        // Vuelta de un bus con tramos de 5 minutos en promedio
+        double vuelta = 2.0 * (lado - 1) * 5;
+        long calentamiento = Math.min(1000, Math.max(50, (long) (2 * vuelta / Simulador.MINUTOS_POR_TICK)));
+        for (long t = 0; t < calentamiento; t++) {
+            simulador.tick();
+        }
+        instantanea = Files.createTempFile("banco-simulador", ".bin");
+        simulador.guardarEstado(instantanea);
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciar() throws IOException {
+        simulador.restaurarEstado(instantanea);
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        Files.deleteIfExists(instantanea);
+    }
+
+    @Benchmark
+    public int tick() {
+        simulador.tick();
+        return simulador.getTiempoActual();
+    }
+}
@@ -0,0 +1,87 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Redes de prueba para las mediciones de rendimiento: grillas cuadradas
+ * con líneas por filas y columnas, y puntos y pares de paradas al azar
+ * (siempre los mismos para cada tamaño).
+ */
+final class RedesPrueba {
+
+    private RedesPrueba() {
+    }
+
+    /**
+     * Grilla cuadrada de paradas con arcos en ambos sentidos entre
+     * vecinas, con tiempos al azar de 1 a 9 minutos (siempre los mismos).
+     */
+    static Grafo grilla(int paradas) {
+        int lado = lado(paradas);
+        int n = lado * lado;
+        Grafo grafo = new Grafo(n, 4 * n);
+        for (int v = 0; v < n; v++) {
+            grafo.agregarParadero(new Nodo(v + 1, "P" + v, (v % lado) * 10.0, (v / lado) * 10.0));
+        }
+        Random random = new Random(5);
+        int m = 0;
+        int[] origenes = new int[4 * n];
+        int[] destinos = new int[4 * n];
+        int[] tiempos = new int[4 * n];
+        for (int v = 0; v < n; v++) {
+            int[] vecinos = {v % lado + 1 < lado ? v + 1 : -1, v + lado < n ? v + lado : -1};
+            for (int w : vecinos) {
+                if (w < 0) continue;
+                int t = 1 + random.nextInt(9);
+                origenes[m] = v; destinos[m] = w; tiempos[m++] = t;
+                origenes[m] = w; destinos[m] = v; tiempos[m++] = t;
+            }
+        }
+        grafo.agregarArcos(origenes, destinos, tiempos, m);
+        return grafo;
+    }
+
+    /**
+     * Paradas por lado de la grilla que se arma para la cantidad pedida.
+     */
+    static int lado(int paradas) {
+        return Math.max(2, (int) Math.round(Math.sqrt(paradas)));
+    }
+
+    /**
+     * Línea de ida y vuelta a lo largo de una fila o una columna.
+     */
+    static Ruta lineaGrilla(Grafo grafo, int lado, int indice, boolean fila) {
+        List<Nodo> ida = new ArrayList<>(lado);
+        for (int j = 0; j < lado; j++) {
+            ida.add(grafo.getNodo(fila ? indice * lado + j : j * lado + indice));
+        }
+        List<Nodo> vuelta = new ArrayList<>(ida);
+        Collections.reverse(vuelta);
+        return new Ruta(grafo, ida, vuelta);
+    }
+
+    static double[][] puntosAlAzar(Grafo grafo, int cantidad) {
+        double lado = 10.0 * Math.round(Math.sqrt(grafo.getNumParaderos()));
+        Random random = new Random(4);
+        double[][] puntos = new double[cantidad][];
+        for (int k = 0; k < cantidad; k++) {
+            puntos[k] = new double[]{random.nextDouble() * lado, random.nextDouble() * lado};
+        }
+        return puntos;
+    }
+
+    static int[][] paresAlAzar(int n, int cantidad) {
+        Random random = new Random(3);
+        int[][] pares = new int[cantidad][];
+        for (int k = 0; k < cantidad; k++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n - 1);
+            pares[k] = new int[]{a, b >= a ? b + 1 : b};
+        }
+        return pares;
+    }
+}
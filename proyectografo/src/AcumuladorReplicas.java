@@ -0,0 +1,166 @@
+package src;
+
+import java.util.Locale;
+
+/**
+ * Media, desvío e intervalo de confianza de una métrica a lo largo de
+ * varias réplicas independientes.
+ *
+ * Acumula en una sola pasada (algoritmo de Welford), sin guardar los
+ * valores. El intervalo usa la t de Student con n - 1 grados de libertad:
+ * exacta hasta 30 grados (invirtiendo su distribución) y con una expansión
+ * de Cornish-Fisher desde ahí.
+ */
+public class AcumuladorReplicas {
+
+    private long n;
+    private double media;
+    private double m2;           // suma de cuadrados de las desviaciones
+
+    public void agregar(double valor) {
+        n++;
+        double delta = valor - media;
+        media += delta / n;
+        m2 += delta * (valor - media);
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public double getMedia() {
+        return n == 0 ? Double.NaN : media;
+    }
+
+    public double getDesvio() {
+        return n < 2 ? Double.NaN : Math.sqrt(m2 / (n - 1));
+    }
+
+    /**
+     * Semiancho del intervalo de confianza de la media al nivel indicado
+     * (por ejemplo 0.95), o infinito con menos de dos réplicas.
+     */
+    public double semiancho(double nivel) {
+        if (n < 2) return Double.POSITIVE_INFINITY;
+        return cuantilT((1 + nivel) / 2, n - 1) * getDesvio() / Math.sqrt(n);
+    }
+
+    /**
+     * Semiancho relativo a la media (infinito si la media es 0).
+     */
+    public double precisionRelativa(double nivel) {
+        double m = Math.abs(getMedia());
+        if (m == 0) {
+            return semiancho(nivel) == 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return semiancho(nivel) / m;
+    }
+
+    public String formato(double nivel) {
+        return String.format(Locale.ROOT, "%.3f ± %.3f (n=%d)", getMedia(), semiancho(nivel), n);
+    }
+
+    // ================= CUANTILES =================
+
+    private static final long GL_EXACTO = 30;
+
+    /**
+     * Cuantil p de la t de Student con gl grados de libertad. Hasta
+     * GL_EXACTO se invierte la distribución por bisección; con más grados
+     * la expansión de Cornish-Fisher tiene error relativo bajo 1e-6 en las
+     * colas usuales (hasta p = 0,9995).
+     */
+    static double cuantilT(double p, long gl) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("p debe estar en (0, 1)");
+        }
+        if (gl > GL_EXACTO) {
+            return cornishFisher(p, gl);
+        }
+        if (p < 0.5) {
+            return -cuantilT(1 - p, gl);
+        }
+        double bajo = 0;
+        double alto = 1;
+        while (distribucionT(alto, gl) < p) {
+            bajo = alto;
+            alto *= 2;
+        }
+        while (alto - bajo > 1e-12 * alto) {
+            double medio = (bajo + alto) / 2;
+            if (distribucionT(medio, gl) < p) {
+                bajo = medio;
+            } else {
+                alto = medio;
+            }
+        }
+        return (bajo + alto) / 2;
+    }
+
+    /**
+     * P(T <= t) para t >= 0 y gl entero positivo, con las series finitas de
+     * Abramowitz y Stegun (26.7.3 y 26.7.4).
+     */
+    static double distribucionT(double t, long gl) {
+        double theta = Math.atan(t / Math.sqrt(gl));
+        double seno = Math.sin(theta);
+        double coseno = Math.cos(theta);
+        double c2 = coseno * coseno;
+        double suma = 1;
+        double termino = 1;
+        for (long k = gl % 2 == 1 ? 3 : 2; k <= gl - 2; k += 2) {
+            termino *= (k - 1.0) / k * c2;
+            suma += termino;
+        }
+        double a;
+        if (gl % 2 == 1) {
+            a = 2 / Math.PI * (theta + (gl > 1 ? seno * coseno * suma : 0));
+        } else {
+            a = seno * suma;
+        }
+        return (1 + a) / 2;
+    }
+
+    private static double cornishFisher(double p, long gl) {
+        double z = cuantilNormal(p);
+        double z2 = z * z;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        double v = gl;
+        return z + g1 / v + g2 / (v * v) + g3 / (v * v * v) + g4 / (v * v * v * v);
+    }
+
+    /**
+     * Cuantil p de la normal estándar (aproximación racional de Acklam,
+     * error relativo ~1e-9).
+     */
+    static double cuantilNormal(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("p debe estar en (0, 1)");
+        }
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double bajo = 0.02425;
+
+        if (p < bajo) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - bajo) {
+            return -cuantilNormal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
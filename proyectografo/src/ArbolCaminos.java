@@ -0,0 +1,58 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Árbol de caminos más cortos desde una parada de origen.
+ * Guarda, por índice denso, la distancia mínima y el predecesor en el camino,
+ * de modo que cualquier destino se resuelve en O(largo del camino).
+ */
+public class ArbolCaminos {
+
+    private final int origen;
+    private final int[] distancias;
+    private final int[] anterior;
+    private final long version;   // versión del grafo con la que se calculó
+
+    ArbolCaminos(int origen, int[] distancias, int[] anterior, long version) {
+        this.origen = origen;
+        this.distancias = distancias;
+        this.anterior = anterior;
+        this.version = version;
+    }
+
+    public int getOrigen() {
+        return origen;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Distancia en minutos hasta el destino, o Grafo.INFINITO si no es alcanzable.
+     */
+    public int distancia(int destino) {
+        return distancias[destino];
+    }
+
+    /**
+     * Reconstruye el camino origen → destino sobre las paradas del grafo.
+     * Si el destino no es alcanzable el camino contiene solo al destino.
+     */
+    public List<Nodo> camino(Grafo grafo, int destino) {
+        int largo = 0;
+        for (int v = destino; v != -1; v = anterior[v]) {
+            largo++;
+        }
+
+        Nodo[] paradas = new Nodo[largo];
+        int i = largo;
+        for (int v = destino; v != -1; v = anterior[v]) {
+            paradas[--i] = grafo.getNodo(v);
+        }
+        return new ArrayList<>(Arrays.asList(paradas));
+    }
+}
@@ -0,0 +1,289 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * Árbol de cuadrantes sobre las posiciones de las paradas y los arcos de un
+ * grafo, para que la interfaz recorra solo lo que cae en pantalla.
+ *
+ * Cada celda cuadrada se divide en cuatro hasta quedar con pocas paradas;
+ * como las paradas se reordenan en el lugar, las de cada celda ocupan un
+ * tramo contiguo. Los arcos se guardan en la celda más chica cuya versión
+ * holgada (la celda ampliada media celda por lado) contiene el arco, así
+ * que un arco nunca es más largo que su celda: al alejar la vista, las
+ * celdas que se ven más chicas que un umbral se reducen a su parada más
+ * conectada y sus arcos se omiten, y el trabajo por cuadro depende de los
+ * píxeles y no del tamaño de la red.
+ */
+final class ArbolCuadrantes {
+
+    private static final int CAPACIDAD_HOJA = 8;
+    private static final int PROFUNDIDAD_MAXIMA = 24;
+
+    /**
+     * Recibe lo que cae dentro del rectángulo consultado.
+     */
+    interface Visitante {
+        void arco(int origen, int arco);
+
+        void parada(int parada);
+
+        /**
+         * Celda demasiado chica para detallar: su parada más conectada
+         * representa a las cantidad paradas que contiene.
+         */
+        void grupo(int representante, int cantidad);
+    }
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] paradas;               // índices de parada, agrupados por celda
+    private final double minX, minY, maxX, maxY;
+    private final double lado;                 // lado de la celda raíz
+
+    // Por celda
+    private int[] hijos = new int[4 * 64];     // -1 si el cuadrante está vacío
+    private int[] inicio = new int[64];        // tramo de paradas [inicio, fin)
+    private int[] fin = new int[64];
+    private int[] representante = new int[64];
+    private boolean[] hoja = new boolean[64];
+    private int numCeldas;
+
+    // Arcos por celda, en forma compacta
+    private final int[] inicioArcos;
+    private final int[] arcos;
+    private final int[] origenes;
+
+    ArbolCuadrantes(Grafo grafo) {
+        int n = grafo.getNumParaderos();
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.paradas = new int[n];
+        double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+        double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        for (int p = 0; p < n; p++) {
+            Nodo nodo = grafo.getNodo(p);
+            xs[p] = nodo.getPosicionX();
+            ys[p] = nodo.getPosicionY();
+            paradas[p] = p;
+            x0 = Math.min(x0, xs[p]);
+            y0 = Math.min(y0, ys[p]);
+            x1 = Math.max(x1, xs[p]);
+            y1 = Math.max(y1, ys[p]);
+        }
+        if (n == 0) {
+            x0 = y0 = x1 = y1 = 0;
+        }
+        this.minX = x0;
+        this.minY = y0;
+        this.maxX = x1;
+        this.maxY = y1;
+        // Un poco más que el ancho para que el borde máximo quede dentro
+        this.lado = Math.max(Math.max(x1 - x0, y1 - y0), 1e-9) * (1 + 1e-9) + 1e-9;
+
+        int[] off = grafo.offsets();
+        int[] offInv = grafo.offsetsInversos();
+        int[] grado = new int[n];
+        for (int p = 0; p < n; p++) {
+            grado[p] = off[p + 1] - off[p] + offInv[p + 1] - offInv[p];
+        }
+        construir(0, n, minX, minY, lado, 0, grado);
+
+        // Arcos: primero la celda de cada uno, luego se agrupan por celda
+        int[] dst = grafo.destinos();
+        int m = off[n];
+        int[] celdaDeArco = new int[m];
+        this.inicioArcos = new int[numCeldas + 1];
+        for (int u = 0; u < n; u++) {
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                int c = ubicarArco(xs[u], ys[u], xs[dst[e]], ys[dst[e]]);
+                celdaDeArco[e] = c;
+                inicioArcos[c + 1]++;
+            }
+        }
+        for (int c = 0; c < numCeldas; c++) {
+            inicioArcos[c + 1] += inicioArcos[c];
+        }
+        this.arcos = new int[m];
+        this.origenes = new int[m];
+        int[] pos = Arrays.copyOf(inicioArcos, numCeldas);
+        for (int u = 0; u < n; u++) {
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                int i = pos[celdaDeArco[e]]++;
+                arcos[i] = e;
+                origenes[i] = u;
+            }
+        }
+    }
+
+    double x(int parada) {
+        return xs[parada];
+    }
+
+    double y(int parada) {
+        return ys[parada];
+    }
+
+    double getMinX() {
+        return minX;
+    }
+
+    double getMinY() {
+        return minY;
+    }
+
+    double getMaxX() {
+        return maxX;
+    }
+
+    double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Distancia típica entre paradas vecinas: el lado del cuadrado que le
+     * toca a cada parada si se reparten el rectángulo que ocupan.
+     */
+    double getSeparacion() {
+        int n = paradas.length;
+        if (n < 2) return lado;
+        double area = Math.max(maxX - minX, lado * 1e-3) * Math.max(maxY - minY, lado * 1e-3);
+        return Math.sqrt(area / n);
+    }
+
+    /**
+     * Visita los arcos y paradas que caen en [x0, x1] × [y0, y1]. Las
+     * celdas de lado menor que tamanioMinimo no se abren: se entregan como
+     * un grupo y sus arcos (no más largos que la celda) se omiten. Los arcos
+     * de las celdas visitadas pueden quedar algo fuera del rectángulo.
+     */
+    void recorrer(double x0, double y0, double x1, double y1, double tamanioMinimo, Visitante visitante) {
+        if (numCeldas > 0) {
+            recorrer(0, minX, minY, lado, x0, y0, x1, y1, tamanioMinimo, visitante);
+        }
+    }
+
+    private void recorrer(int c, double cx, double cy, double l,
+                          double x0, double y0, double x1, double y1,
+                          double tamanioMinimo, Visitante visitante) {
+        // Los arcos de la celda pueden salir de ella hasta media celda por lado
+        double h = l / 2;
+        if (cx - h > x1 || cy - h > y1 || cx + l + h < x0 || cy + l + h < y0) return;
+        boolean dentro = !(cx > x1 || cy > y1 || cx + l < x0 || cy + l < y0);
+
+        if (l < tamanioMinimo) {
+            if (dentro && fin[c] > inicio[c]) visitante.grupo(representante[c], fin[c] - inicio[c]);
+            return;
+        }
+
+        for (int i = inicioArcos[c]; i < inicioArcos[c + 1]; i++) {
+            visitante.arco(origenes[i], arcos[i]);
+        }
+        if (hoja[c]) {
+            if (!dentro) return;
+            for (int i = inicio[c]; i < fin[c]; i++) {
+                int p = paradas[i];
+                if (xs[p] >= x0 && xs[p] <= x1 && ys[p] >= y0 && ys[p] <= y1) {
+                    visitante.parada(p);
+                }
+            }
+            return;
+        }
+        for (int q = 0; q < 4; q++) {
+            int hijo = hijos[4 * c + q];
+            if (hijo >= 0) {
+                recorrer(hijo, cx + ((q & 1) != 0 ? h : 0), cy + ((q & 2) != 0 ? h : 0), h,
+                        x0, y0, x1, y1, tamanioMinimo, visitante);
+            }
+        }
+    }
+
+    // ================= CONSTRUCCIÓN =================
+
+    private int construir(int desde, int hasta, double cx, double cy, double l, int profundidad, int[] grado) {
+        int c = nuevaCelda();
+        inicio[c] = desde;
+        fin[c] = hasta;
+        Arrays.fill(hijos, 4 * c, 4 * c + 4, -1);
+
+        if (hasta - desde <= CAPACIDAD_HOJA || profundidad == PROFUNDIDAD_MAXIMA) {
+            hoja[c] = true;
+            int mejor = desde < hasta ? paradas[desde] : -1;
+            for (int i = desde + 1; i < hasta; i++) {
+                if (grado[paradas[i]] > grado[mejor]) mejor = paradas[i];
+            }
+            representante[c] = mejor;
+            return c;
+        }
+
+        double h = l / 2;
+        double mx = cx + h, my = cy + h;
+        // Primero abajo/arriba por Y, luego cada mitad por X: cuadrantes 0..3 contiguos
+        int corteY = particionar(desde, hasta, ys, my);
+        int[] cortes = {desde, particionar(desde, corteY, xs, mx), corteY, particionar(corteY, hasta, xs, mx), hasta};
+
+        int mejor = -1;
+        for (int q = 0; q < 4; q++) {
+            if (cortes[q] == cortes[q + 1]) continue;
+            int hijo = construir(cortes[q], cortes[q + 1], cx + ((q & 1) != 0 ? h : 0),
+                    cy + ((q & 2) != 0 ? h : 0), h, profundidad + 1, grado);
+            hijos[4 * c + q] = hijo;
+            int r = representante[hijo];
+            if (mejor < 0 || grado[r] > grado[mejor]) mejor = r;
+        }
+        representante[c] = mejor;
+        return c;
+    }
+
+    /**
+     * Deja primero las paradas con coordenada menor que corte y devuelve
+     * dónde empiezan las demás.
+     */
+    private int particionar(int desde, int hasta, double[] coordenada, double corte) {
+        int i = desde, j = hasta - 1;
+        while (i <= j) {
+            if (coordenada[paradas[i]] < corte) {
+                i++;
+            } else {
+                int t = paradas[i];
+                paradas[i] = paradas[j];
+                paradas[j--] = t;
+            }
+        }
+        return i;
+    }
+
+    private int nuevaCelda() {
+        if (numCeldas == inicio.length) {
+            int capacidad = 2 * numCeldas;
+            hijos = Arrays.copyOf(hijos, 4 * capacidad);
+            inicio = Arrays.copyOf(inicio, capacidad);
+            fin = Arrays.copyOf(fin, capacidad);
+            representante = Arrays.copyOf(representante, capacidad);
+            hoja = Arrays.copyOf(hoja, capacidad);
+        }
+        return numCeldas++;
+    }
+
+    /**
+     * Baja desde la raíz mientras el arco quepa en la versión holgada del
+     * cuadrante que contiene su centro.
+     */
+    private int ubicarArco(double ax, double ay, double bx, double by) {
+        double centroX = (ax + bx) / 2, centroY = (ay + by) / 2;
+        double extension = Math.max(Math.abs(bx - ax), Math.abs(by - ay));
+        int c = 0;
+        double cx = minX, cy = minY, l = lado;
+        while (!hoja[c] && extension <= l / 2) {
+            double h = l / 2;
+            int q = (centroX >= cx + h ? 1 : 0) | (centroY >= cy + h ? 2 : 0);
+            int hijo = hijos[4 * c + q];
+            if (hijo < 0) break;
+            c = hijo;
+            cx += (q & 1) != 0 ? h : 0;
+            cy += (q & 2) != 0 ? h : 0;
+            l = h;
+        }
+        return c;
+    }
+}
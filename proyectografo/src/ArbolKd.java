@@ -0,0 +1,287 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * Árbol k-d sobre las coordenadas de las paradas, para ir de un punto
+ * cualquiera a las paradas más cercanas sin recorrer todo el grafo.
+ *
+ * Es implícito: las paradas se reordenan de modo que la mediana de cada
+ * tramo [desde, hasta) quede en su centro, con las menores (en el eje de
+ * esa mediana) a la izquierda y las mayores a la derecha. Cada tramo se
+ * corta por el eje en que sus paradas están más dispersas. Las consultas
+ * descienden primero hacia el lado del punto y solo abren el otro si el
+ * plano de corte está más cerca que lo ya encontrado, así que cuestan
+ * O(log n) en redes bien repartidas.
+ *
+ * Lo arma Grafo para una versión dada y no cambia después.
+ */
+final class ArbolKd {
+
+    private final long version;
+    private final int[] paradas;      // índice de parada en el orden del árbol
+    private final double[] xs;        // coordenadas en el orden del árbol
+    private final double[] ys;
+    private final boolean[] porX;     // eje de corte de la mediana de cada tramo
+
+    ArbolKd(Grafo grafo, long version) {
+        this.version = version;
+        int n = grafo.getNumParaderos();
+        this.paradas = new int[n];
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.porX = new boolean[n];
+        for (int p = 0; p < n; p++) {
+            Nodo nodo = grafo.getNodo(p);
+            paradas[p] = p;
+            xs[p] = nodo.getPosicionX();
+            ys[p] = nodo.getPosicionY();
+        }
+        construir(0, n);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Índice de la parada más cercana a (x, y), o -1 si no hay paradas.
+     */
+    int masCercana(double x, double y) {
+        int[] indice = new int[1];
+        return cercanas(x, y, indice) == 1 ? indice[0] : -1;
+    }
+
+    /**
+     * Deja en salida los índices de las salida.length paradas más cercanas
+     * a (x, y), de la más cercana a la más lejana, y devuelve cuántas hay
+     * (menos si el grafo tiene menos paradas).
+     */
+    int cercanas(double x, double y, int[] salida) {
+        int k = Math.min(salida.length, paradas.length);
+        if (k == 0) return 0;
+        Candidatas candidatas = new Candidatas(k);
+        buscarCercanas(0, paradas.length, x, y, candidatas);
+        candidatas.ordenar(salida);
+        return k;
+    }
+
+    /**
+     * Índices de las paradas a distancia menor o igual a radio de (x, y),
+     * de la más cercana a la más lejana.
+     */
+    int[] enRadio(double x, double y, double radio) {
+        Candidatas encontradas = new Candidatas(0);
+        if (radio >= 0) {
+            buscarEnRadio(0, paradas.length, x, y, radio * radio, encontradas);
+        }
+        int[] salida = new int[encontradas.tamanio];
+        encontradas.ordenar(salida);
+        return salida;
+    }
+
+    // ================= CONSULTAS =================
+
+    private void buscarCercanas(int desde, int hasta, double x, double y, Candidatas candidatas) {
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            double dx = x - xs[medio], dy = y - ys[medio];
+            candidatas.ofrecer(paradas[medio], dx * dx + dy * dy);
+
+            double corte = porX[medio] ? dx : dy;
+            // Primero el lado del punto; el otro solo si el corte está más cerca que la peor candidata
+            if (corte < 0) {
+                buscarCercanas(desde, medio, x, y, candidatas);
+                if (corte * corte > candidatas.peor()) return;
+                desde = medio + 1;
+            } else {
+                buscarCercanas(medio + 1, hasta, x, y, candidatas);
+                if (corte * corte > candidatas.peor()) return;
+                hasta = medio;
+            }
+        }
+    }
+
+    private void buscarEnRadio(int desde, int hasta, double x, double y, double radio2, Candidatas encontradas) {
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            double dx = x - xs[medio], dy = y - ys[medio];
+            double d2 = dx * dx + dy * dy;
+            if (d2 <= radio2) {
+                encontradas.agregar(paradas[medio], d2);
+            }
+
+            double corte = porX[medio] ? dx : dy;
+            if (corte * corte > radio2) {
+                // El círculo queda entero de un lado del corte
+                if (corte < 0) hasta = medio; else desde = medio + 1;
+            } else {
+                buscarEnRadio(desde, medio, x, y, radio2, encontradas);
+                desde = medio + 1;
+            }
+        }
+    }
+
+    /**
+     * Paradas encontradas con su distancia al cuadrado. Con capacidad
+     * positiva es un montículo de máximos que guarda las más cercanas; con
+     * capacidad 0 crece sin límite.
+     */
+    private static final class Candidatas {
+        private final int capacidad;
+        private int[] indices;
+        private double[] distancias;
+        private int tamanio;
+
+        Candidatas(int capacidad) {
+            this.capacidad = capacidad;
+            this.indices = new int[Math.max(capacidad, 16)];
+            this.distancias = new double[indices.length];
+        }
+
+        double peor() {
+            return tamanio < capacidad ? Double.POSITIVE_INFINITY : distancias[0];
+        }
+
+        void agregar(int indice, double distancia) {
+            if (tamanio == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * tamanio);
+                distancias = Arrays.copyOf(distancias, 2 * tamanio);
+            }
+            indices[tamanio] = indice;
+            distancias[tamanio++] = distancia;
+        }
+
+        void ofrecer(int indice, double distancia) {
+            if (tamanio < capacidad) {
+                // Sube en el montículo
+                int i = tamanio++;
+                while (i > 0 && distancias[(i - 1) / 2] < distancia) {
+                    indices[i] = indices[(i - 1) / 2];
+                    distancias[i] = distancias[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                indices[i] = indice;
+                distancias[i] = distancia;
+            } else if (distancia < distancias[0]) {
+                hundir(0, indice, distancia, tamanio);
+            }
+        }
+
+        /**
+         * Coloca (indice, distancia) en la posición i y la baja hasta que
+         * el montículo [0, limite) vuelva a estar en orden.
+         */
+        private void hundir(int i, int indice, double distancia, int limite) {
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= limite) break;
+                if (hijo + 1 < limite && distancias[hijo + 1] > distancias[hijo]) hijo++;
+                if (distancias[hijo] <= distancia) break;
+                indices[i] = indices[hijo];
+                distancias[i] = distancias[hijo];
+                i = hijo;
+            }
+            indices[i] = indice;
+            distancias[i] = distancia;
+        }
+
+        /**
+         * Copia los índices a salida, de menor a mayor distancia (empates
+         * por índice de parada).
+         */
+        void ordenar(int[] salida) {
+            if (capacidad == 0) {
+                // Se arma el montículo que no se mantuvo al agregar
+                for (int i = tamanio / 2 - 1; i >= 0; i--) {
+                    hundir(i, indices[i], distancias[i], tamanio);
+                }
+            }
+            // Ordenamiento por montículo: el mayor va quedando al final
+            for (int fin = tamanio - 1; fin > 0; fin--) {
+                int indice = indices[fin];
+                double distancia = distancias[fin];
+                indices[fin] = indices[0];
+                distancias[fin] = distancias[0];
+                hundir(0, indice, distancia, fin);
+            }
+            for (int i = 1; i < tamanio; i++) {
+                // Empates: el heap no es estable, se ordenan por índice
+                int j = i;
+                while (j > 0 && distancias[j - 1] == distancias[j] && indices[j - 1] > indices[j]) {
+                    int t = indices[j];
+                    indices[j] = indices[j - 1];
+                    indices[j - 1] = t;
+                    j--;
+                }
+            }
+            System.arraycopy(indices, 0, salida, 0, tamanio);
+        }
+    }
+
+    // ================= CONSTRUCCIÓN =================
+
+    private void construir(int desde, int hasta) {
+        while (hasta - desde > 1) {
+            double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = desde; i < hasta; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            boolean eje = maxX - minX >= maxY - minY;
+            int medio = (desde + hasta) >>> 1;
+            seleccionar(desde, hasta - 1, medio, eje ? xs : ys);
+            porX[medio] = eje;
+
+            // Recursión en el tramo más corto, iteración en el otro
+            if (medio - desde < hasta - medio - 1) {
+                construir(desde, medio);
+                desde = medio + 1;
+            } else {
+                construir(medio + 1, hasta);
+                hasta = medio;
+            }
+        }
+    }
+
+    /**
+     * Deja en k el elemento que ocuparía ese lugar si [izq, der] estuviera
+     * ordenado por coordenada, con los menores antes y los mayores después
+     * (selección de Hoare con pivote al medio).
+     */
+    private void seleccionar(int izq, int der, int k, double[] coordenada) {
+        while (izq < der) {
+            double pivote = coordenada[(izq + der) >>> 1];
+            int i = izq, j = der;
+            while (i <= j) {
+                while (coordenada[i] < pivote) i++;
+                while (coordenada[j] > pivote) j--;
+                if (i <= j) {
+                    intercambiar(i++, j--);
+                }
+            }
+            if (k <= j) {
+                der = j;
+            } else if (k >= i) {
+                izq = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void intercambiar(int i, int j) {
+        int p = paradas[i];
+        paradas[i] = paradas[j];
+        paradas[j] = p;
+        double t = xs[i];
+        xs[i] = xs[j];
+        xs[j] = t;
+        t = ys[i];
+        ys[i] = ys[j];
+        ys[j] = t;
+    }
+}
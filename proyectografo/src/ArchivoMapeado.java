@@ -0,0 +1,231 @@
+package src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lectura y escritura secuencial de primitivos sobre un archivo mapeado en
+ * memoria (little-endian).
+ *
+ * El archivo se recorre por ventanas de hasta 256 MB, así que puede superar
+ * los 2 GB de un MappedByteBuffer. Los arreglos se copian en bloque con
+ * las vistas IntBuffer/LongBuffer del mapeo.
+ *
+ * También hay un modo "contador", que no escribe nada y solo suma bytes:
+ * sirve para recorrer una vez el estado y conocer el tamaño exacto del
+ * archivo antes de crearlo.
+ */
+final class ArchivoMapeado implements Closeable {
+
+    private static final long VENTANA = 1L << 28;
+
+    private final FileChannel canal;         // null en modo contador
+    private final FileChannel.MapMode modo;
+    private final long tamanio;
+    private MappedByteBuffer buffer;
+    private long base;                       // posición en el archivo del inicio de buffer
+    private long contados;                   // bytes sumados en modo contador
+
+    private ArchivoMapeado(FileChannel canal, FileChannel.MapMode modo, long tamanio) {
+        this.canal = canal;
+        this.modo = modo;
+        this.tamanio = tamanio;
+    }
+
+    static ArchivoMapeado contador() {
+        return new ArchivoMapeado(null, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Crea (o reemplaza) el archivo con el tamaño exacto indicado.
+     */
+    static ArchivoMapeado paraEscribir(Path archivo, long tamanio) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ArchivoMapeado(canal, FileChannel.MapMode.READ_WRITE, tamanio);
+    }
+
+    static ArchivoMapeado paraLeer(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        return new ArchivoMapeado(canal, FileChannel.MapMode.READ_ONLY, canal.size());
+    }
+
+    /**
+     * Bytes escritos, leídos o contados hasta ahora.
+     */
+    long getPosicion() {
+        return canal == null ? contados : buffer == null ? 0 : base + buffer.position();
+    }
+
+    /**
+     * Bytes que quedan por leer o escribir hasta el final del archivo.
+     */
+    long getRestantes() {
+        return canal == null ? Long.MAX_VALUE : tamanio - getPosicion();
+    }
+
+    /**
+     * Garantiza al menos bytes disponibles en la ventana actual (para los
+     * primitivos sueltos; los arreglos se parten entre ventanas).
+     */
+    private void asegurar(int bytes) throws IOException {
+        if (buffer != null && buffer.remaining() >= bytes) return;
+        long desde = getPosicion();
+        long largo = Math.min(VENTANA, tamanio - desde);
+        if (largo < bytes) {
+            throw new IOException("Fin de archivo inesperado en la posición " + desde);
+        }
+        if (buffer != null && modo == FileChannel.MapMode.READ_WRITE) {
+            buffer.force();
+        }
+        buffer = canal.map(modo, desde, largo);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        base = desde;
+    }
+
+    // ================= ESCRITURA =================
+
+    void putInt(int v) throws IOException {
+        if (canal == null) { contados += 4; return; }
+        asegurar(4);
+        buffer.putInt(v);
+    }
+
+    void putLong(long v) throws IOException {
+        if (canal == null) { contados += 8; return; }
+        asegurar(8);
+        buffer.putLong(v);
+    }
+
+    void putDouble(double v) throws IOException {
+        putLong(Double.doubleToRawLongBits(v));
+    }
+
+    void putBoolean(boolean v) throws IOException {
+        putInt(v ? 1 : 0);
+    }
+
+    void putInts(int[] a, int desde, int cantidad) throws IOException {
+        if (canal == null) { contados += 4L * cantidad; return; }
+        while (cantidad > 0) {
+            asegurar(4);
+            int k = Math.min(cantidad, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(a, desde, k);
+            buffer.position(buffer.position() + 4 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void putLongs(long[] a, int desde, int cantidad) throws IOException {
+        if (canal == null) { contados += 8L * cantidad; return; }
+        while (cantidad > 0) {
+            asegurar(8);
+            int k = Math.min(cantidad, buffer.remaining() / 8);
+            buffer.asLongBuffer().put(a, desde, k);
+            buffer.position(buffer.position() + 8 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void putDoubles(double[] a, int desde, int cantidad) throws IOException {
+        if (canal == null) { contados += 8L * cantidad; return; }
+        while (cantidad > 0) {
+            asegurar(8);
+            int k = Math.min(cantidad, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().put(a, desde, k);
+            buffer.position(buffer.position() + 8 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void putBytes(byte[] a, int desde, int cantidad) throws IOException {
+        if (canal == null) { contados += cantidad; return; }
+        while (cantidad > 0) {
+            asegurar(1);
+            int k = Math.min(cantidad, buffer.remaining());
+            buffer.put(a, desde, k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    // ================= LECTURA =================
+
+    int getInt() throws IOException {
+        asegurar(4);
+        return buffer.getInt();
+    }
+
+    long getLong() throws IOException {
+        asegurar(8);
+        return buffer.getLong();
+    }
+
+    double getDouble() throws IOException {
+        return Double.longBitsToDouble(getLong());
+    }
+
+    boolean getBoolean() throws IOException {
+        return getInt() != 0;
+    }
+
+    void getInts(int[] a, int desde, int cantidad) throws IOException {
+        while (cantidad > 0) {
+            asegurar(4);
+            int k = Math.min(cantidad, buffer.remaining() / 4);
+            buffer.asIntBuffer().get(a, desde, k);
+            buffer.position(buffer.position() + 4 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void getLongs(long[] a, int desde, int cantidad) throws IOException {
+        while (cantidad > 0) {
+            asegurar(8);
+            int k = Math.min(cantidad, buffer.remaining() / 8);
+            buffer.asLongBuffer().get(a, desde, k);
+            buffer.position(buffer.position() + 8 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void getDoubles(double[] a, int desde, int cantidad) throws IOException {
+        while (cantidad > 0) {
+            asegurar(8);
+            int k = Math.min(cantidad, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().get(a, desde, k);
+            buffer.position(buffer.position() + 8 * k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    void getBytes(byte[] a, int desde, int cantidad) throws IOException {
+        while (cantidad > 0) {
+            asegurar(1);
+            int k = Math.min(cantidad, buffer.remaining());
+            buffer.get(a, desde, k);
+            desde += k;
+            cantidad -= k;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal == null) return;
+        if (buffer != null && modo == FileChannel.MapMode.READ_WRITE) {
+            buffer.force();
+        }
+        canal.close();
+    }
+}
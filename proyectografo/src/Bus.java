@@ -1,44 +1,65 @@
 package src;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Representa un bus que se desplaza por una ruta
  * avanzando 10 minutos por tick.
+ *
+ * Los pasajeros a bordo se guardan agrupados por la ranura de su parada de
+ * destino en la ruta (ver Ruta.ranura), así que al llegar a una parada se
+ * bajan de una vez los de su grupo sin revisar a los demás. Solo suben
+ * quienes van a una parada del recorrido; los demás siguen esperando otra
+ * línea.
  */
 public class Bus {
 
     private int id;
     private int capacidadMax;
-    private List<Pasajero> pasajeros;
+    private int[][] porDestino;           // porDestino[ranura] = handles de los que bajan ahí
+    private int[] cantidadPorDestino;
+    private int aBordo;
+    private long abordajes;               // total de pasajeros que subieron
 
-    private List<Nodo> rutaIda;
-    private List<Nodo> rutaVuelta;
-    private List<Nodo> rutaActual;
+    private Ruta ruta;
 
     private int indiceActual;
     private boolean enIda;
 
     // Movimiento temporal
-    private Nodo nodoActual;
-    private Nodo nodoSiguiente;
     private int tiempoRestanteArco;
     private int tiempoTotalArco;
+    private int minutosPendientes;   // minutos del tick actual aún no recorridos
+    private long finTick;            // minuto simulado en que termina el tick actual
+    private long reloj;              // minuto simulado hasta el que avanzó el bus
 
-    public Bus(int id, int capacidadMax, List<Nodo> rutaIda, List<Nodo> rutaVuelta) {
+    // Asignados por el Simulador al agregar el bus (null si no está en uno)
+    private PoolPasajeros pool;
+    private EstadoParadas paradas;
+    private EstadisticasEspera estadisticas;
+    private int[] bajados;                // handles que bajaron y aún no se liberan
+    private int[] subiendo;               // espacio para los que suben en una parada
+    private final ColaParadero.Criterio vaEnLaRuta = h -> ruta.ranura(pool.getDestino(h)) >= 0;
+    private int numBajados;
+
+    /**
+     * Crea un bus sobre una ruta ya compilada (la ruta puede compartirse).
+     */
+    public Bus(int id, int capacidadMax, Ruta ruta) {
         this.id = id;
         this.capacidadMax = capacidadMax;
-        this.rutaIda = rutaIda;
-        this.rutaVuelta = rutaVuelta;
-        this.rutaActual = rutaIda;
+        this.ruta = ruta;
 
-        this.pasajeros = new ArrayList<>();
+        int grupos = ruta.getNumRanuras();
+        this.porDestino = new int[grupos][];
+        this.cantidadPorDestino = new int[grupos];
+        this.aBordo = 0;
+        this.bajados = new int[8];
+        this.subiendo = new int[capacidadMax];
         this.indiceActual = 0;
         this.enIda = true;
 
-        this.nodoActual = rutaActual.get(0);
-        this.nodoSiguiente = rutaActual.get(1);
         this.tiempoRestanteArco = 0;
         this.tiempoTotalArco = 0;
     }
@@ -50,19 +71,30 @@ public class Bus {
     }
 
     public int getCapacidadActual() {
-        return pasajeros.size();
+        return aBordo;
     }
 
     public int getCapacidadMax() {
         return capacidadMax;
     }
 
+    /**
+     * Total de pasajeros que subieron al bus desde que empezó la simulación.
+     */
+    public long getAbordajes() {
+        return abordajes;
+    }
+
+    public Ruta getRuta() {
+        return ruta;
+    }
+
     public Nodo getNodoActual() {
-        return nodoActual;
+        return ruta.parada(enIda, indiceActual);
     }
 
     public Nodo getNodoSiguiente() {
-        return nodoSiguiente;
+        return ruta.parada(enIda, indiceActual + 1);
     }
 
     /**
@@ -73,73 +105,248 @@ public class Bus {
         return 1.0 - ((double) tiempoRestanteArco / tiempoTotalArco);
     }
 
+    /**
+     * Índice en el grafo de la parada a la que se dirige el bus.
+     */
+    int getIndiceSiguiente() {
+        return ruta.indiceParada(enIda, indiceActual + 1);
+    }
+
     // ================= MOVIMIENTO =================
 
     /**
      * Avanza 1 tick (10 minutos)
      */
-    public void avanzar(Grafo grafo) {
+    public void avanzar() {
+        iniciarTick(Simulador.MINUTOS_POR_TICK);
+        avanzarEnRegion(null, 0);
+    }
 
-        int minutosDisponibles = 10; // 1 tick = 10 min
+    /**
+     * Asigna los minutos que el bus debe recorrer en este tick.
+     */
+    void iniciarTick(int minutos) {
+        minutosPendientes = minutos;
+        finTick = reloj + minutos;
+    }
 
-        while (minutosDisponibles > 0) {
+    /**
+     * Fija el minuto simulado del bus (al agregarlo a una simulación en curso).
+     */
+    void sincronizarReloj(long minuto) {
+        reloj = minuto;
+    }
+
+    /**
+     * Conecta el bus al pool de pasajeros, a las colas de las paradas y a
+     * las estadísticas de espera del simulador.
+     */
+    void asignarSimulacion(PoolPasajeros pool, EstadoParadas paradas, EstadisticasEspera estadisticas) {
+        this.pool = pool;
+        this.paradas = paradas;
+        this.estadisticas = estadisticas;
+    }
+
+    /**
+     * Consume los minutos pendientes del tick mientras las paradas a las que
+     * llega pertenezcan a la región indicada (sin límite si regionDeParada es null).
+     *
+     * @return true si el bus quedó detenido antes de llegar a una parada de
+     *         otra región y todavía le quedan minutos en este tick.
+     */
+    boolean avanzarEnRegion(int[] regionDeParada, int region) {
+
+        while (minutosPendientes > 0) {
 
             // Si no estamos en un arco, iniciarlo
             if (tiempoRestanteArco <= 0) {
-                Arco arco = grafo.getArco(nodoActual, nodoSiguiente);
-                tiempoTotalArco = arco.getTiempo();
+                tiempoTotalArco = ruta.tiempoTramo(enIda, indiceActual);
                 tiempoRestanteArco = tiempoTotalArco;
             }
 
             // Caso 1: el arco se completa en este tick
-            if (tiempoRestanteArco <= minutosDisponibles) {
+            if (tiempoRestanteArco <= minutosPendientes) {
+
+                // La parada de llegada es de otra región: la atiende ese trabajador
+                if (regionDeParada != null && regionDeParada[getIndiceSiguiente()] != region) {
+                    return true;
+                }
 
-                minutosDisponibles -= tiempoRestanteArco;
+                minutosPendientes -= tiempoRestanteArco;
                 tiempoRestanteArco = 0;
+                reloj = finTick - minutosPendientes;
 
                 // Llegar al nodo
-                nodoActual = nodoSiguiente;
+                avanzarIndiceRuta();
                 bajarPasajeros();
                 subirPasajeros();
-                avanzarIndiceRuta();
 
             } else {
                 // Caso 2: NO alcanza el tiempo para completar el arco
-                tiempoRestanteArco -= minutosDisponibles;
-                minutosDisponibles = 0;
+                tiempoRestanteArco -= minutosPendientes;
+                minutosPendientes = 0;
             }
         }
+        reloj = finTick;
+        return false;
+    }
+
+    // ================= MODO EVENTOS =================
+
+    /**
+     * Minutos que faltan para la próxima llegada si el bus está en un arco,
+     * o el tiempo completo del siguiente arco si está detenido en una parada.
+     */
+    int minutosHastaLlegada() {
+        return tiempoRestanteArco > 0 ? tiempoRestanteArco : ruta.tiempoTramo(enIda, indiceActual);
+    }
+
+    /**
+     * Procesa la llegada a la parada siguiente (bajan y suben pasajeros) y
+     * retorna los minutos del arco que el bus inicia a continuación.
+     */
+    int llegar(long minuto) {
+        reloj = minuto;
+        avanzarIndiceRuta();
+        bajarPasajeros();
+        subirPasajeros();
+        return ruta.tiempoTramo(enIda, indiceActual);
+    }
+
+    /**
+     * Ajusta el progreso visible del arco actual (usado al muestrear el
+     * modo eventos en los bordes de cada tick).
+     */
+    void sincronizarArco(long minuto, int restante) {
+        reloj = minuto;
+        tiempoTotalArco = ruta.tiempoTramo(enIda, indiceActual);
+        tiempoRestanteArco = restante;
     }
 
     private void avanzarIndiceRuta() {
         indiceActual++;
 
-        if (indiceActual >= rutaActual.size() - 1) {
+        // La última parada de un tramo es la primera del siguiente
+        if (indiceActual >= ruta.largo(enIda) - 1) {
             enIda = !enIda;
-            rutaActual = enIda ? rutaIda : rutaVuelta;
             indiceActual = 0;
         }
 
-        nodoSiguiente = rutaActual.get(indiceActual + 1);
         tiempoRestanteArco = 0;
         tiempoTotalArco = 0;
     }
 
+    // ================= INSTANTÁNEAS =================
+
+    /**
+     * Escribe la posición, el movimiento y los pasajeros a bordo. Se
+     * incluye la forma de la ruta para detectar una instantánea ajena.
+     */
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        archivo.putInt(capacidadMax);
+        archivo.putInt(ruta.largo(true));
+        archivo.putInt(ruta.largo(false));
+        archivo.putInt(indiceActual);
+        archivo.putBoolean(enIda);
+        archivo.putInt(tiempoRestanteArco);
+        archivo.putInt(tiempoTotalArco);
+        archivo.putInt(minutosPendientes);
+        archivo.putLong(finTick);
+        archivo.putLong(reloj);
+        archivo.putLong(abordajes);
+        for (int g = 0; g < porDestino.length; g++) {
+            archivo.putInt(cantidadPorDestino[g]);
+            archivo.putInts(porDestino[g], 0, cantidadPorDestino[g]);
+        }
+        archivo.putInt(numBajados);
+        archivo.putInts(bajados, 0, numBajados);
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        if (archivo.getInt() != capacidadMax || archivo.getInt() != ruta.largo(true)
+                || archivo.getInt() != ruta.largo(false)) {
+            throw new IllegalStateException("El bus " + id + " no coincide con el de la instantánea");
+        }
+        indiceActual = archivo.getInt();
+        enIda = archivo.getBoolean();
+        tiempoRestanteArco = archivo.getInt();
+        tiempoTotalArco = archivo.getInt();
+        minutosPendientes = archivo.getInt();
+        finTick = archivo.getLong();
+        reloj = archivo.getLong();
+        abordajes = archivo.getLong();
+        aBordo = 0;
+        for (int g = 0; g < porDestino.length; g++) {
+            int k = archivo.getInt();
+            if (porDestino[g] == null || porDestino[g].length < k) {
+                porDestino[g] = new int[Math.max(4, k)];
+            }
+            archivo.getInts(porDestino[g], 0, k);
+            cantidadPorDestino[g] = k;
+            aBordo += k;
+        }
+        numBajados = archivo.getInt();
+        if (bajados.length < numBajados) {
+            bajados = new int[numBajados];
+        }
+        archivo.getInts(bajados, 0, numBajados);
+    }
+
     // ================= PASAJEROS =================
 
     public void subirPasajeros() {
-        while (!nodoActual.getCola().isEmpty() && pasajeros.size() < capacidadMax) {
-            pasajeros.add(nodoActual.removerPasajero());
+        if (paradas == null) return;    // fuera de un simulador no hay colas
+        int parada = ruta.indiceParada(enIda, indiceActual);
+        int k = paradas.removerLote(pool, parada, subiendo, capacidadMax - aBordo, vaEnLaRuta);
+        for (int i = 0; i < k; i++) {
+            int p = subiendo[i];
+            pool.setTiempoLlegada(p, reloj);
+            estadisticas.registrar(parada, reloj, reloj - pool.getTiempoInicio(p));
+            abordar(p);
+        }
+        abordajes += k;
+    }
+
+    private void abordar(int p) {
+        int grupo = ruta.ranura(pool.getDestino(p));
+        int[] lista = porDestino[grupo];
+        int k = cantidadPorDestino[grupo];
+        if (lista == null) {
+            lista = porDestino[grupo] = new int[4];
+        } else if (k == lista.length) {
+            lista = porDestino[grupo] = Arrays.copyOf(lista, 2 * k);
         }
+        lista[k] = p;
+        cantidadPorDestino[grupo] = k + 1;
+        aBordo++;
     }
 
+    /**
+     * Baja a los pasajeros cuyo destino es la parada actual. Sus casillas
+     * del pool se devuelven después, en liberarBajados, porque el bus puede
+     * estar avanzando en paralelo con otros.
+     */
     public void bajarPasajeros() {
-        List<Pasajero> bajar = new ArrayList<>();
-        for (Pasajero p : pasajeros) {
-            if (p.getDestino().equals(nodoActual.getNombre())) {
-                bajar.add(p);
+        int grupo = ruta.ranuraParada(enIda, indiceActual);
+        int k = cantidadPorDestino[grupo];
+        if (k > 0) {
+            if (numBajados + k > bajados.length) {
+                bajados = Arrays.copyOf(bajados, Math.max(2 * bajados.length, numBajados + k));
             }
+            System.arraycopy(porDestino[grupo], 0, bajados, numBajados, k);
+            numBajados += k;
+            cantidadPorDestino[grupo] = 0;
+            aBordo -= k;
+        }
+    }
+
+    /**
+     * Devuelve al pool las casillas de los pasajeros que ya bajaron.
+     */
+    void liberarBajados() {
+        for (int i = 0; i < numBajados; i++) {
+            pool.liberar(bajados[i]);
         }
-        pasajeros.removeAll(bajar);
+        numBajados = 0;
     }
 }
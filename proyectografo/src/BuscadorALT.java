@@ -0,0 +1,269 @@
+package src;
+
+import java.util.*;
+
+/**
+ * Consultas punto a punto con Dijkstra bidireccional y cotas ALT
+ * (A*, Landmarks y desigualdad Triangular).
+ *
+ * Se eligen unas pocas paradas "landmark" y se precalculan las distancias
+ * desde y hacia cada una. Con ellas se obtiene una cota inferior de la
+ * distancia que falta, que guía ambas búsquedas hacia el otro extremo.
+ * Las coordenadas de pantalla no sirven como cota porque no son minutos.
+ *
+ * Las distancias obtenidas son las mismas que las de Grafo.dijkstra; ante
+ * empates puede elegirse otro camino de igual duración.
+ * Las tablas se reconstruyen solas cuando cambia la versión del grafo.
+ */
+public class BuscadorALT {
+
+    private final Grafo grafo;
+    private final int numLandmarks;
+
+    private int[] landmarks;
+    private int[][] desdeLandmark;   // desdeLandmark[k][v] = d(landmark k, v)
+    private int[][] haciaLandmark;   // haciaLandmark[k][v] = d(v, landmark k)
+    private long versionTablas;
+
+    // Estado de la última consulta
+    private long[] distAdelante;
+    private long[] distAtras;
+    private int[] previoAdelante;
+    private int[] previoAtras;
+    private long[] potencial;
+    private int[] marca;            // marca[v] == consulta => los arreglos de v son válidos
+    private HeapIndexado colaAdelante;
+    private HeapIndexado colaAtras;
+    private int consulta;
+    private int asentados;
+
+    public BuscadorALT(Grafo grafo, int numLandmarks) {
+        this.grafo = grafo;
+        this.numLandmarks = numLandmarks;
+        reconstruir();
+    }
+
+    // ================= PREPROCESO =================
+
+    /**
+     * Elige los landmarks y recalcula sus tablas de distancias.
+     * Los landmarks se eligen de a uno, tomando la parada más lejana a los
+     * ya elegidos (heurística "farthest").
+     */
+    public synchronized void reconstruir() {
+        int n = grafo.getNumParaderos();
+        int k = Math.min(numLandmarks, n);
+        landmarks = new int[k];
+        desdeLandmark = new int[k][];
+        haciaLandmark = new int[k][];
+
+        int[] cercania = new int[n];     // distancia al landmark más cercano
+        Arrays.fill(cercania, Grafo.INFINITO);
+        int siguiente = 0;
+
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = siguiente;
+            desdeLandmark[i] = dijkstraCompleto(siguiente, grafo.offsets(), grafo.destinos(), grafo.tiempos());
+            haciaLandmark[i] = dijkstraCompleto(siguiente,
+                    grafo.offsetsInversos(), grafo.origenesInversos(), grafo.tiemposInversos());
+
+            long mejor = -1;
+            for (int v = 0; v < n; v++) {
+                long ida = desdeLandmark[i][v];
+                long vuelta = haciaLandmark[i][v];
+                long d = (ida == Grafo.INFINITO || vuelta == Grafo.INFINITO)
+                        ? Grafo.INFINITO : ida + vuelta;
+                if (d < cercania[v]) {
+                    cercania[v] = (int) Math.min(d, Grafo.INFINITO);
+                }
+                // Preferir paradas alcanzables; las inalcanzables solo si no queda otra
+                long puntaje = cercania[v] == Grafo.INFINITO ? 0 : cercania[v];
+                if (puntaje > mejor) {
+                    mejor = puntaje;
+                    siguiente = v;
+                }
+            }
+        }
+
+        distAdelante = new long[n];
+        distAtras = new long[n];
+        previoAdelante = new int[n];
+        previoAtras = new int[n];
+        potencial = new long[n];
+        marca = new int[n];
+        colaAdelante = new HeapIndexado(n);
+        colaAtras = new HeapIndexado(n);
+        consulta = 0;
+        versionTablas = grafo.getVersion();
+    }
+
+    private int[] dijkstraCompleto(int origen, int[] off, int[] dst, int[] tie) {
+        int n = off.length - 1;
+        NucleoDijkstra nucleo = NucleoDijkstra.delHilo(n);
+        nucleo.buscar(off, dst, tie, origen, -1);
+        int[] dist = new int[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = nucleo.distancia(v);
+        }
+        return dist;
+    }
+
+    // ================= CONSULTAS =================
+
+    /**
+     * Camino más corto entre dos paradas (mismo formato que Grafo.dijkstra).
+     */
+    public synchronized List<Nodo> ruta(Nodo origen, Nodo destino) {
+        int encuentro = buscar(origen.getIndice(), destino.getIndice());
+        List<Nodo> camino = new ArrayList<>();
+        if (encuentro == -1) {
+            camino.add(destino);
+            return camino;
+        }
+        for (int v = encuentro; v != -1; v = previoAdelante[v]) {
+            camino.add(grafo.getNodo(v));
+        }
+        Collections.reverse(camino);
+        for (int v = previoAtras[encuentro]; v != -1; v = previoAtras[v]) {
+            camino.add(grafo.getNodo(v));
+        }
+        return camino;
+    }
+
+    /**
+     * Tiempo mínimo en minutos entre dos paradas, o Grafo.INFINITO.
+     */
+    public synchronized int distancia(Nodo origen, Nodo destino) {
+        int s = origen.getIndice();
+        int t = destino.getIndice();
+        int encuentro = buscar(s, t);
+        if (encuentro == -1) {
+            return Grafo.INFINITO;
+        }
+        // Las distancias reducidas valen 2·d - p(s) + p(t)
+        long reducida = distAdelante[encuentro] + distAtras[encuentro];
+        return (int) ((reducida + potencial[s] - potencial[t]) / 2);
+    }
+
+    /**
+     * Paradas asentadas (sacadas de la cola) en la última consulta.
+     */
+    public synchronized int getAsentadosUltimaConsulta() {
+        return asentados;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Búsqueda bidireccional sobre los pesos reducidos
+     * w'(u,v) = 2·w(u,v) - p(u) + p(v), con p = πadelante - πatrás.
+     * Ambas búsquedas ven los mismos pesos no negativos, así que el criterio
+     * de término clásico (tope adelante + tope atrás >= mejor) sigue siendo
+     * válido. Retorna la parada de encuentro o -1 si no hay camino.
+     */
+    private int buscar(int s, int t) {
+        if (versionTablas != grafo.getVersion()) {
+            reconstruir();
+        }
+        consulta++;
+        asentados = 0;
+
+        int[] off = grafo.offsets();
+        int[] dst = grafo.destinos();
+        int[] tie = grafo.tiempos();
+        int[] offInv = grafo.offsetsInversos();
+        int[] org = grafo.origenesInversos();
+        int[] tieInv = grafo.tiemposInversos();
+
+        if (!visitar(s, s, t) || !visitar(t, s, t)) {
+            return -1;
+        }
+        distAdelante[s] = 0;
+        distAtras[t] = 0;
+
+        colaAdelante.limpiar();
+        colaAtras.limpiar();
+        colaAdelante.insertarOReducir(s, 0);
+        colaAtras.insertarOReducir(t, 0);
+
+        long mejor = Long.MAX_VALUE;
+        int encuentro = s == t ? s : -1;
+        if (s == t) mejor = 0;
+
+        while (!colaAdelante.estaVacio() && !colaAtras.estaVacio()) {
+            if (colaAdelante.claveMinima() + colaAtras.claveMinima() >= mejor) {
+                break;
+            }
+
+            boolean adelante = colaAdelante.claveMinima() <= colaAtras.claveMinima();
+            HeapIndexado cola = adelante ? colaAdelante : colaAtras;
+            long[] dist = adelante ? distAdelante : distAtras;
+            long[] otra = adelante ? distAtras : distAdelante;
+            int[] previo = adelante ? previoAdelante : previoAtras;
+            int[] o = adelante ? off : offInv;
+            int[] d = adelante ? dst : org;
+            int[] w = adelante ? tie : tieInv;
+
+            int u = cola.extraerMinimo();
+            asentados++;
+
+            for (int e = o[u]; e < o[u + 1]; e++) {
+                int v = d[e];
+                if (!visitar(v, s, t)) continue;
+
+                long reducido = adelante
+                        ? 2L * w[e] - potencial[u] + potencial[v]
+                        : 2L * w[e] - potencial[v] + potencial[u];
+                long nd = dist[u] + reducido;
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    previo[v] = u;
+                    cola.insertarOReducir(v, nd);
+                }
+                if (otra[v] != Long.MAX_VALUE && dist[v] + otra[v] < mejor) {
+                    mejor = dist[v] + otra[v];
+                    encuentro = v;
+                }
+            }
+        }
+        return encuentro;
+    }
+
+    /**
+     * Inicializa el estado de v para la consulta actual si hace falta.
+     * Retorna false si los landmarks prueban que v no está en ningún
+     * camino de s a t (s no llega a v, o v no llega a t).
+     */
+    private boolean visitar(int v, int s, int t) {
+        if (marca[v] == consulta) {
+            return potencial[v] != Long.MIN_VALUE;
+        }
+        marca[v] = consulta;
+        distAdelante[v] = Long.MAX_VALUE;
+        distAtras[v] = Long.MAX_VALUE;
+        previoAdelante[v] = -1;
+        previoAtras[v] = -1;
+
+        long cotaHaciaT = 0;    // cota inferior de d(v, t)
+        long cotaDesdeS = 0;    // cota inferior de d(s, v)
+        for (int k = 0; k < landmarks.length; k++) {
+            long lv = desdeLandmark[k][v], vl = haciaLandmark[k][v];
+            long lt = desdeLandmark[k][t], tl = haciaLandmark[k][t];
+            long ls = desdeLandmark[k][s], sl = haciaLandmark[k][s];
+            boolean lvInf = lv == Grafo.INFINITO, vlInf = vl == Grafo.INFINITO;
+
+            if ((tl != Grafo.INFINITO && vlInf) || (ls != Grafo.INFINITO && lvInf)) {
+                potencial[v] = Long.MIN_VALUE;
+                return false;
+            }
+            if (lt != Grafo.INFINITO && !lvInf) cotaHaciaT = Math.max(cotaHaciaT, lt - lv);
+            if (tl != Grafo.INFINITO && !vlInf) cotaHaciaT = Math.max(cotaHaciaT, vl - tl);
+            if (ls != Grafo.INFINITO && !lvInf) cotaDesdeS = Math.max(cotaDesdeS, lv - ls);
+            if (sl != Grafo.INFINITO && !vlInf) cotaDesdeS = Math.max(cotaDesdeS, sl - vl);
+        }
+        potencial[v] = cotaHaciaT - cotaDesdeS;
+        return true;
+    }
+}
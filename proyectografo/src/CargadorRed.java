@@ -0,0 +1,360 @@
+package src;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Carga una red desde un directorio con archivos al estilo GTFS:
+ *
+ *   stops.txt       stop_id, stop_name, stop_lat, stop_lon [, location_type]
+ *   trips.txt       trip_id, route_id [, direction_id]
+ *   stop_times.txt  trip_id, arrival_time, departure_time, stop_id, stop_sequence
+ *
+ * Los archivos se leen en streaming (ver LectorCsv) y los ids de texto se
+ * numeran con TablaIds, sin crear objetos intermedios por fila: los únicos
+ * objetos que quedan son los Nodo del grafo y las rutas.
+ *
+ * Los arcos salen de las paradas consecutivas de cada viaje, con el menor
+ * tiempo observado entre ambas (en minutos, redondeado hacia arriba). Las
+ * horas en blanco se interpolan entre las paradas con hora. stop_times.txt
+ * debe venir agrupado por viaje y ordenado por stop_sequence, como lo
+ * exportan los sistemas de planificación habituales.
+ *
+ * Cada línea (route_id) toma como ida su viaje más largo con direction_id 0
+ * y como vuelta el más largo con direction_id 1. Las líneas cuya ida y
+ * vuelta no se empalman en los extremos (por ejemplo las circulares de un
+ * solo sentido) se omiten y se cuentan en getLineasOmitidas().
+ *
+ * Las coordenadas se proyectan a metros (equirrectangular, con Y hacia el
+ * sur como en pantalla) tomando la primera parada como origen. El id de
+ * cada Nodo es su posición en stops.txt, desde 1.
+ */
+public class CargadorRed {
+
+    private static final double METROS_POR_GRADO = 111_320;
+
+    private int busesPorLinea = 1;
+    private int capacidad = 40;
+    private int lineasOmitidas;
+
+    // Paradas
+    private TablaIds paradas;
+    private double latitudOrigen = Double.NaN;
+    private double longitudOrigen;
+    private double cosenoOrigen;
+
+    // Viajes: línea y sentido de cada trip_id
+    private TablaIds viajes;
+    private TablaIds lineas;
+    private int[] lineaDeViaje;
+    private byte[] sentidoDeViaje;
+
+    // Viaje en curso al leer stop_times.txt
+    private int[] paradasViaje = new int[64];
+    private int[] llegadas = new int[64];
+    private int[] salidas = new int[64];
+    private int largoViaje;
+
+    private TablaArcos arcos;
+    private int[][] recorridos;   // recorridos[2 * línea + sentido] = viaje más largo
+
+    /**
+     * Cantidad de buses y capacidad con que se arma cada línea (el formato
+     * no trae la flota). Por defecto un bus de 40 pasajeros.
+     */
+    public void setFlota(int busesPorLinea, int capacidad) {
+        if (busesPorLinea < 0 || capacidad < 0) {
+            throw new IllegalArgumentException("Cantidad de buses y capacidad no pueden ser negativas");
+        }
+        this.busesPorLinea = busesPorLinea;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Líneas de la última carga que no se pudieron armar como ida y vuelta.
+     */
+    public int getLineasOmitidas() {
+        return lineasOmitidas;
+    }
+
+    /**
+     * Lee los tres archivos del directorio y arma el escenario, con el
+     * nombre del directorio.
+     *
+     * @throws IOException si falta un archivo o columna, o hay datos mal formados.
+     */
+    public Escenario cargar(Path directorio) throws IOException {
+        paradas = new TablaIds();
+        viajes = new TablaIds();
+        lineas = new TablaIds();
+        lineaDeViaje = new int[1024];
+        sentidoDeViaje = new byte[1024];
+        arcos = new TablaArcos();
+        recorridos = new int[16][];
+        lineasOmitidas = 0;
+        latitudOrigen = Double.NaN;
+
+        Path archivoParadas = directorio.resolve("stops.txt");
+        Grafo grafo = new Grafo((int) Math.min(Integer.MAX_VALUE - 8, Files.size(archivoParadas) / 48), 16);
+        leerParadas(archivoParadas, grafo);
+        leerViajes(directorio.resolve("trips.txt"));
+        leerHorarios(directorio.resolve("stop_times.txt"));
+        grafo.agregarArcos(arcos.origenes, arcos.destinos, arcos.tiempos, arcos.cantidad);
+
+        Path nombre = directorio.toAbsolutePath().normalize().getFileName();
+        Escenario escenario = new Escenario(nombre == null ? "red" : nombre.toString(), grafo);
+        for (int l = 0; l < lineas.size(); l++) {
+            Ruta ruta = armarRuta(grafo, recorridos[2 * l], recorridos[2 * l + 1]);
+            if (ruta == null) {
+                lineasOmitidas++;
+            } else {
+                escenario.agregarLinea(ruta, busesPorLinea, capacidad);
+            }
+        }
+
+        // Solo queda lo que referencia el escenario
+        paradas = viajes = lineas = null;
+        lineaDeViaje = null;
+        sentidoDeViaje = null;
+        arcos = null;
+        recorridos = null;
+        return escenario;
+    }
+
+    // ================= ARCHIVOS =================
+
+    private void leerParadas(Path archivo, Grafo grafo) throws IOException {
+        try (LectorCsv csv = new LectorCsv(archivo)) {
+            int id = csv.columnaObligatoria("stop_id");
+            int nombre = csv.columna("stop_name");
+            int lat = csv.columnaObligatoria("stop_lat");
+            int lon = csv.columnaObligatoria("stop_lon");
+            int tipo = csv.columna("location_type");
+
+            while (csv.siguiente()) {
+                // Estaciones, accesos, etc. no son paradas donde se detenga un bus
+                if (!csv.vacio(tipo) && csv.entero(tipo) != 0) continue;
+
+                int k = paradas.agregar(csv.bytes(), csv.inicio(id), csv.largo(id));
+                if (k != grafo.getNumParaderos()) {
+                    throw csv.error(id, "está repetido");
+                }
+                double latitud = csv.decimal(lat);
+                double longitud = csv.decimal(lon);
+                if (Double.isNaN(latitudOrigen)) {
+                    latitudOrigen = latitud;
+                    longitudOrigen = longitud;
+                    cosenoOrigen = Math.cos(Math.toRadians(latitud));
+                }
+                double x = (longitud - longitudOrigen) * cosenoOrigen * METROS_POR_GRADO;
+                double y = (latitudOrigen - latitud) * METROS_POR_GRADO;
+                String texto = csv.vacio(nombre) ? csv.texto(id) : csv.texto(nombre);
+                grafo.agregarParadero(new Nodo(k + 1, texto, x, y));
+            }
+        }
+    }
+
+    private void leerViajes(Path archivo) throws IOException {
+        try (LectorCsv csv = new LectorCsv(archivo)) {
+            int viaje = csv.columnaObligatoria("trip_id");
+            int linea = csv.columnaObligatoria("route_id");
+            int sentido = csv.columna("direction_id");
+
+            while (csv.siguiente()) {
+                int v = viajes.size();
+                if (viajes.agregar(csv.bytes(), csv.inicio(viaje), csv.largo(viaje)) != v) {
+                    throw csv.error(viaje, "está repetido");
+                }
+                int s = csv.vacio(sentido) ? 0 : csv.entero(sentido);
+                if (s != 0 && s != 1) {
+                    throw csv.error(sentido, "debe ser 0 o 1");
+                }
+                if (v == lineaDeViaje.length) {
+                    lineaDeViaje = Arrays.copyOf(lineaDeViaje, v * 2);
+                    sentidoDeViaje = Arrays.copyOf(sentidoDeViaje, v * 2);
+                }
+                lineaDeViaje[v] = lineas.agregar(csv.bytes(), csv.inicio(linea), csv.largo(linea));
+                sentidoDeViaje[v] = (byte) s;
+            }
+        }
+        if (2 * lineas.size() > recorridos.length) {
+            recorridos = new int[2 * lineas.size()][];
+        }
+    }
+
+    private void leerHorarios(Path archivo) throws IOException {
+        boolean[] vistos = new boolean[viajes.size()];
+        try (LectorCsv csv = new LectorCsv(archivo)) {
+            int viaje = csv.columnaObligatoria("trip_id");
+            int llegada = csv.columnaObligatoria("arrival_time");
+            int salida = csv.columnaObligatoria("departure_time");
+            int parada = csv.columnaObligatoria("stop_id");
+            int secuencia = csv.columnaObligatoria("stop_sequence");
+
+            int actual = -1;
+            int ultimaSecuencia = 0;
+            while (csv.siguiente()) {
+                int v = viajes.buscar(csv.bytes(), csv.inicio(viaje), csv.largo(viaje));
+                if (v < 0) {
+                    throw csv.error(viaje, "no está en trips.txt");
+                }
+                int s = csv.entero(secuencia);
+                if (v != actual) {
+                    if (vistos[v]) {
+                        throw csv.error(viaje, "aparece separado: stop_times.txt debe venir agrupado por viaje");
+                    }
+                    cerrarViaje(actual);
+                    vistos[v] = true;
+                    actual = v;
+                } else if (s <= ultimaSecuencia) {
+                    throw csv.error(secuencia, "no crece dentro del viaje");
+                }
+                ultimaSecuencia = s;
+
+                int p = paradas.buscar(csv.bytes(), csv.inicio(parada), csv.largo(parada));
+                if (p < 0) {
+                    throw csv.error(parada, "no está en stops.txt");
+                }
+                int horaLlegada = csv.vacio(llegada) ? -1 : csv.segundos(llegada);
+                int horaSalida = csv.vacio(salida) ? horaLlegada : csv.segundos(salida);
+                agregarParadaViaje(p, horaLlegada < 0 ? horaSalida : horaLlegada, horaSalida);
+            }
+            cerrarViaje(actual);
+        }
+    }
+
+    // ================= VIAJES =================
+
+    private void agregarParadaViaje(int parada, int llegada, int salida) {
+        if (largoViaje > 0 && paradasViaje[largoViaje - 1] == parada) {
+            salidas[largoViaje - 1] = salida;   // la misma parada dos veces seguidas
+            return;
+        }
+        if (largoViaje == paradasViaje.length) {
+            paradasViaje = Arrays.copyOf(paradasViaje, largoViaje * 2);
+            llegadas = Arrays.copyOf(llegadas, largoViaje * 2);
+            salidas = Arrays.copyOf(salidas, largoViaje * 2);
+        }
+        paradasViaje[largoViaje] = parada;
+        llegadas[largoViaje] = llegada;
+        salidas[largoViaje] = salida;
+        largoViaje++;
+    }
+
+    /**
+     * Registra los arcos del viaje leído y lo guarda como recorrido de su
+     * línea y sentido si es el más largo hasta ahora.
+     */
+    private void cerrarViaje(int viaje) {
+        if (viaje < 0 || largoViaje == 0) {
+            largoViaje = 0;
+            return;
+        }
+        interpolarHoras();
+        for (int i = 1; i < largoViaje; i++) {
+            int minutos = 1;
+            if (salidas[i - 1] >= 0 && llegadas[i] >= 0) {
+                minutos = Math.max(1, (llegadas[i] - salidas[i - 1] + 59) / 60);
+            }
+            arcos.agregar(paradasViaje[i - 1], paradasViaje[i], minutos);
+        }
+
+        int r = 2 * lineaDeViaje[viaje] + sentidoDeViaje[viaje];
+        if (largoViaje >= 2 && (recorridos[r] == null || recorridos[r].length < largoViaje)) {
+            recorridos[r] = Arrays.copyOf(paradasViaje, largoViaje);
+        }
+        largoViaje = 0;
+    }
+
+    /**
+     * Completa las horas que faltan entre dos paradas con hora, repartiendo
+     * el tiempo en partes iguales. Las de los extremos quedan sin hora.
+     */
+    private void interpolarHoras() {
+        int anterior = -1;
+        for (int i = 0; i < largoViaje; i++) {
+            if (llegadas[i] < 0) continue;
+            if (anterior >= 0 && i - anterior > 1) {
+                double paso = (double) (llegadas[i] - salidas[anterior]) / (i - anterior);
+                for (int j = anterior + 1; j < i; j++) {
+                    llegadas[j] = salidas[j] = salidas[anterior] + (int) Math.round(paso * (j - anterior));
+                }
+            }
+            anterior = i;
+        }
+    }
+
+    private static Ruta armarRuta(Grafo grafo, int[] ida, int[] vuelta) {
+        if (ida == null || vuelta == null
+                || ida[ida.length - 1] != vuelta[0] || vuelta[vuelta.length - 1] != ida[0]) {
+            return null;
+        }
+        return new Ruta(grafo, nodos(grafo, ida), nodos(grafo, vuelta));
+    }
+
+    private static List<Nodo> nodos(Grafo grafo, int[] indices) {
+        List<Nodo> lista = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            lista.add(grafo.getNodo(i));
+        }
+        return lista;
+    }
+
+    /**
+     * Arcos distintos (origen, destino) con el menor tiempo visto, en el
+     * orden en que aparecen por primera vez.
+     */
+    private static final class TablaArcos {
+        int[] origenes = new int[1024];
+        int[] destinos = new int[1024];
+        int[] tiempos = new int[1024];
+        int cantidad;
+        private long[] claves = new long[2048];
+        private int[] posiciones = new int[2048];   // arco + 1, 0 = libre
+
+        void agregar(int origen, int destino, int tiempo) {
+            long clave = ((long) origen << 32) | destino;
+            int mascara = claves.length - 1;
+            int i = (int) ((clave * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+            for (; posiciones[i] != 0; i = (i + 1) & mascara) {
+                if (claves[i] == clave) {
+                    int e = posiciones[i] - 1;
+                    tiempos[e] = Math.min(tiempos[e], tiempo);
+                    return;
+                }
+            }
+            if (cantidad == origenes.length) {
+                origenes = Arrays.copyOf(origenes, cantidad * 2);
+                destinos = Arrays.copyOf(destinos, cantidad * 2);
+                tiempos = Arrays.copyOf(tiempos, cantidad * 2);
+            }
+            origenes[cantidad] = origen;
+            destinos[cantidad] = destino;
+            tiempos[cantidad] = tiempo;
+            claves[i] = clave;
+            posiciones[i] = ++cantidad;
+            if (cantidad * 2 > claves.length) {
+                redimensionar();
+            }
+        }
+
+        private void redimensionar() {
+            claves = new long[claves.length * 2];
+            posiciones = new int[claves.length];
+            int mascara = claves.length - 1;
+            for (int e = 0; e < cantidad; e++) {
+                long clave = ((long) origenes[e] << 32) | destinos[e];
+                int i = (int) ((clave * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+                while (posiciones[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+                posiciones[i] = e + 1;
+            }
+        }
+    }
+}
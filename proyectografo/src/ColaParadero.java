@@ -0,0 +1,175 @@
+package src;
+
+import java.io.IOException;
+
+/**
+ * Cola FIFO de handles de pasajeros sobre un arreglo circular que crece
+ * en potencias de dos, con un límite opcional de capacidad (el andén).
+ *
+ * Las operaciones en lote copian tramos contiguos del arreglo con
+ * System.arraycopy en vez de mover los elementos de a uno.
+ */
+class ColaParadero {
+
+    static final int SIN_LIMITE = Integer.MAX_VALUE;
+
+    /**
+     * Decide qué handles se sacan en desencolarLote con criterio.
+     */
+    interface Criterio {
+        boolean acepta(int h);
+    }
+
+    private int[] datos;
+    private int mascara;          // datos.length - 1
+    private int primero;
+    private int tamanio;
+    private int capacidadMaxima;
+
+    ColaParadero() {
+        this.datos = new int[8];
+        this.mascara = 7;
+        this.capacidadMaxima = SIN_LIMITE;
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Lugares libres antes de llegar a la capacidad máxima.
+     */
+    int espacioLibre() {
+        return capacidadMaxima - tamanio;
+    }
+
+    int getCapacidadMaxima() {
+        return capacidadMaxima;
+    }
+
+    /**
+     * Fija el máximo de pasajeros en la cola (SIN_LIMITE para no tener).
+     * Los que ya esperan se conservan aunque lo superen.
+     */
+    void setCapacidadMaxima(int capacidadMaxima) {
+        if (capacidadMaxima < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        }
+        this.capacidadMaxima = capacidadMaxima;
+    }
+
+    /**
+     * @return false si la cola está llena.
+     */
+    boolean encolar(int h) {
+        if (tamanio >= capacidadMaxima) {
+            return false;
+        }
+        asegurar(tamanio + 1);
+        datos[(primero + tamanio) & mascara] = h;
+        tamanio++;
+        return true;
+    }
+
+    /**
+     * Encola handles[desde, desde + cantidad) mientras haya lugar.
+     *
+     * @return cuántos se encolaron (siempre un prefijo del lote).
+     */
+    int encolarLote(int[] handles, int desde, int cantidad) {
+        int k = Math.min(cantidad, Math.max(0, espacioLibre()));
+        if (k == 0) return 0;
+        asegurar(tamanio + k);
+        int fin = (primero + tamanio) & mascara;
+        int tramo = Math.min(k, datos.length - fin);
+        System.arraycopy(handles, desde, datos, fin, tramo);
+        System.arraycopy(handles, desde + tramo, datos, 0, k - tramo);
+        tamanio += k;
+        return k;
+    }
+
+    /**
+     * @return el primer handle, o -1 si la cola está vacía.
+     */
+    int desencolar() {
+        if (tamanio == 0) return -1;
+        int h = datos[primero];
+        primero = (primero + 1) & mascara;
+        tamanio--;
+        return h;
+    }
+
+    /**
+     * Saca hasta max handles del frente y los copia en destino desde la
+     * posición desde.
+     *
+     * @return cuántos se sacaron.
+     */
+    int desencolarLote(int[] destino, int desde, int max) {
+        int k = Math.min(max, tamanio);
+        if (k <= 0) return 0;
+        int tramo = Math.min(k, datos.length - primero);
+        System.arraycopy(datos, primero, destino, desde, tramo);
+        System.arraycopy(datos, 0, destino, desde + tramo, k - tramo);
+        primero = (primero + k) & mascara;
+        tamanio -= k;
+        return k;
+    }
+
+    /**
+     * Saca, en orden de la cola, hasta max handles que el criterio acepta y
+     * los copia en destino desde la posición desde. Los demás quedan en la
+     * cola en el mismo orden.
+     *
+     * @return cuántos se sacaron.
+     */
+    int desencolarLote(int[] destino, int desde, int max, Criterio criterio) {
+        int sacados = 0;
+        int quedan = 0;
+        for (int i = 0; i < tamanio; i++) {
+            int h = datos[(primero + i) & mascara];
+            if (sacados < max && criterio.acepta(h)) {
+                destino[desde + sacados++] = h;
+            } else {
+                // Se corre hacia el frente, sobre los que ya salieron
+                datos[(primero + quedan++) & mascara] = h;
+            }
+        }
+        tamanio = quedan;
+        return sacados;
+    }
+
+    /**
+     * Escribe el límite y los handles en orden de la cola.
+     */
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        archivo.putInt(capacidadMaxima);
+        archivo.putInt(tamanio);
+        int tramo = Math.min(tamanio, datos.length - primero);
+        archivo.putInts(datos, primero, tramo);
+        archivo.putInts(datos, 0, tamanio - tramo);
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        capacidadMaxima = archivo.getInt();
+        int k = archivo.getInt();
+        primero = 0;
+        tamanio = 0;
+        asegurar(k);
+        archivo.getInts(datos, 0, k);
+        tamanio = k;
+    }
+
+    private void asegurar(int minimo) {
+        if (minimo <= datos.length) return;
+        int nuevo = datos.length;
+        while (nuevo < minimo) nuevo *= 2;
+        int[] nuevos = new int[nuevo];
+        int tramo = Math.min(tamanio, datos.length - primero);
+        System.arraycopy(datos, primero, nuevos, 0, tramo);
+        System.arraycopy(datos, 0, nuevos, tramo, tamanio - tramo);
+        datos = nuevos;
+        mascara = nuevo - 1;
+        primero = 0;
+    }
+}
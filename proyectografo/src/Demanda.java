@@ -0,0 +1,36 @@
+package src;
+
+/**
+ * Modelo de demanda de pasajeros usado por el Simulador.
+ *
+ * Las llegadas a cada parada forman un proceso de Poisson cuya tasa puede
+ * variar con la hora; el destino de cada pasajero se elige con el modelo.
+ * Los generadores reciben el flujo aleatorio propio de cada parada, así que
+ * una implementación no debe guardar estado mutable compartido.
+ */
+public interface Demanda {
+
+    /**
+     * Llegadas esperadas por minuto a la parada en el minuto simulado dado.
+     */
+    double tasa(int parada, long minuto);
+
+    /**
+     * Cota superior de tasa(parada, minuto) para cualquier minuto.
+     */
+    double tasaMaxima(int parada);
+
+    /**
+     * Índice de la parada de destino de un pasajero que parte de origen
+     * (distinta de origen), o -1 si no hay ninguna otra parada.
+     */
+    int destino(int origen, FlujoAleatorio random);
+
+    /**
+     * Destino de un pasajero que parte de origen en el minuto simulado dado.
+     * Es el que usa el Simulador; por defecto no depende de la hora.
+     */
+    default int destino(int origen, long minuto, FlujoAleatorio random) {
+        return destino(origen, random);
+    }
+}
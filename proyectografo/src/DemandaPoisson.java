@@ -0,0 +1,88 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * Demanda con tasas por parada, un perfil horario común y destinos según
+ * una matriz origen–destino.
+ *
+ * La tasa de la parada p en el minuto m es tasaBase[p] · perfil[hora de m].
+ * Los destinos de cada origen se muestrean con una TablaAlias; si un origen
+ * no tiene destinos definidos se elige uniformemente entre las demás paradas.
+ */
+public class DemandaPoisson implements Demanda {
+
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+
+    private final int numParadas;
+    private final double[] tasaBase;        // pasajeros por minuto
+    private final double[] perfil;          // factor por hora del día (24 valores)
+    private double maximoPerfil;
+    private final TablaAlias[] destinos;    // null = uniforme
+
+    /**
+     * Demanda uniforme: misma tasa en todas las paradas, a toda hora, y
+     * destinos equiprobables.
+     */
+    public DemandaPoisson(int numParadas, double pasajerosPorMinuto) {
+        this.numParadas = numParadas;
+        this.tasaBase = new double[numParadas];
+        Arrays.fill(tasaBase, pasajerosPorMinuto);
+        this.perfil = new double[24];
+        Arrays.fill(perfil, 1.0);
+        this.maximoPerfil = 1.0;
+        this.destinos = new TablaAlias[numParadas];
+    }
+
+    public void setTasa(int parada, double pasajerosPorMinuto) {
+        tasaBase[parada] = pasajerosPorMinuto;
+    }
+
+    /**
+     * Fija el factor de cada hora del día (24 valores no negativos).
+     */
+    public void setPerfilHorario(double[] factores) {
+        if (factores.length != 24) {
+            throw new IllegalArgumentException("El perfil horario necesita 24 valores");
+        }
+        System.arraycopy(factores, 0, perfil, 0, 24);
+        maximoPerfil = 0;
+        for (double f : perfil) {
+            maximoPerfil = Math.max(maximoPerfil, f);
+        }
+    }
+
+    /**
+     * Define la fila origen–destino de un origen: sus destinos posibles y
+     * el peso relativo de cada uno.
+     */
+    public void setDestinos(int origen, int[] paradasDestino, double[] pesos) {
+        for (int d : paradasDestino) {
+            if (d == origen) {
+                throw new IllegalArgumentException("El origen no puede ser su propio destino");
+            }
+        }
+        destinos[origen] = new TablaAlias(paradasDestino, pesos);
+    }
+
+    @Override
+    public double tasa(int parada, long minuto) {
+        int hora = (int) ((minuto % MINUTOS_POR_DIA) / 60);
+        return tasaBase[parada] * perfil[hora];
+    }
+
+    @Override
+    public double tasaMaxima(int parada) {
+        return tasaBase[parada] * maximoPerfil;
+    }
+
+    @Override
+    public int destino(int origen, FlujoAleatorio random) {
+        if (destinos[origen] != null) {
+            return destinos[origen].muestrear(random);
+        }
+        if (numParadas < 2) return -1;
+        int d = random.nextInt(numParadas - 1);
+        return d >= origen ? d + 1 : d;
+    }
+}
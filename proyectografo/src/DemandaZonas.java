@@ -0,0 +1,291 @@
+package src;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Demanda con matrices origen–destino entre zonas que cambian con la hora.
+ *
+ * Cada parada pertenece a una zona. La tasa de la parada p en el minuto m
+ * es tasaBase[p] · perfil[hora de m], como en DemandaPoisson. Para elegir
+ * un destino se muestrea la zona de destino con la fila de la zona de
+ * origen en la matriz de esa hora y luego una parada al azar de esa zona.
+ * Así una red de millones de paradas se describe con unas pocas matrices
+ * de zonas × zonas en vez de una fila por parada.
+ *
+ * Las horas sin matriz usan destinos uniformes entre todas las paradas.
+ *
+ * Con setLineas los viajes se limitan a lo que la red puede llevar: las
+ * paradas sin línea no generan pasajeros y el destino se elige entre las
+ * paradas de una línea que pasa por el origen (al azar entre ellas), con
+ * la misma fila de la matriz restringida a las zonas que toca esa línea.
+ */
+public class DemandaZonas implements Demanda {
+
+    private final int numParadas;
+    private final int[] zonaDeParada;
+    private final int[][] paradasDeZona;
+    private final double[] tasaBase;           // pasajeros por minuto
+    private final double[] perfil;             // factor por hora del día (24 valores)
+    private double maximoPerfil;
+    private final TablaAlias[][] porHora;      // [hora][zona de origen]; null = uniforme
+    private final double[][][] pesosPorHora;   // las mismas filas sin normalizar
+
+    // Restricción a líneas (null = cualquier parada)
+    private int[] inicioLineasDeParada;        // líneas de la parada p en [inicio[p], inicio[p+1])
+    private int[] lineasDeParada;
+    private int[][] zonasDeLinea;              // zonas distintas que toca cada línea
+    private int[][] inicioPorZona;             // paradas de la zona i de la línea en [inicio[i], inicio[i+1])
+    private int[][] paradasDeLinea;            // paradas distintas de cada línea, agrupadas por zona
+
+    /**
+     * @param zonaDeParada zona (0..numZonas-1) de cada parada, por índice
+     */
+    public DemandaZonas(int[] zonaDeParada, int numZonas) {
+        this.numParadas = zonaDeParada.length;
+        this.zonaDeParada = zonaDeParada.clone();
+        int[] tamanios = new int[numZonas];
+        for (int z : zonaDeParada) {
+            if (z < 0 || z >= numZonas) {
+                throw new IllegalArgumentException("Zona fuera de rango: " + z);
+            }
+            tamanios[z]++;
+        }
+        this.paradasDeZona = new int[numZonas][];
+        for (int z = 0; z < numZonas; z++) {
+            paradasDeZona[z] = new int[tamanios[z]];
+        }
+        int[] pos = new int[numZonas];
+        for (int p = 0; p < numParadas; p++) {
+            int z = zonaDeParada[p];
+            paradasDeZona[z][pos[z]++] = p;
+        }
+
+        this.tasaBase = new double[numParadas];
+        this.perfil = new double[24];
+        Arrays.fill(perfil, 1.0);
+        this.maximoPerfil = 1.0;
+        this.porHora = new TablaAlias[24][];
+        this.pesosPorHora = new double[24][][];
+    }
+
+    public int getNumZonas() {
+        return paradasDeZona.length;
+    }
+
+    public void setTasa(int parada, double pasajerosPorMinuto) {
+        tasaBase[parada] = pasajerosPorMinuto;
+    }
+
+    /**
+     * Fija el factor de cada hora del día (24 valores no negativos).
+     */
+    public void setPerfilHorario(double[] factores) {
+        if (factores.length != 24) {
+            throw new IllegalArgumentException("El perfil horario necesita 24 valores");
+        }
+        System.arraycopy(factores, 0, perfil, 0, 24);
+        maximoPerfil = 0;
+        for (double f : perfil) {
+            maximoPerfil = Math.max(maximoPerfil, f);
+        }
+    }
+
+    /**
+     * Usa la matriz de pesos zona–zona en las horas indicadas. Los viajes
+     * dentro de la misma zona solo se cuentan si la zona tiene más de una
+     * parada; una fila sin pesos deja ese origen con destinos uniformes.
+     */
+    public void setMatriz(double[][] pesos, int... horas) {
+        int z = paradasDeZona.length;
+        if (pesos.length != z) {
+            throw new IllegalArgumentException("La matriz debe tener una fila por zona");
+        }
+        int[] zonas = new int[z];
+        for (int j = 0; j < z; j++) {
+            zonas[j] = j;
+        }
+        TablaAlias[] filas = new TablaAlias[z];
+        double[][] limpias = new double[z][];
+        for (int i = 0; i < z; i++) {
+            if (pesos[i].length != z) {
+                throw new IllegalArgumentException("La matriz debe ser cuadrada");
+            }
+            double[] fila = pesos[i].clone();
+            double suma = 0;
+            for (int j = 0; j < z; j++) {
+                if (paradasDeZona[j].length == 0 || (j == i && paradasDeZona[j].length < 2)) {
+                    fila[j] = 0;
+                }
+                suma += fila[j];
+            }
+            filas[i] = suma > 0 ? new TablaAlias(zonas, fila) : null;
+            limpias[i] = suma > 0 ? fila : null;
+        }
+        for (int h : horas) {
+            if (h < 0 || h >= 24) {
+                throw new IllegalArgumentException("Hora fuera de rango: " + h);
+            }
+            porHora[h] = filas;
+            pesosPorHora[h] = limpias;
+        }
+    }
+
+    /**
+     * Limita la demanda a las líneas dadas (índices de parada del recorrido
+     * de cada una, en cualquier orden y con repeticiones): las paradas que
+     * ninguna línea sirve quedan con tasa 0 y cada destino es otra parada de
+     * una línea que pasa por el origen.
+     */
+    public void setLineas(List<int[]> lineas) {
+        int numLineas = lineas.size();
+        int[][] distintas = new int[numLineas][];
+        int[][] zonasDe = new int[numLineas][];
+        int[][] inicioDe = new int[numLineas][];
+        int[] grado = new int[numParadas + 1];
+        for (int l = 0; l < numLineas; l++) {
+            // Orden por (zona, parada) para agrupar por zona y quitar repetidas
+            int[] recorrido = lineas.get(l);
+            long[] claves = new long[recorrido.length];
+            for (int i = 0; i < recorrido.length; i++) {
+                int p = recorrido[i];
+                if (p < 0 || p >= numParadas) {
+                    throw new IllegalArgumentException("Parada fuera de rango: " + p);
+                }
+                claves[i] = (long) zonaDeParada[p] << 32 | p;
+            }
+            Arrays.sort(claves);
+            int k = 0;
+            for (int i = 0; i < claves.length; i++) {
+                if (i == 0 || claves[i] != claves[i - 1]) {
+                    claves[k++] = claves[i];
+                }
+            }
+            int[] paradas = new int[k];
+            int numZonas = 0;
+            for (int i = 0; i < k; i++) {
+                paradas[i] = (int) claves[i];
+                grado[paradas[i] + 1]++;
+                if (i == 0 || zonaDeParada[paradas[i]] != zonaDeParada[paradas[i - 1]]) numZonas++;
+            }
+            int[] zonas = new int[numZonas];
+            int[] inicio = new int[numZonas + 1];
+            int j = -1;
+            for (int i = 0; i < k; i++) {
+                if (i == 0 || zonaDeParada[paradas[i]] != zonaDeParada[paradas[i - 1]]) {
+                    zonas[++j] = zonaDeParada[paradas[i]];
+                    inicio[j] = i;
+                }
+            }
+            inicio[numZonas] = k;
+            distintas[l] = paradas;
+            zonasDe[l] = zonas;
+            inicioDe[l] = inicio;
+        }
+        for (int p = 0; p < numParadas; p++) {
+            grado[p + 1] += grado[p];
+        }
+        int[] lineasDe = new int[grado[numParadas]];
+        int[] pos = Arrays.copyOf(grado, numParadas);
+        for (int l = 0; l < numLineas; l++) {
+            for (int p : distintas[l]) {
+                lineasDe[pos[p]++] = l;
+            }
+        }
+        this.inicioLineasDeParada = grado;
+        this.lineasDeParada = lineasDe;
+        this.paradasDeLinea = distintas;
+        this.zonasDeLinea = zonasDe;
+        this.inicioPorZona = inicioDe;
+    }
+
+    private boolean servida(int parada) {
+        return inicioLineasDeParada == null
+                || inicioLineasDeParada[parada + 1] > inicioLineasDeParada[parada];
+    }
+
+    @Override
+    public double tasa(int parada, long minuto) {
+        int hora = (int) ((minuto % DemandaPoisson.MINUTOS_POR_DIA) / 60);
+        return servida(parada) ? tasaBase[parada] * perfil[hora] : 0;
+    }
+
+    @Override
+    public double tasaMaxima(int parada) {
+        return servida(parada) ? tasaBase[parada] * maximoPerfil : 0;
+    }
+
+    /**
+     * Destino con la matriz de la medianoche.
+     */
+    @Override
+    public int destino(int origen, FlujoAleatorio random) {
+        return destino(origen, 0, random);
+    }
+
+    @Override
+    public int destino(int origen, long minuto, FlujoAleatorio random) {
+        int hora = (int) ((minuto % DemandaPoisson.MINUTOS_POR_DIA) / 60);
+        if (inicioLineasDeParada != null) {
+            int a = inicioLineasDeParada[origen], b = inicioLineasDeParada[origen + 1];
+            if (a == b) return -1;
+            double[][] pesos = pesosPorHora[hora];
+            return destinoEnLinea(lineasDeParada[a + random.nextInt(b - a)], origen,
+                    pesos == null ? null : pesos[zonaDeParada[origen]], random);
+        }
+        TablaAlias[] filas = porHora[hora];
+        TablaAlias fila = filas == null ? null : filas[zonaDeParada[origen]];
+        if (fila != null) {
+            int[] candidatas = paradasDeZona[fila.muestrear(random)];
+            while (true) {
+                int d = candidatas[random.nextInt(candidatas.length)];
+                if (d != origen) return d;    // la fila garantiza otra parada en la zona
+            }
+        }
+        if (numParadas < 2) return -1;
+        int d = random.nextInt(numParadas - 1);
+        return d >= origen ? d + 1 : d;
+    }
+
+    /**
+     * Otra parada de la línea: la zona con la fila de pesos (o en proporción
+     * a sus paradas si no hay fila, o si la fila no da peso a ninguna zona
+     * de la línea) y luego una parada al azar de esa zona en la línea.
+     */
+    private int destinoEnLinea(int linea, int origen, double[] fila, FlujoAleatorio random) {
+        int[] zonas = zonasDeLinea[linea];
+        int[] inicio = inicioPorZona[linea];
+        int[] paradas = paradasDeLinea[linea];
+        int zonaOrigen = zonaDeParada[origen];
+        double total = 0;
+        if (fila != null) {
+            for (int i = 0; i < zonas.length; i++) {
+                if (otrasEnZona(inicio, i, zonas[i] == zonaOrigen) > 0) total += fila[zonas[i]];
+            }
+        }
+        boolean uniforme = total <= 0;
+        if (uniforme) {
+            total = paradas.length - 1;
+            if (total <= 0) return -1;      // la línea no tiene otra parada
+        }
+        double r = random.nextDouble() * total;
+        int elegida = -1;
+        for (int i = 0; i < zonas.length; i++) {
+            int otras = otrasEnZona(inicio, i, zonas[i] == zonaOrigen);
+            double peso = otras == 0 ? 0 : uniforme ? otras : fila[zonas[i]];
+            if (peso <= 0) continue;
+            elegida = i;
+            r -= peso;
+            if (r < 0) break;
+        }
+        int desde = inicio[elegida], cuantas = inicio[elegida + 1] - desde;
+        while (true) {
+            int d = paradas[desde + random.nextInt(cuantas)];
+            if (d != origen) return d;      // la zona elegida tiene otra parada
+        }
+    }
+
+    private static int otrasEnZona(int[] inicio, int i, boolean conOrigen) {
+        return inicio[i + 1] - inicio[i] - (conOrigen ? 1 : 0);
+    }
+}
@@ -0,0 +1,406 @@
+package src;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Corre un escenario sin interfaz gráfica, tan rápido como se pueda, y
+ * escribe sus métricas.
+ *
+ * Cada tantos ticks agrega una fila al CSV de métricas periódicas; al final
+ * escribe un resumen JSON con la configuración, los totales y el
+ * rendimiento (ticks por segundo de reloj).
+ *
+ * Uso: java src.EjecutorLotes [--escenario nombre | --red ruta] [--guardar-red archivo]
+ *      [--ticks N | --horas H]
+ *      [--semilla S] [--intervalo K] [--csv archivo] [--json archivo]
+ *      [--eventos] [--regiones R --hilos H] [--ventana minutos]
+ *      [--instantanea archivo --cada K] [--reanudar archivo]
+ *      [--replicas MAX [--precision P]]
+ *
+ * El escenario puede ser demo o uno sintético de N paradas (ver
+ * GeneradorRed): grilla:N, geometrica:N o radial:N, generado con la semilla.
+ * --red carga un directorio GTFS o una red binaria (ver Escenario.cargar);
+ * --guardar-red escribe la red cargada en formato binario antes de correr.
+ *
+ * Con --instantanea se guarda el estado cada K ticks (ver
+ * Simulador.guardarEstado); con --reanudar la corrida sigue desde una
+ * instantánea hasta completar los ticks pedidos, con sus mismas regiones.
+ *
+ * Con --replicas corre en cambio hasta MAX réplicas en paralelo (ver
+ * MonteCarlo) y muestra las medias con sus intervalos de confianza. Cada
+ * réplica respeta --eventos y --ventana, y --hilos fija cuántas corren a la
+ * vez; las opciones de una corrida única (--regiones, --csv, --json,
+ * --intervalo, --instantanea, --reanudar) no se combinan con --replicas.
+ */
+public class EjecutorLotes {
+
+    private final Escenario escenario;
+    private long ticks;
+    private int intervalo;
+    private Path archivoCsv;
+    private Path archivoJson;
+    private boolean eventos;
+    private int regiones;
+    private int hilos;
+    private long ventana;
+    private Path archivoInstantanea;
+    private int cadaInstantanea;
+    private Path reanudarDesde;
+
+    public EjecutorLotes(Escenario escenario) {
+        this.escenario = escenario;
+        this.ticks = 1000;
+        this.intervalo = 6;      // una fila por hora simulada
+        this.regiones = 1;
+        this.hilos = 1;
+    }
+
+    // ================= CONFIGURACIÓN =================
+
+    public void setTicks(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("La cantidad de ticks no puede ser negativa");
+        }
+        this.ticks = ticks;
+    }
+
+    /**
+     * Duración en horas simuladas (se redondea a ticks completos).
+     */
+    public void setHoras(double horas) {
+        setTicks((long) Math.ceil(horas * 60 / Simulador.MINUTOS_POR_TICK));
+    }
+
+    /**
+     * Cada cuántos ticks se escribe una fila de métricas.
+     */
+    public void setIntervalo(int intervalo) {
+        if (intervalo <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo");
+        }
+        this.intervalo = intervalo;
+    }
+
+    public void setArchivoCsv(Path archivoCsv) {
+        this.archivoCsv = archivoCsv;
+    }
+
+    public void setArchivoJson(Path archivoJson) {
+        this.archivoJson = archivoJson;
+    }
+
+    public void setEventos(boolean eventos) {
+        this.eventos = eventos;
+    }
+
+    public void setParalelo(int regiones, int hilos) {
+        this.regiones = regiones;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Ventana deslizante de esperas en minutos (0 = sin ventana).
+     */
+    public void setVentana(long ventana) {
+        this.ventana = ventana;
+    }
+
+    /**
+     * Guarda una instantánea en el archivo cada tantos ticks (reemplaza la
+     * anterior; se escribe aparte y luego se mueve, para no dejarla a medias).
+     */
+    public void setInstantanea(Path archivo, int cadaTicks) {
+        if (cadaTicks <= 0) {
+            throw new IllegalArgumentException("El intervalo de instantáneas debe ser positivo");
+        }
+        this.archivoInstantanea = archivo;
+        this.cadaInstantanea = cadaTicks;
+    }
+
+    /**
+     * Continúa desde una instantánea guardada con el mismo escenario. Sin
+     * --regiones se usan las de la instantánea; con una cantidad distinta
+     * la corrida se rechaza.
+     */
+    public void setReanudarDesde(Path archivo) {
+        this.reanudarDesde = archivo;
+    }
+
+    // ================= EJECUCIÓN =================
+
+    /**
+     * Corre el escenario completo y retorna el resumen. Si hay archivo JSON
+     * configurado, también lo escribe ahí.
+     */
+    public Resumen ejecutar() throws IOException {
+        Simulador simulador = escenario.crearSimulador();
+        if (regiones > 1) {
+            simulador.activarParalelo(regiones, hilos);
+        }
+        if (eventos) {
+            simulador.activarEventos();
+        }
+        if (ventana > 0) {
+            simulador.setVentanaEsperas(ventana);
+        }
+        if (reanudarDesde != null) {
+            simulador.restaurarEstado(reanudarDesde);
+            int guardadas = Math.max(1, simulador.getRegiones());
+            if (regiones > 1 && guardadas != regiones) {
+                simulador.desactivarParalelo();
+                throw new IllegalArgumentException("--regiones " + regiones
+                        + " no coincide con la instantánea, que usa " + guardadas);
+            }
+            if (guardadas > 1 && regiones <= 1) {
+                simulador.activarParalelo(guardadas, hilos);
+                regiones = guardadas;
+            }
+        }
+
+        long primerTick = simulador.getTiempoActual();
+        long inicio = System.nanoTime();
+        try (Writer csv = archivoCsv == null ? null : Files.newBufferedWriter(archivoCsv, StandardCharsets.UTF_8)) {
+            if (csv != null) {
+                csv.write(encabezadoCsv());
+            }
+            while (simulador.getTiempoActual() < ticks) {
+                simulador.tick();
+                long t = simulador.getTiempoActual();
+                if (csv != null && (t % intervalo == 0 || t == ticks)) {
+                    csv.write(filaCsv(simulador));
+                }
+                if (archivoInstantanea != null && t % cadaInstantanea == 0) {
+                    Path temporal = archivoInstantanea.resolveSibling(archivoInstantanea.getFileName() + ".tmp");
+                    simulador.guardarEstado(temporal);
+                    Files.move(temporal, archivoInstantanea, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            simulador.desactivarParalelo();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Resumen resumen = new Resumen(this, simulador, simulador.getTiempoActual() - primerTick, segundos);
+        if (archivoJson != null) {
+            try (BufferedWriter json = Files.newBufferedWriter(archivoJson, StandardCharsets.UTF_8)) {
+                json.write(resumen.aJson());
+            }
+        }
+        return resumen;
+    }
+
+    private static String encabezadoCsv() {
+        return "tick,minuto,esperando,a_bordo,vivos,abordajes,espera_prom,espera_p50,"
+                + "espera_p90,espera_p99,espera_max,reciente_p90,rechazados,desviados\n";
+    }
+
+    private static String filaCsv(Simulador s) {
+        HistogramaLog esperas = s.getEsperasTotales();
+        HistogramaLog recientes = s.getEsperasRecientesTotales();
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%.2f,%d,%d,%d,%d,%d,%d,%d%n",
+                s.getTiempoActual(), s.getMinutoActual(),
+                s.getEsperandoTotales(), s.getABordoTotales(), s.getPasajeros().getVivos(),
+                esperas.getCantidad(), esperas.getPromedio(),
+                esperas.getP50(), esperas.getP90(), esperas.getP99(), esperas.getMaximo(),
+                recientes.getP90(), s.getRechazadosTotales(), s.getDesviadosTotales());
+    }
+
+    /**
+     * Resultado de una corrida.
+     */
+    public static class Resumen {
+
+        private final String escenario;
+        private final long semilla;
+        private final long ticks;
+        private final long ejecutados;      // ticks corridos en esta ejecución
+        private final double segundos;
+        private final String modo;
+        private final long esperando;
+        private final long aBordo;
+        private final long rechazados;
+        private final long desviados;
+        private final HistogramaLog esperas;
+
+        private Resumen(EjecutorLotes ejecutor, Simulador s, long ejecutados, double segundos) {
+            this.escenario = ejecutor.escenario.getNombre();
+            this.semilla = ejecutor.escenario.getSemilla();
+            this.ticks = s.getTiempoActual();
+            this.ejecutados = ejecutados;
+            this.segundos = segundos;
+            this.modo = ejecutor.eventos ? "eventos"
+                    : ejecutor.regiones > 1 ? "paralelo" : "secuencial";
+            this.esperando = s.getEsperandoTotales();
+            this.aBordo = s.getABordoTotales();
+            this.rechazados = s.getRechazadosTotales();
+            this.desviados = s.getDesviadosTotales();
+            this.esperas = s.getEsperasTotales();
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        public double getTicksPorSegundo() {
+            return segundos > 0 ? ejecutados / segundos : Double.POSITIVE_INFINITY;
+        }
+
+        public HistogramaLog getEsperas() {
+            return esperas;
+        }
+
+        public String aJson() {
+            return String.format(Locale.ROOT,
+                    "{%n"
+                    + "  \"escenario\": \"%s\",%n"
+                    + "  \"semilla\": %d,%n"
+                    + "  \"modo\": \"%s\",%n"
+                    + "  \"ticks\": %d,%n"
+                    + "  \"minutosSimulados\": %d,%n"
+                    + "  \"segundos\": %.3f,%n"
+                    + "  \"ticksPorSegundo\": %.1f,%n"
+                    + "  \"esperando\": %d,%n"
+                    + "  \"aBordo\": %d,%n"
+                    + "  \"rechazados\": %d,%n"
+                    + "  \"desviados\": %d,%n"
+                    + "  \"esperas\": {\"cantidad\": %d, \"promedio\": %.2f, \"p50\": %d, "
+                    + "\"p90\": %d, \"p99\": %d, \"max\": %d}%n"
+                    + "}%n",
+                    escenario.replace("\\", "\\\\").replace("\"", "\\\""), semilla, modo, ticks,
+                    ticks * Simulador.MINUTOS_POR_TICK, segundos, getTicksPorSegundo(),
+                    esperando, aBordo, rechazados, desviados,
+                    esperas.getCantidad(), esperas.getPromedio(), esperas.getP50(),
+                    esperas.getP90(), esperas.getP99(), esperas.getMaximo());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d ticks en %.2f s (%.0f ticks/s), esperas %s",
+                    escenario, ticks, segundos, getTicksPorSegundo(), esperas);
+        }
+    }
+
+    // ================= LÍNEA DE COMANDOS =================
+
+    public static void main(String[] args) throws IOException {
+        String nombreEscenario = "demo";
+        String red = null, guardarRed = null;
+        Long semilla = null;
+        Long ticks = null;
+        Double horas = null;
+        Integer intervalo = null;
+        String csv = null, json = null;
+        boolean eventos = false;
+        int regiones = 1, hilos = Runtime.getRuntime().availableProcessors();
+        long ventana = 0;
+        String instantanea = null, reanudar = null;
+        int cada = 0;
+        Integer replicas = null;
+        Double precision = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String opcion = args[i];
+            if (opcion.equals("--eventos")) {
+                eventos = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + opcion);
+            }
+            String valor = args[++i];
+            switch (opcion) {
+                case "--escenario": nombreEscenario = valor; break;
+                case "--red": red = valor; break;
+                case "--guardar-red": guardarRed = valor; break;
+                case "--semilla": semilla = Long.parseLong(valor); break;
+                case "--ticks": ticks = Long.parseLong(valor); break;
+                case "--horas": horas = Double.parseDouble(valor); break;
+                case "--intervalo": intervalo = Integer.parseInt(valor); break;
+                case "--csv": csv = valor; break;
+                case "--json": json = valor; break;
+                case "--regiones": regiones = Integer.parseInt(valor); break;
+                case "--hilos": hilos = Integer.parseInt(valor); break;
+                case "--ventana": ventana = Long.parseLong(valor); break;
+                case "--instantanea": instantanea = valor; break;
+                case "--cada": cada = Integer.parseInt(valor); break;
+                case "--reanudar": reanudar = valor; break;
+                case "--replicas": replicas = Integer.parseInt(valor); break;
+                case "--precision": precision = Double.parseDouble(valor); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + opcion);
+            }
+        }
+
+        Escenario escenario;
+        if (red != null) {
+            long inicio = System.nanoTime();
+            escenario = Escenario.cargar(Paths.get(red));
+            System.out.printf(Locale.ROOT, "Red %s: %d paradas, %d arcos, %d líneas (%.0f ms)%n",
+                    escenario.getNombre(), escenario.getGrafo().getNumParaderos(),
+                    escenario.getGrafo().getNumArcos(), escenario.getRutas().size(),
+                    (System.nanoTime() - inicio) / 1e6);
+        } else if (nombreEscenario.equals("demo")) {
+            escenario = Escenario.demo();
+        } else if (nombreEscenario.matches("(grilla|geometrica|radial):\\d+")) {
+            String[] partes = nombreEscenario.split(":");
+            int paradas = Integer.parseInt(partes[1]);
+            GeneradorRed generador = new GeneradorRed();
+            if (semilla != null) generador.setSemilla(semilla);
+            escenario = partes[0].equals("grilla") ? generador.grilla(paradas)
+                    : partes[0].equals("radial") ? generador.radial(paradas)
+                    : generador.geometrica(paradas, 6);
+        } else {
+            throw new IllegalArgumentException("Escenario desconocido: " + nombreEscenario);
+        }
+        if (semilla != null) {
+            escenario.setSemilla(semilla);
+        }
+        if (guardarRed != null) {
+            escenario.guardarBinario(Paths.get(guardarRed));
+        }
+
+        if (replicas != null) {
+            if (regiones > 1 || csv != null || json != null || intervalo != null
+                    || instantanea != null || reanudar != null) {
+                throw new IllegalArgumentException("--replicas no admite --regiones, --csv, --json, "
+                        + "--intervalo, --instantanea ni --reanudar");
+            }
+            long duracion = ticks != null ? ticks
+                    : horas != null ? (long) Math.ceil(horas * 60 / Simulador.MINUTOS_POR_TICK) : 1000;
+            MonteCarlo monteCarlo = new MonteCarlo(escenario, duracion);
+            monteCarlo.setReplicas(Math.min(5, Math.max(2, replicas)), Math.max(2, replicas));
+            monteCarlo.setParalelismo(hilos, hilos);
+            if (precision != null) monteCarlo.setPrecisionRelativa(precision);
+            monteCarlo.setEventos(eventos);
+            monteCarlo.setVentana(ventana);
+            System.out.println(monteCarlo.ejecutar());
+            return;
+        }
+
+        EjecutorLotes ejecutor = new EjecutorLotes(escenario);
+        if (horas != null) ejecutor.setHoras(horas);
+        if (ticks != null) ejecutor.setTicks(ticks);
+        if (intervalo != null) ejecutor.setIntervalo(intervalo);
+        if (csv != null) ejecutor.setArchivoCsv(Paths.get(csv));
+        if (json != null) ejecutor.setArchivoJson(Paths.get(json));
+        ejecutor.setEventos(eventos);
+        ejecutor.setParalelo(regiones, hilos);
+        ejecutor.setVentana(ventana);
+        if (instantanea != null) ejecutor.setInstantanea(Paths.get(instantanea), cada > 0 ? cada : 6);
+        if (reanudar != null) ejecutor.setReanudarDesde(Paths.get(reanudar));
+
+        System.out.println(ejecutor.ejecutar());
+    }
+}
@@ -0,0 +1,218 @@
+package src;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Todo lo necesario para arrancar una corrida: la red, las líneas con su
+ * flota, el modelo de demanda y la semilla.
+ *
+ * Un escenario puede crear varios simuladores; cada uno recibe buses nuevos,
+ * mientras que el grafo, las rutas y la demanda se comparten.
+ *
+ * Además de los escenarios armados en código, se pueden cargar redes desde
+ * archivos (ver cargar).
+ */
+public class Escenario {
+
+    private final String nombre;
+    private final Grafo grafo;
+    private final List<Ruta> rutas;
+    private final List<int[]> flotas;     // por línea: {buses, capacidad}
+    private Demanda demanda;              // null = demanda por defecto del Simulador
+    private long semilla;
+
+    public Escenario(String nombre, Grafo grafo) {
+        this.nombre = nombre;
+        this.grafo = grafo;
+        this.rutas = new ArrayList<>();
+        this.flotas = new ArrayList<>();
+        this.semilla = 1;
+    }
+
+    /**
+     * Agrega una línea atendida por la cantidad de buses indicada.
+     */
+    public void agregarLinea(Ruta ruta, int buses, int capacidad) {
+        if (buses < 0 || capacidad < 0) {
+            throw new IllegalArgumentException("Cantidad de buses y capacidad no pueden ser negativas");
+        }
+        rutas.add(ruta);
+        flotas.add(new int[]{buses, capacidad});
+    }
+
+    public void setDemanda(Demanda demanda) {
+        this.demanda = demanda;
+    }
+
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Simulador con la semilla del escenario.
+     */
+    public Simulador crearSimulador() {
+        return crearSimulador(semilla);
+    }
+
+    /**
+     * Simulador nuevo con su propia flota y la semilla indicada.
+     */
+    public Simulador crearSimulador(long semilla) {
+        Simulador simulador = new Simulador(grafo, semilla);
+        if (demanda != null) {
+            simulador.setDemanda(demanda);
+        }
+        int id = 1;
+        for (int i = 0; i < rutas.size(); i++) {
+            int[] flota = flotas.get(i);
+            for (int b = 0; b < flota[0]; b++) {
+                simulador.agregarBus(new Bus(id++, flota[1], rutas.get(i)));
+            }
+        }
+        return simulador;
+    }
+
+    // ================= GETTERS =================
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Grafo getGrafo() {
+        return grafo;
+    }
+
+    public List<Ruta> getRutas() {
+        return rutas;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Cantidad de buses de la i-ésima línea.
+     */
+    public int getBusesLinea(int i) {
+        return flotas.get(i)[0];
+    }
+
+    public int getCapacidadLinea(int i) {
+        return flotas.get(i)[1];
+    }
+
+    public int getNumBuses() {
+        int total = 0;
+        for (int[] flota : flotas) {
+            total += flota[0];
+        }
+        return total;
+    }
+
+    // ================= ARCHIVOS =================
+
+    /**
+     * Carga una red: si la ruta es un directorio se leen sus archivos al
+     * estilo GTFS (ver CargadorRed); si no, se abre como red binaria.
+     */
+    public static Escenario cargar(Path ruta) throws IOException {
+        return Files.isDirectory(ruta) ? new CargadorRed().cargar(ruta) : RedBinaria.abrir(ruta);
+    }
+
+    /**
+     * Guarda la red, las líneas y su flota en el formato binario indexado
+     * (ver RedBinaria), que se abre mucho más rápido que los CSV.
+     */
+    public void guardarBinario(Path archivo) throws IOException {
+        RedBinaria.guardar(this, archivo);
+    }
+
+    // ================= ESCENARIOS INCLUIDOS =================
+
+    /**
+     * Red de demostración de diez paradas con una línea y un bus.
+     */
+    public static Escenario demo() {
+        Grafo grafo = new Grafo();
+
+        Nodo estacion = new Nodo(1, "Estacion", 80, 140);
+        Nodo centro = new Nodo(2, "Centro", 250, 140);
+        Nodo parque = new Nodo(3, "Parque", 400, 80);
+        Nodo terminal = new Nodo(4, "Terminal", 550, 140);
+        Nodo museo = new Nodo(5, "Museo", 700, 140);
+
+        Nodo plaza = new Nodo(6, "Plaza", 400, 280);
+        Nodo universidad = new Nodo(7, "Universidad", 250, 420);
+        Nodo hospital = new Nodo(8, "Hospital", 550, 420);
+        Nodo mercado = new Nodo(9, "Mercado", 700, 420);
+        Nodo aeropuerto = new Nodo(10, "Aeropuerto", 400, 520);
+
+        grafo.agregarParadero(estacion);
+        grafo.agregarParadero(centro);
+        grafo.agregarParadero(parque);
+        grafo.agregarParadero(terminal);
+        grafo.agregarParadero(museo);
+        grafo.agregarParadero(plaza);
+        grafo.agregarParadero(universidad);
+        grafo.agregarParadero(hospital);
+        grafo.agregarParadero(mercado);
+        grafo.agregarParadero(aeropuerto);
+
+        // Horizontales superiores
+        grafo.agregarArco(estacion, centro, 5);
+        grafo.agregarArco(centro, parque, 6);
+        grafo.agregarArco(parque, terminal, 7);
+        grafo.agregarArco(terminal, museo, 4);
+
+        // Verticales
+        grafo.agregarArco(parque, plaza, 8);
+        grafo.agregarArco(terminal, hospital, 8);
+        grafo.agregarArco(centro, universidad, 10);
+
+        // Inferiores
+        grafo.agregarArco(universidad, hospital, 12);
+        grafo.agregarArco(hospital, mercado, 5);
+        grafo.agregarArco(universidad, aeropuerto, 7);
+        grafo.agregarArco(aeropuerto, hospital, 6);
+
+        // Diagonales
+        grafo.agregarArco(plaza, universidad, 6);
+        grafo.agregarArco(plaza, hospital, 6);
+        grafo.agregarArco(plaza, aeropuerto, 6);
+
+        // Arcos inversos
+        grafo.agregarArco(centro, estacion, 5);
+        grafo.agregarArco(parque, centro, 6);
+        grafo.agregarArco(terminal, parque, 7);
+        grafo.agregarArco(museo, terminal, 4);
+        grafo.agregarArco(plaza, parque, 8);
+        grafo.agregarArco(hospital, terminal, 8);
+        grafo.agregarArco(hospital, universidad, 12);
+        grafo.agregarArco(mercado, hospital, 5);
+        grafo.agregarArco(aeropuerto, universidad, 7);
+        grafo.agregarArco(hospital, aeropuerto, 6);
+        grafo.agregarArco(universidad, plaza, 6);
+        grafo.agregarArco(hospital, plaza, 6);
+        grafo.agregarArco(aeropuerto, plaza, 6);
+
+        List<Nodo> ida = Arrays.asList(
+                estacion, centro, parque, terminal, museo,
+                terminal, parque, plaza, universidad, aeropuerto
+        );
+
+        List<Nodo> vuelta = Arrays.asList(
+                aeropuerto, universidad, plaza, parque,
+                centro, estacion
+        );
+
+        Escenario escenario = new Escenario("demo", grafo);
+        escenario.agregarLinea(new Ruta(grafo, ida, vuelta), 1, 40);
+        return escenario;
+    }
+}
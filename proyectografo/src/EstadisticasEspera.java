@@ -0,0 +1,156 @@
+package src;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Esperas en parada (minutos desde que el pasajero llega hasta que sube)
+ * agrupadas por parada.
+ *
+ * Cada parada tiene un HistogramaLog acumulado y, si se activa la ventana,
+ * un anillo de histogramas por intervalo de tiempo simulado que permite
+ * consultar solo lo reciente (por ejemplo la última hora). La memoria no
+ * crece con la duración de la corrida. Los histogramas se crean la primera
+ * vez que se registra una espera en ellos: el acumulado de una parada con
+ * su primera espera y cada intervalo de la ventana con la primera espera
+ * que cae en él. Una parada con actividad en todo el anillo usa 7
+ * histogramas, unos 13 KB; las paradas sin esperas no usan ninguno.
+ *
+ * Una parada solo la actualiza el hilo que la atiende (ver Particion), así
+ * que no hace falta sincronizar el registro.
+ */
+class EstadisticasEspera {
+
+    private static final int INTERVALOS_VENTANA = 6;
+
+    private final HistogramaLog[] acumulado;
+
+    // Ventana deslizante (anchoIntervalo = 0 si está desactivada)
+    private long anchoIntervalo;
+    private HistogramaLog[][] intervalos;     // [parada][intervalo]
+    private long[][] numeroIntervalo;         // intervalo de tiempo guardado en cada casilla
+
+    EstadisticasEspera(int numParadas) {
+        this.acumulado = new HistogramaLog[numParadas];
+    }
+
+    /**
+     * Activa la ventana deslizante de la duración indicada en minutos, o la
+     * desactiva con minutos <= 0. Descarta lo registrado en la ventana anterior.
+     */
+    void setVentana(long minutos) {
+        int n = acumulado.length;
+        if (minutos <= 0) {
+            anchoIntervalo = 0;
+            intervalos = null;
+            numeroIntervalo = null;
+            return;
+        }
+        anchoIntervalo = (minutos + INTERVALOS_VENTANA - 1) / INTERVALOS_VENTANA;
+        intervalos = new HistogramaLog[n][];
+        numeroIntervalo = new long[n][];
+    }
+
+    long getVentana() {
+        return anchoIntervalo * INTERVALOS_VENTANA;
+    }
+
+    void registrar(int parada, long minuto, long espera) {
+        if (acumulado[parada] == null) {
+            acumulado[parada] = new HistogramaLog();
+        }
+        acumulado[parada].registrar(espera);
+
+        if (anchoIntervalo > 0) {
+            if (intervalos[parada] == null) {
+                intervalos[parada] = new HistogramaLog[INTERVALOS_VENTANA];
+                numeroIntervalo[parada] = new long[INTERVALOS_VENTANA];
+                Arrays.fill(numeroIntervalo[parada], -1);
+            }
+            long numero = minuto / anchoIntervalo;
+            int casilla = (int) (numero % INTERVALOS_VENTANA);
+            if (intervalos[parada][casilla] == null) {
+                intervalos[parada][casilla] = new HistogramaLog();
+                numeroIntervalo[parada][casilla] = numero;
+            } else if (numeroIntervalo[parada][casilla] != numero) {
+                intervalos[parada][casilla].limpiar();
+                numeroIntervalo[parada][casilla] = numero;
+            }
+            intervalos[parada][casilla].registrar(espera);
+        }
+    }
+
+    /**
+     * Suma al resultado el histograma acumulado de la parada.
+     */
+    void sumarAcumulado(int parada, HistogramaLog resultado) {
+        if (acumulado[parada] != null) {
+            resultado.combinar(acumulado[parada]);
+        }
+    }
+
+    /**
+     * Suma al resultado los intervalos de la parada que caen dentro de la
+     * ventana que termina en el minuto ahora.
+     */
+    void sumarVentana(int parada, long ahora, HistogramaLog resultado) {
+        if (anchoIntervalo == 0 || intervalos[parada] == null) {
+            return;
+        }
+        long actual = ahora / anchoIntervalo;
+        for (int k = 0; k < INTERVALOS_VENTANA; k++) {
+            long numero = numeroIntervalo[parada][k];
+            if (intervalos[parada][k] != null && numero > actual - INTERVALOS_VENTANA && numero <= actual) {
+                resultado.combinar(intervalos[parada][k]);
+            }
+        }
+    }
+
+    // ================= INSTANTÁNEAS =================
+
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        for (HistogramaLog h : acumulado) {
+            archivo.putBoolean(h != null);
+            if (h != null) h.guardar(archivo);
+        }
+        archivo.putLong(anchoIntervalo);
+        if (anchoIntervalo == 0) return;
+        for (int p = 0; p < acumulado.length; p++) {
+            archivo.putBoolean(intervalos[p] != null);
+            if (intervalos[p] == null) continue;
+            archivo.putLongs(numeroIntervalo[p], 0, INTERVALOS_VENTANA);
+            for (HistogramaLog h : intervalos[p]) {
+                archivo.putBoolean(h != null);
+                if (h != null) h.guardar(archivo);
+            }
+        }
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        for (int p = 0; p < acumulado.length; p++) {
+            acumulado[p] = null;
+            if (archivo.getBoolean()) {
+                acumulado[p] = new HistogramaLog();
+                acumulado[p].restaurar(archivo);
+            }
+        }
+        long ancho = archivo.getLong();
+        setVentana(ancho * INTERVALOS_VENTANA);
+        if (ancho == 0) return;
+        for (int p = 0; p < acumulado.length; p++) {
+            if (!archivo.getBoolean()) continue;
+            numeroIntervalo[p] = new long[INTERVALOS_VENTANA];
+            archivo.getLongs(numeroIntervalo[p], 0, INTERVALOS_VENTANA);
+            intervalos[p] = new HistogramaLog[INTERVALOS_VENTANA];
+            for (int k = 0; k < INTERVALOS_VENTANA; k++) {
+                if (!archivo.getBoolean()) continue;
+                intervalos[p][k] = new HistogramaLog();
+                intervalos[p][k].restaurar(archivo);
+            }
+        }
+    }
+
+    int getNumParadas() {
+        return acumulado.length;
+    }
+}
@@ -0,0 +1,131 @@
+package src;
+
+import java.io.IOException;
+
+/**
+ * Estado variable de todas las paradas de una simulación: la cola de cada
+ * andén, la suma de inicios de cada cola (para la espera promedio sin
+ * recorrerla) y los contadores de llegadas rechazadas o desviadas.
+ *
+ * Vive en el Simulador y se indexa por índice de parada, de modo que el
+ * Grafo y sus Nodo quedan de solo lectura y pueden compartirse entre
+ * varias simulaciones a la vez. Una parada solo la modifica el hilo que la
+ * atiende.
+ */
+class EstadoParadas {
+
+    private final ColaParadero[] colas;
+    private final long[] sumaInicios;     // suma de tiempoInicio de cada cola
+    private final long[] rechazados;      // llegadas perdidas por andén lleno
+    private final long[] desviados;       // llegadas enviadas a otra parada por andén lleno
+
+    EstadoParadas(int numParadas) {
+        this.colas = new ColaParadero[numParadas];
+        for (int i = 0; i < numParadas; i++) {
+            colas[i] = new ColaParadero();
+        }
+        this.sumaInicios = new long[numParadas];
+        this.rechazados = new long[numParadas];
+        this.desviados = new long[numParadas];
+    }
+
+    int getNumParadas() {
+        return colas.length;
+    }
+
+    // ================= COLAS =================
+
+    /**
+     * @return false si el andén está lleno (el pasajero no se agrega).
+     */
+    boolean agregar(PoolPasajeros pool, int parada, int pasajero) {
+        if (!colas[parada].encolar(pasajero)) {
+            return false;
+        }
+        sumaInicios[parada] += pool.getTiempoInicio(pasajero);
+        return true;
+    }
+
+    /**
+     * Agrega pasajeros[0, cantidad) mientras haya lugar en el andén.
+     *
+     * @return cuántos se agregaron (los primeros del arreglo).
+     */
+    int agregarLote(PoolPasajeros pool, int parada, int[] pasajeros, int cantidad) {
+        int aceptados = colas[parada].encolarLote(pasajeros, 0, cantidad);
+        for (int i = 0; i < aceptados; i++) {
+            sumaInicios[parada] += pool.getTiempoInicio(pasajeros[i]);
+        }
+        return aceptados;
+    }
+
+    /**
+     * Remueve, en orden de llegada, hasta max pasajeros que el criterio
+     * acepta y los deja en destino[0..]; los demás siguen esperando en el
+     * mismo orden.
+     *
+     * @return cuántos se removieron.
+     */
+    int removerLote(PoolPasajeros pool, int parada, int[] destino, int max, ColaParadero.Criterio criterio) {
+        int k = colas[parada].desencolarLote(destino, 0, max, criterio);
+        for (int i = 0; i < k; i++) {
+            sumaInicios[parada] -= pool.getTiempoInicio(destino[i]);
+        }
+        return k;
+    }
+
+    int esperando(int parada) {
+        return colas[parada].tamanio();
+    }
+
+    /**
+     * Espera promedio en minutos de la cola al minuto indicado (0 si está vacía).
+     */
+    double esperaPromedio(int parada, long minutoActual) {
+        int k = colas[parada].tamanio();
+        if (k == 0) return 0.0;
+        return minutoActual - (double) sumaInicios[parada] / k;
+    }
+
+    ColaParadero cola(int parada) {
+        return colas[parada];
+    }
+
+    // ================= INSTANTÁNEAS =================
+
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        for (ColaParadero cola : colas) {
+            cola.guardar(archivo);
+        }
+        archivo.putLongs(sumaInicios, 0, sumaInicios.length);
+        archivo.putLongs(rechazados, 0, rechazados.length);
+        archivo.putLongs(desviados, 0, desviados.length);
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        for (ColaParadero cola : colas) {
+            cola.restaurar(archivo);
+        }
+        archivo.getLongs(sumaInicios, 0, sumaInicios.length);
+        archivo.getLongs(rechazados, 0, rechazados.length);
+        archivo.getLongs(desviados, 0, desviados.length);
+    }
+
+    // ================= DESBORDES =================
+
+    long rechazados(int parada) {
+        return rechazados[parada];
+    }
+
+    long desviados(int parada) {
+        return desviados[parada];
+    }
+
+    void contarRechazo(int parada) {
+        rechazados[parada]++;
+    }
+
+    void contarDesvio(int parada) {
+        desviados[parada]++;
+    }
+}
@@ -0,0 +1,104 @@
+package src;
+
+/**
+ * Generador pseudoaleatorio divisible (SplitMix64), con el mismo algoritmo
+ * y la misma secuencia que java.util.SplittableRandom.
+ *
+ * A diferencia de SplittableRandom su estado (semilla y gamma) se puede
+ * leer y restaurar, lo que permite guardar una simulación a mitad de camino
+ * y continuarla con exactamente los mismos números. No es seguro entre
+ * hilos: cada flujo debe usarlo uno solo a la vez.
+ */
+public final class FlujoAleatorio {
+
+    private static final long GAMMA_DORADA = 0x9e3779b97f4a7c15L;
+    private static final double UNIDAD_DOUBLE = 0x1.0p-53;
+
+    private long semilla;
+    private long gamma;          // siempre impar
+
+    public FlujoAleatorio(long semilla) {
+        this(semilla, GAMMA_DORADA);
+    }
+
+    private FlujoAleatorio(long semilla, long gamma) {
+        this.semilla = semilla;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Nuevo flujo independiente derivado de este (avanza este flujo).
+     */
+    public FlujoAleatorio split() {
+        return new FlujoAleatorio(nextLong(), mezclarGamma(siguienteSemilla()));
+    }
+
+    public long nextLong() {
+        return mezclar64(siguienteSemilla());
+    }
+
+    /**
+     * Uniforme en [0, 1).
+     */
+    public double nextDouble() {
+        return (mezclar64(siguienteSemilla()) >>> 11) * UNIDAD_DOUBLE;
+    }
+
+    /**
+     * Uniforme en [0, cota).
+     */
+    public int nextInt(int cota) {
+        if (cota <= 0) {
+            throw new IllegalArgumentException("La cota debe ser positiva");
+        }
+        int r = mezclar32(siguienteSemilla());
+        int m = cota - 1;
+        if ((cota & m) == 0) {
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % cota) < 0; u = mezclar32(siguienteSemilla()) >>> 1) {
+            // rechazo para evitar sesgo
+        }
+        return r;
+    }
+
+    // ================= ESTADO =================
+
+    long getSemilla() {
+        return semilla;
+    }
+
+    long getGamma() {
+        return gamma;
+    }
+
+    void setEstado(long semilla, long gamma) {
+        this.semilla = semilla;
+        this.gamma = gamma;
+    }
+
+    // ================= MEZCLAS =================
+
+    private long siguienteSemilla() {
+        return semilla += gamma;
+    }
+
+    private static long mezclar64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mezclar32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mezclarGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,508 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Genera escenarios sintéticos de cualquier tamaño para pruebas de carga:
+ * la red con sus posiciones, las líneas con su flota y una demanda
+ * origen–destino que cambia con la hora. Todo sale de la semilla, así que
+ * la misma configuración produce siempre el mismo escenario.
+ *
+ * Hay tres topologías:
+ *   grilla      calles en cuadrícula, con líneas cada tantas filas y columnas
+ *   geometrica  paradas al azar unidas con las vecinas dentro de un radio
+ *   radial      centros con rayos de paradas, unidos por troncales
+ *
+ * Las posiciones están en metros, con unos 400 m entre paradas vecinas, y
+ * el tiempo de cada arco sale de la distancia y la velocidad comercial. Los
+ * arcos se acumulan en arreglos y entran al Grafo en bloque. Cada línea se
+ * arma sobre arcos existentes en ambos sentidos, con la vuelta igual a la
+ * ida invertida, y lleva los buses necesarios para pasar con la frecuencia
+ * pedida. La demanda es una DemandaZonas sobre una cuadrícula de zonas, con
+ * un modelo gravitatorio: en la punta de la mañana los viajes van hacia las
+ * zonas de empleo (concentradas en el centro) y en la de la tarde vuelven a
+ * las residenciales. Solo generan viajes las paradas que sirve alguna
+ * línea, y cada viaje va a otra parada de una línea que pasa por su origen.
+ */
+public class GeneradorRed {
+
+    private static final double SEPARACION = 400;       // metros entre paradas vecinas
+    private static final int PARADAS_POR_CENTRO = 401;  // radial: centro + 8 rayos de 50
+
+    /** Factor de demanda de cada hora: punta de mañana y de tarde. */
+    private static final double[] PERFIL = {
+            0.10, 0.05, 0.05, 0.05, 0.10, 0.30, 0.70, 1.00, 0.90, 0.60, 0.50, 0.50,
+            0.55, 0.50, 0.50, 0.60, 0.80, 1.00, 0.90, 0.60, 0.40, 0.30, 0.20, 0.15
+    };
+    private static final int[] HORAS_MANANA = {6, 7, 8, 9};
+    private static final int[] HORAS_TARDE = {16, 17, 18, 19};
+
+    private long semilla = 1;
+    private double velocidad = 20;              // km/h
+    private int frecuencia = 15;                // minutos entre buses de una línea
+    private int capacidad = 80;
+    private int espaciadoLineas = 4;            // grilla: una línea cada tantas filas y columnas
+    private int largoLineas = 40;               // geométrica: paradas por línea
+    private double pasajerosPorMinuto = 0.05;   // por parada, en la hora punta
+    private int zonas = 64;
+
+    // Estado de la generación en curso
+    private FlujoAleatorio random;
+    private int[] arcoOrigen;
+    private int[] arcoDestino;
+    private int[] arcoTiempo;
+    private int numArcos;
+
+    // ================= CONFIGURACIÓN =================
+
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Velocidad comercial de los buses en km/h (define el tiempo de los arcos).
+     */
+    public void setVelocidad(double kmPorHora) {
+        if (kmPorHora <= 0) {
+            throw new IllegalArgumentException("La velocidad debe ser positiva");
+        }
+        this.velocidad = kmPorHora;
+    }
+
+    /**
+     * Minutos entre buses de una misma línea y capacidad de cada bus.
+     */
+    public void setFlota(int frecuencia, int capacidad) {
+        if (frecuencia <= 0 || capacidad < 0) {
+            throw new IllegalArgumentException("La frecuencia debe ser positiva y la capacidad no negativa");
+        }
+        this.frecuencia = frecuencia;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Grilla: cada cuántas filas y columnas pasa una línea.
+     */
+    public void setEspaciadoLineas(int espaciado) {
+        if (espaciado <= 0) {
+            throw new IllegalArgumentException("El espaciado debe ser positivo");
+        }
+        this.espaciadoLineas = espaciado;
+    }
+
+    /**
+     * Geométrica: cantidad de paradas de cada línea.
+     */
+    public void setLargoLineas(int paradas) {
+        if (paradas < 2) {
+            throw new IllegalArgumentException("Una línea necesita al menos dos paradas");
+        }
+        this.largoLineas = paradas;
+    }
+
+    /**
+     * Llegadas por minuto a una parada promedio en la hora punta.
+     */
+    public void setPasajerosPorMinuto(double pasajerosPorMinuto) {
+        if (pasajerosPorMinuto < 0) {
+            throw new IllegalArgumentException("La demanda no puede ser negativa");
+        }
+        this.pasajerosPorMinuto = pasajerosPorMinuto;
+    }
+
+    /**
+     * Cantidad aproximada de zonas de la demanda (se redondea a un cuadrado).
+     */
+    public void setZonas(int zonas) {
+        if (zonas < 1 || zonas > 1024) {
+            throw new IllegalArgumentException("Las zonas deben estar entre 1 y 1024");
+        }
+        this.zonas = zonas;
+    }
+
+    // ================= TOPOLOGÍAS =================
+
+    /**
+     * Cuadrícula de unas paradas × paradas (se redondea a un cuadrado) con
+     * líneas a lo largo de cada espaciadoLineas filas y columnas.
+     */
+    public Escenario grilla(int paradas) {
+        iniciar();
+        int lado = Math.max(2, (int) Math.round(Math.sqrt(paradas)));
+        int n = lado * lado;
+        reservarArcos(4L * n);
+        Grafo grafo = new Grafo(n, 4 * n);
+        for (int v = 0; v < n; v++) {
+            grafo.agregarParadero(new Nodo(v + 1, "P" + (v + 1), (v % lado) * SEPARACION, (v / lado) * SEPARACION));
+        }
+        for (int v = 0; v < n; v++) {
+            if (v % lado + 1 < lado) unir(v, v + 1, minutos(SEPARACION));
+            if (v + lado < n) unir(v, v + lado, minutos(SEPARACION));
+        }
+
+        List<int[]> lineas = new ArrayList<>();
+        for (int f = 0; f < lado; f += espaciadoLineas) {
+            int[] fila = new int[lado];
+            int[] columna = new int[lado];
+            for (int j = 0; j < lado; j++) {
+                fila[j] = f * lado + j;
+                columna[j] = j * lado + f;
+            }
+            lineas.add(fila);
+            lineas.add(columna);
+        }
+        return terminar("grilla-" + n, grafo, lineas);
+    }
+
+    /**
+     * Paradas uniformes en un cuadrado, cada una unida con las que están a
+     * menos de un radio elegido para que el grado medio sea el pedido. Las
+     * líneas avanzan desde una parada al azar manteniendo el rumbo.
+     */
+    public Escenario geometrica(int paradas, double gradoMedio) {
+        if (gradoMedio <= 0) {
+            throw new IllegalArgumentException("El grado medio debe ser positivo");
+        }
+        iniciar();
+        int n = Math.max(2, paradas);
+        double lado = Math.sqrt(n) * SEPARACION;
+        double radio = Math.min(lado, lado * Math.sqrt(gradoMedio / (Math.PI * n)));
+        reservarArcos((long) (n * gradoMedio * 1.2) + 16);
+
+        Grafo grafo = new Grafo(n, (int) Math.min(Integer.MAX_VALUE - 8, (long) (n * gradoMedio * 1.2)));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = random.nextDouble() * lado;
+            y[v] = random.nextDouble() * lado;
+            grafo.agregarParadero(new Nodo(v + 1, "P" + (v + 1), x[v], y[v]));
+        }
+
+        // Celdas de lado >= radio: los vecinos de una parada están en su celda o las 8 contiguas
+        int k = Math.max(1, (int) (lado / radio));
+        int[] celda = new int[n];
+        int[] inicio = new int[k * k + 1];
+        for (int v = 0; v < n; v++) {
+            int cx = Math.min(k - 1, (int) (x[v] / lado * k));
+            int cy = Math.min(k - 1, (int) (y[v] / lado * k));
+            celda[v] = cy * k + cx;
+            inicio[celda[v] + 1]++;
+        }
+        for (int c = 0; c < k * k; c++) {
+            inicio[c + 1] += inicio[c];
+        }
+        int[] orden = new int[n];
+        int[] pos = Arrays.copyOf(inicio, k * k);
+        for (int v = 0; v < n; v++) {
+            orden[pos[celda[v]]++] = v;
+        }
+        for (int v = 0; v < n; v++) {
+            int cx = celda[v] % k;
+            int cy = celda[v] / k;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int ox = cx + dx, oy = cy + dy;
+                    if (ox < 0 || oy < 0 || ox >= k || oy >= k) continue;
+                    int c = oy * k + ox;
+                    for (int i = inicio[c]; i < inicio[c + 1]; i++) {
+                        int w = orden[i];
+                        double d = Math.hypot(x[w] - x[v], y[w] - y[v]);
+                        if (w > v && d <= radio) {
+                            unir(v, w, minutos(d));
+                        }
+                    }
+                }
+            }
+        }
+        grafo.agregarArcos(arcoOrigen, arcoDestino, arcoTiempo, numArcos);
+        numArcos = 0;
+
+        int[] off = grafo.offsets();
+        int[] dst = grafo.destinos();
+        int[] marca = new int[n];
+        List<int[]> lineas = new ArrayList<>();
+        int cantidad = Math.max(1, n / largoLineas);
+        for (int l = 1; l <= cantidad; l++) {
+            for (int intento = 0; intento < 8; intento++) {
+                int[] linea = recorrer(random.nextInt(n), l, off, dst, x, y, marca);
+                if (linea.length >= 2) {
+                    lineas.add(linea);
+                    break;
+                }
+            }
+        }
+        return terminar("geometrica-" + n, grafo, lineas);
+    }
+
+    /**
+     * Camino de hasta largoLineas paradas que sigue un rumbo al azar,
+     * girando a lo sumo unos 70° por paso y sin repetir paradas.
+     */
+    private int[] recorrer(int desde, int linea, int[] off, int[] dst, double[] x, double[] y, int[] marca) {
+        int[] camino = new int[largoLineas];
+        double angulo = random.nextDouble() * 2 * Math.PI;
+        double hx = Math.cos(angulo), hy = Math.sin(angulo);
+        int largo = 0;
+        int v = desde;
+        while (true) {
+            camino[largo++] = v;
+            marca[v] = linea;
+            if (largo == largoLineas) break;
+
+            int mejor = -1;
+            double mejorCoseno = 0.35;
+            for (int e = off[v]; e < off[v + 1]; e++) {
+                int w = dst[e];
+                if (marca[w] == linea) continue;
+                double dx = x[w] - x[v], dy = y[w] - y[v];
+                double coseno = (dx * hx + dy * hy) / Math.hypot(dx, dy);
+                if (coseno > mejorCoseno) {
+                    mejorCoseno = coseno;
+                    mejor = w;
+                }
+            }
+            if (mejor < 0) break;
+            double dx = x[mejor] - x[v], dy = y[mejor] - y[v];
+            double d = Math.hypot(dx, dy);
+            hx = 0.7 * hx + 0.3 * dx / d;
+            hy = 0.7 * hy + 0.3 * dy / d;
+            double norma = Math.hypot(hx, hy);
+            hx /= norma;
+            hy /= norma;
+            v = mejor;
+        }
+        return Arrays.copyOf(camino, largo);
+    }
+
+    /**
+     * Centros en cuadrícula, cada uno con 8 rayos de paradas. Los centros
+     * vecinos se unen por troncales rápidas. Cada centro tiene 4 líneas que
+     * cruzan de un rayo al opuesto y hay una troncal por fila y columna de
+     * centros. La cantidad de paradas se ajusta a centros · (1 + 8 · largo
+     * del rayo).
+     */
+    public Escenario radial(int paradas) {
+        iniciar();
+        int centros = Math.max(1, (int) Math.round(paradas / (double) PARADAS_POR_CENTRO));
+        int largo = Math.max(1, (Math.max(9, paradas) / centros - 1) / 8);
+        int porCentro = 1 + 8 * largo;
+        int n = centros * porCentro;
+        int ladoCentros = (int) Math.ceil(Math.sqrt(centros));
+        double separacionCentros = (2 * largo + 1) * SEPARACION;
+        reservarArcos(2L * n + 4L * centros);
+
+        Grafo grafo = new Grafo(n, 2 * n + 4 * centros);
+        for (int h = 0; h < centros; h++) {
+            double cx = (h % ladoCentros) * separacionCentros;
+            double cy = (h / ladoCentros) * separacionCentros;
+            int base = h * porCentro;
+            grafo.agregarParadero(new Nodo(base + 1, "C" + (h + 1), cx, cy));
+            for (int s = 0; s < 8; s++) {
+                double angulo = s * Math.PI / 4;
+                for (int j = 0; j < largo; j++) {
+                    int v = base + 1 + s * largo + j;
+                    double r = (j + 1) * SEPARACION;
+                    grafo.agregarParadero(new Nodo(v + 1, "C" + (h + 1) + "." + (s + 1) + "." + (j + 1),
+                            cx + r * Math.cos(angulo), cy + r * Math.sin(angulo)));
+                    unir(j == 0 ? base : v - 1, v, minutos(SEPARACION));
+                }
+            }
+        }
+        int troncal = Math.max(1, minutos(separacionCentros) / 2);
+        for (int h = 0; h < centros; h++) {
+            if (h % ladoCentros + 1 < ladoCentros && h + 1 < centros) unir(h * porCentro, (h + 1) * porCentro, troncal);
+            if (h + ladoCentros < centros) unir(h * porCentro, (h + ladoCentros) * porCentro, troncal);
+        }
+
+        List<int[]> lineas = new ArrayList<>();
+        for (int h = 0; h < centros; h++) {
+            int base = h * porCentro;
+            for (int s = 0; s < 4; s++) {
+                int[] linea = new int[2 * largo + 1];
+                for (int j = 0; j < largo; j++) {
+                    linea[j] = base + 1 + s * largo + (largo - 1 - j);       // rayo s, desde la punta
+                    linea[largo + 1 + j] = base + 1 + (s + 4) * largo + j;  // rayo opuesto, hacia afuera
+                }
+                linea[largo] = base;
+                lineas.add(linea);
+            }
+        }
+        for (int f = 0; f * ladoCentros < centros; f++) {
+            int fin = Math.min(centros, (f + 1) * ladoCentros);
+            if (fin - f * ladoCentros >= 2) {
+                int[] linea = new int[fin - f * ladoCentros];
+                for (int i = 0; i < linea.length; i++) {
+                    linea[i] = (f * ladoCentros + i) * porCentro;
+                }
+                lineas.add(linea);
+            }
+        }
+        for (int c = 0; c < ladoCentros; c++) {
+            int cantidad = 0;
+            for (int h = c; h < centros; h += ladoCentros) cantidad++;
+            if (cantidad >= 2) {
+                int[] linea = new int[cantidad];
+                for (int i = 0; i < cantidad; i++) {
+                    linea[i] = (c + i * ladoCentros) * porCentro;
+                }
+                lineas.add(linea);
+            }
+        }
+        return terminar("radial-" + n, grafo, lineas);
+    }
+
+    // ================= ARMADO =================
+
+    private void iniciar() {
+        random = new FlujoAleatorio(semilla);
+        numArcos = 0;
+    }
+
+    private void reservarArcos(long cantidad) {
+        int c = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, cantidad));
+        if (arcoOrigen == null || arcoOrigen.length < c) {
+            arcoOrigen = new int[c];
+            arcoDestino = new int[c];
+            arcoTiempo = new int[c];
+        }
+    }
+
+    /**
+     * Arcos en ambos sentidos entre a y b.
+     */
+    private void unir(int a, int b, int minutos) {
+        if (numArcos + 2 > arcoOrigen.length) {
+            int nuevo = arcoOrigen.length * 2;
+            arcoOrigen = Arrays.copyOf(arcoOrigen, nuevo);
+            arcoDestino = Arrays.copyOf(arcoDestino, nuevo);
+            arcoTiempo = Arrays.copyOf(arcoTiempo, nuevo);
+        }
+        arcoOrigen[numArcos] = a;
+        arcoDestino[numArcos] = b;
+        arcoTiempo[numArcos++] = minutos;
+        arcoOrigen[numArcos] = b;
+        arcoDestino[numArcos] = a;
+        arcoTiempo[numArcos++] = minutos;
+    }
+
+    /**
+     * Minutos para recorrer la distancia, con ±15 % de variación por
+     * semáforos y pendientes.
+     */
+    private int minutos(double metros) {
+        double base = metros / (velocidad * 1000 / 60);
+        return Math.max(1, (int) Math.round(base * (0.85 + 0.3 * random.nextDouble())));
+    }
+
+    /**
+     * Carga los arcos pendientes, arma las líneas con su flota y la demanda.
+     */
+    private Escenario terminar(String nombre, Grafo grafo, List<int[]> lineas) {
+        grafo.agregarArcos(arcoOrigen, arcoDestino, arcoTiempo, numArcos);
+        numArcos = 0;
+        Escenario escenario = new Escenario(nombre, grafo);
+        escenario.setSemilla(semilla);
+
+        for (int[] linea : lineas) {
+            List<Nodo> ida = new ArrayList<>(linea.length);
+            for (int v : linea) {
+                ida.add(grafo.getNodo(v));
+            }
+            List<Nodo> vuelta = new ArrayList<>(ida);
+            Collections.reverse(vuelta);
+            Ruta ruta = new Ruta(grafo, ida, vuelta);
+            long ciclo = 0;
+            for (int i = 0; i + 1 < linea.length; i++) {
+                ciclo += ruta.tiempoTramo(true, i) + ruta.tiempoTramo(false, i);
+            }
+            int buses = (int) Math.max(1, (ciclo + frecuencia - 1) / frecuencia);
+            escenario.agregarLinea(ruta, buses, capacidad);
+        }
+        DemandaZonas demanda = demanda(grafo);
+        demanda.setLineas(lineas);
+        escenario.setDemanda(demanda);
+        random = null;
+        return escenario;
+    }
+
+    /**
+     * Demanda gravitatoria sobre una cuadrícula de zonas que cubre la red.
+     * Las tasas se fijan para todas las paradas; terminar la limita después
+     * a las que sirven las líneas.
+     */
+    private DemandaZonas demanda(Grafo grafo) {
+        int n = grafo.getNumParaderos();
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            Nodo p = grafo.getNodo(v);
+            minX = Math.min(minX, p.getPosicionX());
+            maxX = Math.max(maxX, p.getPosicionX());
+            minY = Math.min(minY, p.getPosicionY());
+            maxY = Math.max(maxY, p.getPosicionY());
+        }
+        int lado = Math.max(1, (int) Math.round(Math.sqrt(zonas)));
+        double ancho = Math.max(1, maxX - minX);
+        double alto = Math.max(1, maxY - minY);
+        int[] zonaDeParada = new int[n];
+        for (int v = 0; v < n; v++) {
+            Nodo p = grafo.getNodo(v);
+            int zx = Math.min(lado - 1, (int) ((p.getPosicionX() - minX) / ancho * lado));
+            int zy = Math.min(lado - 1, (int) ((p.getPosicionY() - minY) / alto * lado));
+            zonaDeParada[v] = zy * lado + zx;
+        }
+
+        int z = lado * lado;
+        double[] poblacion = new double[z];
+        double[] empleo = new double[z];
+        double[] zx = new double[z];
+        double[] zy = new double[z];
+        double extension = Math.hypot(ancho, alto);
+        for (int i = 0; i < z; i++) {
+            zx[i] = minX + ((i % lado) + 0.5) * ancho / lado;
+            zy[i] = minY + ((i / lado) + 0.5) * alto / lado;
+            double alCentro = Math.hypot(zx[i] - (minX + maxX) / 2, zy[i] - (minY + maxY) / 2);
+            poblacion[i] = 0.5 + random.nextDouble();
+            empleo[i] = (0.2 + random.nextDouble()) * Math.exp(-4 * alCentro / extension);
+        }
+
+        double[][] manana = new double[z][z];
+        double[][] tarde = new double[z][z];
+        double[][] resto = new double[z][z];
+        double escala = extension / 4;
+        for (int i = 0; i < z; i++) {
+            for (int j = 0; j < z; j++) {
+                double d = Math.hypot(zx[i] - zx[j], zy[i] - zy[j]) / escala;
+                double friccion = 1 / (1 + d * d);
+                manana[i][j] = empleo[j] * friccion;
+                tarde[i][j] = poblacion[j] * friccion;
+                resto[i][j] = (poblacion[j] + empleo[j]) / 2 * friccion;
+            }
+        }
+
+        DemandaZonas demanda = new DemandaZonas(zonaDeParada, z);
+        demanda.setPerfilHorario(PERFIL);
+        int[] otras = new int[24 - HORAS_MANANA.length - HORAS_TARDE.length];
+        int k = 0;
+        for (int h = 0; h < 24; h++) {
+            if ((h < HORAS_MANANA[0] || h > HORAS_MANANA[HORAS_MANANA.length - 1])
+                    && (h < HORAS_TARDE[0] || h > HORAS_TARDE[HORAS_TARDE.length - 1])) {
+                otras[k++] = h;
+            }
+        }
+        demanda.setMatriz(resto, otras);
+        demanda.setMatriz(manana, HORAS_MANANA);
+        demanda.setMatriz(tarde, HORAS_TARDE);
+
+        double promedio = 0;
+        for (double p : poblacion) promedio += p;
+        promedio /= z;
+        for (int v = 0; v < n; v++) {
+            demanda.setTasa(v, pasajerosPorMinuto * poblacion[zonaDeParada[v]] / promedio);
+        }
+        return demanda;
+    }
+}
@@ -5,122 +5,608 @@ import java.util.*;
 /**
  * Representa el grafo de paradas en la red de transporte.
  * Permite calcular rutas óptimas entre paradas usando algoritmo de Dijkstra.
+ *
+ * El grafo se construye con agregarParadero/agregarArco. Al primer uso se
+ * "congela" en formato CSR (compressed sparse row): cada parada tiene un
+ * índice denso y sus arcos salientes ocupan el rango
+ * [offsets[i], offsets[i+1]) de los arreglos destinos/tiempos.
+ * También se guarda el CSR del grafo invertido (arcos entrantes), usado por
+ * las búsquedas que avanzan desde el destino.
+ * Agregar paradas o arcos después vuelve a congelarlo en el siguiente uso.
+ * Al congelar se sueltan los arreglos de construcción; si luego se agregan
+ * arcos se rearman desde el CSR, así que en ese caso los arcos quedan
+ * agrupados por origen (el orden de los salientes de cada parada se
+ * conserva, el de los entrantes pasa a seguir el orden de los orígenes).
+ *
+ * Los árboles de caminos más cortos se guardan en un caché LRU por origen.
+ * Cada modificación del grafo incrementa su versión e invalida el caché.
+ *
+ * Las paradas se pueden buscar por id o por nombre en O(1), y por cercanía
+ * a un punto con un árbol k-d que se arma al primer uso de cada versión.
  */
 public class Grafo {
+    public static final int INFINITO = Integer.MAX_VALUE;
+    public static final int CAPACIDAD_CACHE_DEFECTO = 64;
+
     private List<Nodo> paraderos;
-    private Map<Nodo, List<Arco>> adj;  // lista de adyacencia
+    private Map<Integer, Nodo> paraderosPorId;
+    private Map<String, Nodo> paraderosPorNombre;
+
+    // Arcos en construcción (arreglos crecientes, sin objetos por arco);
+    // null mientras el grafo está congelado
+    private int[] arcoOrigen;
+    private int[] arcoDestino;
+    private int[] arcoTiempo;
+    private int numArcos;
+
+    // Representación CSR congelada
+    private int[] offsets;
+    private int[] destinos;
+    private int[] tiempos;
+    private int[] offsetsInv;
+    private int[] origenesInv;
+    private int[] tiemposInv;
+    private volatile boolean congelado;
+
+    // Índice espacial de la versión en que se armó
+    private volatile ArbolKd arbolKd;
+
+    // Caché de árboles de caminos más cortos
+    private volatile long version;
+    private final CacheArboles cache;
+    private long aciertosCache;
+    private long fallosCache;
+    private long desalojosCache;
 
     public Grafo() {
-        this.paraderos = new ArrayList<>();
-        this.adj = new HashMap<>();
+        this(16, 16);
     }
 
     /**
-     * Agrega una parada (nodo) al grafo.
+     * Grafo con espacio reservado para la cantidad esperada de paradas y
+     * arcos (evita crecer de a poco al cargar redes grandes).
+     */
+    public Grafo(int paradasEsperadas, int arcosEsperados) {
+        this.paraderos = new ArrayList<>(paradasEsperadas);
+        this.paraderosPorId = new HashMap<>(Math.max(16, paradasEsperadas * 4 / 3 + 1));
+        this.paraderosPorNombre = new HashMap<>(Math.max(16, paradasEsperadas * 4 / 3 + 1));
+        this.arcoOrigen = new int[Math.max(16, arcosEsperados)];
+        this.arcoDestino = new int[arcoOrigen.length];
+        this.arcoTiempo = new int[arcoOrigen.length];
+        this.numArcos = 0;
+        this.congelado = false;
+        this.version = 0;
+        this.cache = new CacheArboles(CAPACIDAD_CACHE_DEFECTO);
+    }
+
+    /**
+     * Agrega una parada (nodo) al grafo y le asigna su índice denso.
      */
     public void agregarParadero(Nodo nodo) {
+        nodo.setIndice(paraderos.size());
         paraderos.add(nodo);
-        adj.put(nodo, new ArrayList<>());
+        paraderosPorId.putIfAbsent(nodo.getId(), nodo);
+        paraderosPorNombre.putIfAbsent(nodo.getNombre(), nodo);
+        congelado = false;
+        version++;
     }
 
     /**
      * Agrega una arista (conexión) entre dos paradas con un tiempo específico.
      */
     public void agregarArco(Nodo origen, Nodo destino, int tiempo) {
-        Arco arco = new Arco(origen, destino, tiempo);
-        adj.get(origen).add(arco);
+        if (!contiene(origen) || !contiene(destino)) {
+            throw new IllegalArgumentException("El arco une paradas que no pertenecen al grafo");
+        }
+        asegurarEditable(1);
+        if (numArcos == arcoOrigen.length) {
+            int nuevo = numArcos * 2;
+            arcoOrigen = Arrays.copyOf(arcoOrigen, nuevo);
+            arcoDestino = Arrays.copyOf(arcoDestino, nuevo);
+            arcoTiempo = Arrays.copyOf(arcoTiempo, nuevo);
+        }
+        arcoOrigen[numArcos] = origen.getIndice();
+        arcoDestino[numArcos] = destino.getIndice();
+        arcoTiempo[numArcos] = tiempo;
+        numArcos++;
+        congelado = false;
+        version++;
+    }
+
+    /**
+     * Agrega en bloque los arcos origenes[i] -> destinos[i], i < cantidad,
+     * dados por índice denso de parada. Es lo que usan los cargadores de
+     * redes para no crear un objeto por arco.
+     */
+    void agregarArcos(int[] origenes, int[] destinos, int[] tiempos, int cantidad) {
+        int n = paraderos.size();
+        for (int i = 0; i < cantidad; i++) {
+            if (origenes[i] < 0 || origenes[i] >= n || destinos[i] < 0 || destinos[i] >= n) {
+                throw new IllegalArgumentException("El arco une paradas que no pertenecen al grafo");
+            }
+        }
+        asegurarEditable(cantidad);
+        if (numArcos + cantidad > arcoOrigen.length) {
+            int nuevo = Math.max(numArcos + cantidad, arcoOrigen.length * 2);
+            arcoOrigen = Arrays.copyOf(arcoOrigen, nuevo);
+            arcoDestino = Arrays.copyOf(arcoDestino, nuevo);
+            arcoTiempo = Arrays.copyOf(arcoTiempo, nuevo);
+        }
+        System.arraycopy(origenes, 0, arcoOrigen, numArcos, cantidad);
+        System.arraycopy(destinos, 0, arcoDestino, numArcos, cantidad);
+        System.arraycopy(tiempos, 0, arcoTiempo, numArcos, cantidad);
+        numArcos += cantidad;
+        congelado = false;
+        version++;
+    }
+
+    /**
+     * Grafo ya congelado con las paradas dadas (en orden de índice) y el
+     * CSR de arcos salientes offsets/destinos/tiempos, que se adopta tal
+     * cual, sin copiarlo ni reordenarlo; solo se arma el CSR invertido.
+     * El que llama garantiza que el CSR es válido (offsets crecientes de 0
+     * a destinos.length, destinos en rango), como hace RedBinaria al leerlo.
+     */
+    static Grafo desdeCsr(List<Nodo> paradas, int[] offsets, int[] destinos, int[] tiempos) {
+        int n = paradas.size();
+        Grafo grafo = new Grafo(n, 0);
+        for (Nodo parada : paradas) {
+            grafo.agregarParadero(parada);
+        }
+        grafo.arcoOrigen = null;
+        grafo.arcoDestino = null;
+        grafo.arcoTiempo = null;
+        grafo.numArcos = destinos.length;
+        grafo.offsets = offsets;
+        grafo.destinos = destinos;
+        grafo.tiempos = tiempos;
+
+        int m = destinos.length;
+        int[] offInv = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offInv[destinos[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offInv[i + 1] += offInv[i];
+        }
+        int[] org = new int[m];
+        int[] tieInv = new int[m];
+        int[] pos = Arrays.copyOf(offInv, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int k = pos[destinos[e]]++;
+                org[k] = u;
+                tieInv[k] = tiempos[e];
+            }
+        }
+        grafo.offsetsInv = offInv;
+        grafo.origenesInv = org;
+        grafo.tiemposInv = tieInv;
+        grafo.version++;
+        grafo.congelado = true;
+        return grafo;
     }
 
     public List<Nodo> getParaderos() {
         return paraderos;
     }
 
+    /**
+     * Busca una parada por su id en O(1). Si varias comparten el id retorna
+     * la primera agregada; null si no hay ninguna.
+     */
     public Nodo getParadero(int id) {
-        for (Nodo n : paraderos) {
-            if (n.getId() == id) {
-                return n;
+        return paraderosPorId.get(id);
+    }
+
+    /**
+     * Busca una parada por su nombre en O(1). Si varias comparten el nombre
+     * retorna la primera agregada; null si no hay ninguna.
+     */
+    public Nodo getParaderoPorNombre(String nombre) {
+        return paraderosPorNombre.get(nombre);
+    }
+
+    /**
+     * Retorna la parada con el índice denso indicado.
+     */
+    public Nodo getNodo(int indice) {
+        return paraderos.get(indice);
+    }
+
+    public int getNumParaderos() {
+        return paraderos.size();
+    }
+
+    public int getNumArcos() {
+        return numArcos;
+    }
+
+    /**
+     * Indica si el nodo fue agregado a este grafo.
+     */
+    public boolean contiene(Nodo nodo) {
+        int i = nodo.getIndice();
+        return i >= 0 && i < paraderos.size() && paraderos.get(i) == nodo;
+    }
+
+    public List<Arco> getAdyacentes(Nodo nodo) {
+        if (!contiene(nodo)) {
+            return new ArrayList<>();
+        }
+        asegurarCongelado();
+        int u = nodo.getIndice();
+        List<Arco> arcos = new ArrayList<>(offsets[u + 1] - offsets[u]);
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            arcos.add(new Arco(nodo, paraderos.get(destinos[e]), tiempos[e]));
+        }
+        return arcos;
+    }
+
+    // ================= CERCANÍA =================
+
+    /**
+     * Parada más cercana al punto (x, y), en las coordenadas de los nodos;
+     * null si el grafo no tiene paradas.
+     */
+    public Nodo paradaMasCercana(double x, double y) {
+        int p = arbolKd().masCercana(x, y);
+        return p < 0 ? null : paraderos.get(p);
+    }
+
+    /**
+     * Las k paradas más cercanas al punto (x, y), de la más cercana a la
+     * más lejana.
+     */
+    public List<Nodo> paradasMasCercanas(double x, double y, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k no puede ser negativo");
+        }
+        int[] indices = new int[Math.min(k, paraderos.size())];
+        arbolKd().cercanas(x, y, indices);
+        return comoNodos(indices);
+    }
+
+    /**
+     * Paradas a distancia menor o igual a radio del punto (x, y), de la más
+     * cercana a la más lejana.
+     */
+    public List<Nodo> paradasEnRadio(double x, double y, double radio) {
+        return comoNodos(arbolKd().enRadio(x, y, radio));
+    }
+
+    private List<Nodo> comoNodos(int[] indices) {
+        List<Nodo> nodos = new ArrayList<>(indices.length);
+        for (int p : indices) {
+            nodos.add(paraderos.get(p));
+        }
+        return nodos;
+    }
+
+    /**
+     * Árbol k-d de la versión actual; se rearma si el grafo cambió.
+     */
+    private ArbolKd arbolKd() {
+        ArbolKd arbol = arbolKd;
+        if (arbol == null || arbol.getVersion() != version) {
+            synchronized (this) {
+                arbol = arbolKd;
+                if (arbol == null || arbol.getVersion() != version) {
+                    arbol = new ArbolKd(this, version);
+                    arbolKd = arbol;
+                }
             }
         }
-        return null;
+        return arbol;
     }
 
-    public List<Arco> getAdyacentes(Nodo nodo) {
-        return adj.getOrDefault(nodo, new ArrayList<>());
+    // ================= CSR =================
+
+    /**
+     * Construye la representación CSR a partir de los arcos agregados.
+     * Los arcos de cada parada conservan su orden de inserción.
+     */
+    private synchronized void congelar() {
+        if (congelado) return;
+
+        int n = paraderos.size();
+        if (arcoOrigen == null) {
+            // Solo se agregaron paradas: quedan sin arcos al final del CSR
+            int anterior = offsets.length - 1;
+            offsets = Arrays.copyOf(offsets, n + 1);
+            Arrays.fill(offsets, anterior + 1, n + 1, numArcos);
+            offsetsInv = Arrays.copyOf(offsetsInv, n + 1);
+            Arrays.fill(offsetsInv, anterior + 1, n + 1, numArcos);
+            congelado = true;
+            return;
+        }
+        int[] off = new int[n + 1];
+        for (int i = 0; i < numArcos; i++) {
+            off[arcoOrigen[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            off[i + 1] += off[i];
+        }
+
+        int[] dst = new int[numArcos];
+        int[] tie = new int[numArcos];
+        int[] pos = Arrays.copyOf(off, n);
+        for (int i = 0; i < numArcos; i++) {
+            int e = pos[arcoOrigen[i]]++;
+            dst[e] = arcoDestino[i];
+            tie[e] = arcoTiempo[i];
+        }
+
+        // Grafo invertido: arcos entrantes agrupados por destino
+        int[] offInv = new int[n + 1];
+        for (int i = 0; i < numArcos; i++) {
+            offInv[arcoDestino[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offInv[i + 1] += offInv[i];
+        }
+
+        int[] org = new int[numArcos];
+        int[] tieInv = new int[numArcos];
+        pos = Arrays.copyOf(offInv, n);
+        for (int i = 0; i < numArcos; i++) {
+            int e = pos[arcoDestino[i]]++;
+            org[e] = arcoOrigen[i];
+            tieInv[e] = arcoTiempo[i];
+        }
+
+        offsets = off;
+        destinos = dst;
+        tiempos = tie;
+        offsetsInv = offInv;
+        origenesInv = org;
+        tiemposInv = tieInv;
+        // El CSR ya tiene todos los arcos: los arreglos de construcción sobran
+        arcoOrigen = null;
+        arcoDestino = null;
+        arcoTiempo = null;
+        congelado = true;
+    }
+
+    /**
+     * Rearma los arreglos de construcción desde el CSR si se soltaron al
+     * congelar, con lugar para los extra arcos que se van a agregar.
+     */
+    private synchronized void asegurarEditable(int extra) {
+        if (arcoOrigen != null) return;
+        int capacidad = Math.max(16, numArcos + Math.max(extra, numArcos / 2));
+        int[] org = new int[capacidad];
+        int[] dst = new int[capacidad];
+        int[] tie = new int[capacidad];
+        int n = offsets.length - 1;
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(org, offsets[u], offsets[u + 1], u);
+        }
+        System.arraycopy(destinos, 0, dst, 0, numArcos);
+        System.arraycopy(tiempos, 0, tie, 0, numArcos);
+        arcoOrigen = org;
+        arcoDestino = dst;
+        arcoTiempo = tie;
+    }
+
+    private void asegurarCongelado() {
+        if (!congelado) {
+            congelar();
+        }
+    }
+
+    /**
+     * Arreglo de offsets CSR: los arcos de la parada i están en [offsets[i], offsets[i+1]).
+     */
+    int[] offsets() {
+        asegurarCongelado();
+        return offsets;
+    }
+
+    /**
+     * Índice de la parada destino de cada arco CSR.
+     */
+    int[] destinos() {
+        asegurarCongelado();
+        return destinos;
+    }
+
+    /**
+     * Tiempo (minutos) de cada arco CSR.
+     */
+    int[] tiempos() {
+        asegurarCongelado();
+        return tiempos;
+    }
+
+    /**
+     * Offsets CSR del grafo invertido: los arcos que llegan a i están en
+     * [offsetsInversos()[i], offsetsInversos()[i+1]).
+     */
+    int[] offsetsInversos() {
+        asegurarCongelado();
+        return offsetsInv;
+    }
+
+    /**
+     * Índice de la parada origen de cada arco entrante.
+     */
+    int[] origenesInversos() {
+        asegurarCongelado();
+        return origenesInv;
+    }
+
+    /**
+     * Tiempo (minutos) de cada arco entrante.
+     */
+    int[] tiemposInversos() {
+        asegurarCongelado();
+        return tiemposInv;
+    }
+
+    /**
+     * Retorna el tiempo del arco entre dos índices de parada, o -1 si no existe.
+     */
+    public int tiempoArco(int origen, int destino) {
+        asegurarCongelado();
+        for (int e = offsets[origen]; e < offsets[origen + 1]; e++) {
+            if (destinos[e] == destino) {
+                return tiempos[e];
+            }
+        }
+        return -1;
     }
 
     /**
      * Implementa el algoritmo de Dijkstra para encontrar la ruta más corta
      * entre dos paradas.
+     * Con el caché activo se calcula (o reutiliza) el árbol completo del
+     * origen; sin caché la búsqueda termina al llegar al destino.
      */
     public List<Nodo> dijkstra(Nodo origen, Nodo destino) {
-        Map<Nodo, Integer> distancias = new HashMap<>();
-        Map<Nodo, Nodo> anterior = new HashMap<>();
-        PriorityQueue<NodoDistancia> pq = new PriorityQueue<>();
-
-        // Inicializar distancias
-        for (Nodo n : paraderos) {
-            distancias.put(n, Integer.MAX_VALUE);
-            anterior.put(n, null);
-        }
-        distancias.put(origen, 0);
-        pq.offer(new NodoDistancia(origen, 0));
-
-        // Dijkstra
-        while (!pq.isEmpty()) {
-            NodoDistancia actual = pq.poll();
-            if (actual.distancia > distancias.get(actual.nodo)) {
-                continue;
+        if (getCapacidadCache() == 0) {
+            return buscarHasta(origen, destino).camino(this, destino.getIndice());
+        }
+        return arbolDesde(origen).camino(this, destino.getIndice());
+    }
+
+    /**
+     * Tiempo mínimo en minutos entre dos paradas, o INFINITO si no hay ruta.
+     */
+    public int distancia(Nodo origen, Nodo destino) {
+        if (getCapacidadCache() == 0) {
+            return buscarHasta(origen, destino).distancia(destino.getIndice());
+        }
+        return arbolDesde(origen).distancia(destino.getIndice());
+    }
+
+    private NucleoDijkstra buscarHasta(Nodo origen, Nodo destino) {
+        asegurarCongelado();
+        NucleoDijkstra nucleo = NucleoDijkstra.delHilo(paraderos.size());
+        nucleo.buscar(offsets, destinos, tiempos, origen.getIndice(), destino.getIndice());
+        return nucleo;
+    }
+
+    /**
+     * Retorna el árbol de caminos más cortos desde el origen, usando el
+     * caché si hay uno vigente para la versión actual del grafo.
+     */
+    public ArbolCaminos arbolDesde(Nodo origen) {
+        int o = origen.getIndice();
+        long v = version;
+
+        synchronized (cache) {
+            ArbolCaminos arbol = cache.get(o);
+            if (arbol != null && arbol.getVersion() == v) {
+                aciertosCache++;
+                return arbol;
+            }
+            if (arbol != null) {
+                cache.remove(o);
             }
+            fallosCache++;
+        }
 
-            for (Arco arco : adj.get(actual.nodo)) {
-                Nodo vecino = arco.getDestino();
-                int nuevaDistancia = distancias.get(actual.nodo) + arco.getTiempo();
+        asegurarCongelado();
+        int n = paraderos.size();
+        NucleoDijkstra nucleo = NucleoDijkstra.delHilo(n);
+        nucleo.buscar(offsets, destinos, tiempos, o, -1);
+        ArbolCaminos arbol = nucleo.comoArbol(o, n, v);
 
-                if (nuevaDistancia < distancias.get(vecino)) {
-                    distancias.put(vecino, nuevaDistancia);
-                    anterior.put(vecino, actual.nodo);
-                    pq.offer(new NodoDistancia(vecino, nuevaDistancia));
-                }
+        synchronized (cache) {
+            if (cache.capacidad > 0) {
+                cache.put(o, arbol);
             }
         }
+        return arbol;
+    }
+
+    // ================= CACHÉ =================
+
+    /**
+     * Cambia la cantidad máxima de árboles guardados (0 desactiva el caché).
+     */
+    public void setCapacidadCache(int capacidad) {
+        synchronized (cache) {
+            cache.capacidad = capacidad;
+            cache.recortar();
+        }
+    }
 
-        // Reconstruir camino
-        List<Nodo> camino = new ArrayList<>();
-        Nodo actual = destino;
-        while (actual != null) {
-            camino.add(0, actual);
-            actual = anterior.get(actual);
+    public int getCapacidadCache() {
+        synchronized (cache) {
+            return cache.capacidad;
         }
+    }
 
-        return camino;
+    public long getVersion() {
+        return version;
+    }
+
+    public long getAciertosCache() {
+        synchronized (cache) {
+            return aciertosCache;
+        }
     }
+
+    public long getFallosCache() {
+        synchronized (cache) {
+            return fallosCache;
+        }
+    }
+
+    public long getDesalojosCache() {
+        synchronized (cache) {
+            return desalojosCache;
+        }
+    }
+
     /**
      * Obtiene el arco entre dos nodos, si existe.
      */
     public Arco getArco(Nodo origen, Nodo destino) {
-        for (Arco a : getAdyacentes(origen)) {
-            if (a.getDestino().equals(destino)) {
-                return a;
-            }
+        if (!contiene(origen) || !contiene(destino)) {
+            return null;
         }
-        return null;
+        int tiempo = tiempoArco(origen.getIndice(), destino.getIndice());
+        return tiempo < 0 ? null : new Arco(origen, destino, tiempo);
     }
 
     /**
-     * Clase auxiliar para el algoritmo de Dijkstra.
+     * Caché LRU de árboles por índice de origen. Envuelve un LinkedHashMap
+     * en orden de acceso en lugar de extenderlo.
      */
-    private static class NodoDistancia implements Comparable<NodoDistancia> {
-        Nodo nodo;
-        int distancia;
+    private class CacheArboles {
+        private final LinkedHashMap<Integer, ArbolCaminos> arboles = new LinkedHashMap<>(16, 0.75f, true);
+        int capacidad;
+
+        CacheArboles(int capacidad) {
+            this.capacidad = capacidad;
+        }
 
-        NodoDistancia(Nodo nodo, int distancia) {
-            this.nodo = nodo;
-            this.distancia = distancia;
+        ArbolCaminos get(int origen) {
+            return arboles.get(origen);
         }
 
-        @Override
-        public int compareTo(NodoDistancia otra) {
-            return Integer.compare(this.distancia, otra.distancia);
+        void remove(int origen) {
+            arboles.remove(origen);
+        }
+
+        void put(int origen, ArbolCaminos arbol) {
+            arboles.put(origen, arbol);
+            recortar();
+        }
+
+        /**
+         * Desaloja los menos usados hasta respetar la capacidad.
+         */
+        void recortar() {
+            Iterator<Integer> masAntiguos = arboles.keySet().iterator();
+            while (arboles.size() > capacidad) {
+                masAntiguos.next();
+                masAntiguos.remove();
+                desalojosCache++;
+            }
         }
     }
 }
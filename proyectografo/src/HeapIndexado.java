@@ -0,0 +1,152 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * Cola de prioridad d-aria de paradas (índices 0..n-1) con claves long.
+ *
+ * Cada parada aparece a lo sumo una vez: si se vuelve a insertar con una
+ * clave menor se reduce su clave en el lugar (decrease-key), en vez de
+ * dejar entradas obsoletas como PriorityQueue. No reserva memoria por
+ * operación.
+ */
+public class HeapIndexado {
+
+    private static final int ARIDAD = 4;
+
+    private int[] nodos;        // nodos[i] = parada en la posición i del heap
+    private long[] claves;      // claves[i] = clave de nodos[i]
+    private int[] posicion;     // posicion[v] = posición de v en el heap, o -1
+    private int tamanio;
+
+    public HeapIndexado(int capacidad) {
+        this.nodos = new int[Math.max(1, capacidad)];
+        this.claves = new long[Math.max(1, capacidad)];
+        this.posicion = new int[capacidad];
+        Arrays.fill(posicion, -1);
+        this.tamanio = 0;
+    }
+
+    /**
+     * Amplía la cantidad de paradas admitidas (conserva el contenido).
+     */
+    public void asegurarCapacidad(int capacidad) {
+        if (capacidad <= posicion.length) return;
+        int anterior = posicion.length;
+        posicion = Arrays.copyOf(posicion, capacidad);
+        Arrays.fill(posicion, anterior, capacidad, -1);
+        nodos = Arrays.copyOf(nodos, capacidad);
+        claves = Arrays.copyOf(claves, capacidad);
+    }
+
+    public boolean estaVacio() {
+        return tamanio == 0;
+    }
+
+    public int tamanio() {
+        return tamanio;
+    }
+
+    public boolean contiene(int v) {
+        return posicion[v] != -1;
+    }
+
+    /**
+     * Clave actual de v (debe estar en el heap).
+     */
+    public long clave(int v) {
+        return claves[posicion[v]];
+    }
+
+    /**
+     * Inserta v con la clave dada, o reduce su clave si ya estaba y la
+     * nueva es menor. Si la nueva es mayor no hace nada.
+     */
+    public void insertarOReducir(int v, long clave) {
+        int i = posicion[v];
+        if (i == -1) {
+            i = tamanio++;
+            nodos[i] = v;
+            claves[i] = clave;
+            posicion[v] = i;
+        } else if (clave < claves[i]) {
+            claves[i] = clave;
+        } else {
+            return;
+        }
+        subir(i);
+    }
+
+    /**
+     * Clave mínima (el heap no debe estar vacío).
+     */
+    public long claveMinima() {
+        return claves[0];
+    }
+
+    /**
+     * Saca y retorna la parada de clave mínima.
+     */
+    public int extraerMinimo() {
+        int min = nodos[0];
+        posicion[min] = -1;
+        tamanio--;
+        if (tamanio > 0) {
+            nodos[0] = nodos[tamanio];
+            claves[0] = claves[tamanio];
+            posicion[nodos[0]] = 0;
+            bajar(0);
+        }
+        return min;
+    }
+
+    /**
+     * Vacía el heap en O(tamaño actual).
+     */
+    public void limpiar() {
+        for (int i = 0; i < tamanio; i++) {
+            posicion[nodos[i]] = -1;
+        }
+        tamanio = 0;
+    }
+
+    private void subir(int i) {
+        int v = nodos[i];
+        long clave = claves[i];
+        while (i > 0) {
+            int padre = (i - 1) / ARIDAD;
+            if (claves[padre] <= clave) break;
+            mover(padre, i);
+            i = padre;
+        }
+        nodos[i] = v;
+        claves[i] = clave;
+        posicion[v] = i;
+    }
+
+    private void bajar(int i) {
+        int v = nodos[i];
+        long clave = claves[i];
+        while (true) {
+            int primero = i * ARIDAD + 1;
+            if (primero >= tamanio) break;
+            int ultimo = Math.min(primero + ARIDAD, tamanio);
+            int menor = primero;
+            for (int h = primero + 1; h < ultimo; h++) {
+                if (claves[h] < claves[menor]) menor = h;
+            }
+            if (claves[menor] >= clave) break;
+            mover(menor, i);
+            i = menor;
+        }
+        nodos[i] = v;
+        claves[i] = clave;
+        posicion[v] = i;
+    }
+
+    private void mover(int desde, int hacia) {
+        nodos[hacia] = nodos[desde];
+        claves[hacia] = claves[desde];
+        posicion[nodos[hacia]] = hacia;
+    }
+}
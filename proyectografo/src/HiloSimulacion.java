@@ -0,0 +1,149 @@
+package src;
+
+/**
+ * Hace avanzar un Simulador en un hilo propio, para que un tick lento no
+ * congele la interfaz.
+ *
+ * A velocidad 1 corre un tick cada 600 ms; setVelocidad multiplica ese
+ * ritmo y VELOCIDAD_MAXIMA corre los ticks uno tras otro, sin esperar.
+ * Después de cada tick publica una VistaSimulacion inmutable, salvo a
+ * velocidad máxima, donde publica a lo sumo una cada 16 ms (lo que
+ * alcanza a mostrar la pantalla). Mientras el hilo existe, solo él debe
+ * usar el simulador.
+ */
+final class HiloSimulacion {
+
+    static final double VELOCIDAD_MAXIMA = Double.POSITIVE_INFINITY;
+    private static final long NANOS_POR_TICK = 600_000_000L;
+    private static final long NANOS_ENTRE_VISTAS = 16_000_000L;
+
+    private final Simulador simulador;
+    private final Runnable alPublicar;
+    private final Thread hilo;
+
+    private final Object cerrojo = new Object();
+    private boolean corriendo;
+    private int pasosPendientes;
+    private boolean detenido;
+    private double velocidad = 1;
+
+    private volatile VistaSimulacion vista;
+
+    /**
+     * @param alPublicar se llama (desde el hilo de la simulación) cada vez
+     *                   que hay una vista nueva
+     */
+    HiloSimulacion(Simulador simulador, Runnable alPublicar) {
+        this.simulador = simulador;
+        this.alPublicar = alPublicar;
+        this.vista = VistaSimulacion.tomar(simulador);
+        this.hilo = new Thread(this::ejecutar, "simulacion");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Última vista publicada.
+     */
+    VistaSimulacion getVista() {
+        return vista;
+    }
+
+    void iniciar() {
+        synchronized (cerrojo) {
+            corriendo = true;
+            cerrojo.notifyAll();
+        }
+    }
+
+    void pausar() {
+        synchronized (cerrojo) {
+            corriendo = false;
+            cerrojo.notifyAll();
+        }
+    }
+
+    /**
+     * Pide un tick suelto (con la simulación en pausa).
+     */
+    void paso() {
+        synchronized (cerrojo) {
+            pasosPendientes++;
+            cerrojo.notifyAll();
+        }
+    }
+
+    /**
+     * Multiplicador del ritmo normal de un tick cada 600 ms.
+     */
+    void setVelocidad(double multiplicador) {
+        if (!(multiplicador > 0)) {
+            throw new IllegalArgumentException("La velocidad debe ser positiva");
+        }
+        synchronized (cerrojo) {
+            velocidad = multiplicador;
+            cerrojo.notifyAll();
+        }
+    }
+
+    void detener() {
+        synchronized (cerrojo) {
+            detenido = true;
+            cerrojo.notifyAll();
+        }
+    }
+
+    private void ejecutar() {
+        long proximo = System.nanoTime();
+        long ultimaVista = 0;
+        boolean sinPublicar = false;
+        try {
+            while (true) {
+                boolean suelto;
+                double v;
+                synchronized (cerrojo) {
+                    if (!detenido && !corriendo && pasosPendientes == 0 && sinPublicar) {
+                        // Antes de quedar en pausa se publica el último tick corrido
+                        vista = VistaSimulacion.tomar(simulador);
+                        sinPublicar = false;
+                        alPublicar.run();
+                    }
+                    while (!detenido && !corriendo && pasosPendientes == 0) {
+                        cerrojo.wait();
+                        proximo = System.nanoTime();
+                    }
+                    if (detenido) return;
+                    suelto = !corriendo;
+                    if (suelto) pasosPendientes--;
+                    v = velocidad;
+                }
+
+                simulador.tick();
+
+                long ahora = System.nanoTime();
+                if (suelto || v != VELOCIDAD_MAXIMA || ahora - ultimaVista >= NANOS_ENTRE_VISTAS) {
+                    vista = VistaSimulacion.tomar(simulador);
+                    ultimaVista = ahora;
+                    sinPublicar = false;
+                    alPublicar.run();
+                } else {
+                    sinPublicar = true;
+                }
+
+                if (!suelto && v != VELOCIDAD_MAXIMA) {
+                    // Ritmo parejo; si un tick tarda más que el periodo no se acumula atraso
+                    proximo = Math.max(proximo + (long) (NANOS_POR_TICK / v), System.nanoTime());
+                    synchronized (cerrojo) {
+                        long espera;
+                        while (!detenido && corriendo && velocidad == v
+                                && (espera = proximo - System.nanoTime()) > 0) {
+                            cerrojo.wait(espera / 1_000_000, (int) (espera % 1_000_000));
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
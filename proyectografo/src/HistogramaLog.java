@@ -0,0 +1,162 @@
+package src;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Histograma de memoria fija con buckets logarítmicos, para tiempos en
+ * minutos.
+ *
+ * Los valores 0..15 tienen un bucket propio; desde ahí cada potencia de dos
+ * se divide en 8 buckets, así que un percentil se informa con un error
+ * relativo de a lo sumo 12,5 %. El máximo, la cantidad y el promedio son
+ * exactos. Dos histogramas se pueden combinar sumando sus buckets; las
+ * cuentas son long para que los totales de toda la red en corridas de
+ * varios días no desborden.
+ *
+ * Cada histograma ocupa unos 1,9 KB (232 buckets de 8 bytes).
+ */
+public class HistogramaLog {
+
+    private static final int EXACTOS = 16;
+    private static final int SUBDIVISIONES = 8;
+    private static final long LIMITE = Integer.MAX_VALUE;   // valores mayores se acotan
+    private static final int NUM_BUCKETS = indiceBucket(LIMITE) + 1;
+
+    private final long[] cuentas;
+    private long cantidad;
+    private long suma;
+    private long maximo;
+
+    public HistogramaLog() {
+        this.cuentas = new long[NUM_BUCKETS];
+    }
+
+    /**
+     * Copia independiente de otro histograma.
+     */
+    public HistogramaLog(HistogramaLog otro) {
+        this.cuentas = otro.cuentas.clone();
+        this.cantidad = otro.cantidad;
+        this.suma = otro.suma;
+        this.maximo = otro.maximo;
+    }
+
+    private static int indiceBucket(long valor) {
+        if (valor < EXACTOS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);    // >= 4
+        int sub = (int) (valor >> (exponente - 3)) & (SUBDIVISIONES - 1);
+        return EXACTOS + (exponente - 4) * SUBDIVISIONES + sub;
+    }
+
+    /**
+     * Mayor valor que cae en el bucket.
+     */
+    private static long techoBucket(int indice) {
+        if (indice < EXACTOS) {
+            return indice;
+        }
+        int exponente = (indice - EXACTOS) / SUBDIVISIONES + 4;
+        int sub = (indice - EXACTOS) % SUBDIVISIONES;
+        long ancho = 1L << (exponente - 3);
+        return (SUBDIVISIONES + sub) * ancho + ancho - 1;
+    }
+
+    // ================= REGISTRO =================
+
+    /**
+     * Registra un valor (los negativos cuentan como 0).
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, Math.min(valor, LIMITE));
+        cuentas[indiceBucket(v)]++;
+        cantidad++;
+        suma += v;
+        if (v > maximo) maximo = v;
+    }
+
+    /**
+     * Suma los valores de otro histograma a este.
+     */
+    public void combinar(HistogramaLog otro) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cuentas[i] += otro.cuentas[i];
+        }
+        cantidad += otro.cantidad;
+        suma += otro.suma;
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    public void limpiar() {
+        Arrays.fill(cuentas, 0);
+        cantidad = 0;
+        suma = 0;
+        maximo = 0;
+    }
+
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        archivo.putLong(cantidad);
+        archivo.putLong(suma);
+        archivo.putLong(maximo);
+        archivo.putLongs(cuentas, 0, NUM_BUCKETS);
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        cantidad = archivo.getLong();
+        suma = archivo.getLong();
+        maximo = archivo.getLong();
+        archivo.getLongs(cuentas, 0, NUM_BUCKETS);
+    }
+
+    // ================= CONSULTAS =================
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public long getMaximo() {
+        return maximo;
+    }
+
+    public double getPromedio() {
+        return cantidad == 0 ? 0.0 : (double) suma / cantidad;
+    }
+
+    /**
+     * Valor bajo el cual queda la fracción p (0..1) de las observaciones,
+     * redondeado al techo de su bucket y nunca mayor que el máximo.
+     * Retorna 0 si el histograma está vacío.
+     */
+    public long percentil(double p) {
+        if (cantidad == 0) return 0;
+        long rango = Math.max(1, (long) Math.ceil(p * cantidad));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= rango) {
+                return Math.min(techoBucket(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    public long getP50() {
+        return percentil(0.50);
+    }
+
+    public long getP90() {
+        return percentil(0.90);
+    }
+
+    public long getP99() {
+        return percentil(0.99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d prom=%.1f p50=%d p90=%d p99=%d max=%d",
+                cantidad, getPromedio(), getP50(), getP90(), getP99(), maximo);
+    }
+}
@@ -0,0 +1,708 @@
+package src;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Jerarquía de contracción (Contraction Hierarchies) sobre un Grafo.
+ *
+ * El preproceso contrae las paradas de menor a mayor importancia: al sacar
+ * una parada v se agrega un atajo u → w por cada camino u → v → w que no
+ * tenga un camino alternativo igual de corto (un "testigo"). Las consultas
+ * hacen luego una búsqueda bidireccional que solo sube de nivel, y los
+ * atajos del resultado se desempaquetan hasta los arcos originales.
+ *
+ * El preproceso trabaja por rondas: en cada una se elige un conjunto
+ * independiente de paradas (ningún par es vecino) y se calculan sus atajos
+ * en paralelo usando todos los núcleos.
+ *
+ * La jerarquía queda fija: si el grafo cambia hay que construir otra.
+ */
+public class JerarquiaContraccion {
+
+    // Paradas asentadas por búsqueda de testigo: menos al estimar prioridades,
+    // más al contraer de verdad (un testigo no encontrado solo agrega un atajo de más)
+    private static final int LIMITE_TESTIGO_PRIORIDAD = 50;
+    private static final int LIMITE_TESTIGO = 500;
+
+    private static final byte ACTIVO = 0;
+    private static final byte CONTRAYENDO = 1;
+    private static final byte CONTRAIDO = 2;
+
+    private final Grafo grafo;
+    private final long versionGrafo;
+    private final int n;
+
+    // Arcos originales y atajos: el arco e va de origen[e] a destino[e]
+    private int[] origen;
+    private int[] destino;
+    private int[] peso;
+    private int[] hijoA;      // atajo = hijoA seguido de hijoB (-1 si es un arco original)
+    private int[] hijoB;
+    private int numAristas;
+    private int numAtajos;
+
+    private int[] rango;      // orden de contracción
+
+    // Grafo dinámico durante la contracción (ids de arista por parada activa)
+    private ListaInt[] salientes;
+    private ListaInt[] entrantes;
+    private byte[] estado;
+    private int[] prioridad;
+    private int[] vecinosContraidos;
+    private int[] nivel;
+
+    // Grafos de búsqueda hacia arriba (CSR con ids de arista)
+    private int[] subeOff, subeDst, subeArista;     // u → v con rango[v] > rango[u]
+    private int[] bajaOff, bajaOrg, bajaArista;     // u ← v con rango[v] > rango[u]
+
+    private final long tiempoPreprocesoNs;
+
+    private final ThreadLocal<Busqueda> busquedas;
+
+    /**
+     * Preprocesa el grafo completo. Puede tardar; las consultas quedan
+     * disponibles al terminar el constructor.
+     */
+    public JerarquiaContraccion(Grafo grafo) {
+        long inicio = System.nanoTime();
+        this.grafo = grafo;
+        this.versionGrafo = grafo.getVersion();
+        this.n = grafo.getNumParaderos();
+
+        cargarArcos();
+        contraer();
+        construirGrafosBusqueda();
+
+        this.tiempoPreprocesoNs = System.nanoTime() - inicio;
+        this.busquedas = ThreadLocal.withInitial(() -> new Busqueda(n));
+    }
+
+    // ================= PREPROCESO =================
+
+    private void cargarArcos() {
+        int[] off = grafo.offsets();
+        int[] dst = grafo.destinos();
+        int[] tie = grafo.tiempos();
+
+        int capacidad = Math.max(16, dst.length * 2);
+        origen = new int[capacidad];
+        destino = new int[capacidad];
+        peso = new int[capacidad];
+        hijoA = new int[capacidad];
+        hijoB = new int[capacidad];
+        numAristas = 0;
+        numAtajos = 0;
+
+        salientes = new ListaInt[n];
+        entrantes = new ListaInt[n];
+        for (int v = 0; v < n; v++) {
+            salientes[v] = new ListaInt();
+            entrantes[v] = new ListaInt();
+        }
+
+        // Un solo arco por par (el más corto); se ignoran los lazos
+        for (int u = 0; u < n; u++) {
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                if (dst[e] != u) {
+                    agregarArista(u, dst[e], tie[e], -1, -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrega la arista u → w, o reemplaza la existente si la nueva es más corta.
+     */
+    private void agregarArista(int u, int w, int p, int a, int b) {
+        ListaInt sal = salientes[u];
+        for (int i = 0; i < sal.n; i++) {
+            int e = sal.a[i];
+            if (destino[e] == w) {
+                if (peso[e] <= p) return;
+                int nueva = nuevaArista(u, w, p, a, b);
+                sal.a[i] = nueva;
+                entrantes[w].reemplazar(e, nueva);
+                return;
+            }
+        }
+        int nueva = nuevaArista(u, w, p, a, b);
+        sal.agregar(nueva);
+        entrantes[w].agregar(nueva);
+    }
+
+    private int nuevaArista(int u, int w, int p, int a, int b) {
+        if (numAristas == origen.length) {
+            int cap = numAristas * 2;
+            origen = Arrays.copyOf(origen, cap);
+            destino = Arrays.copyOf(destino, cap);
+            peso = Arrays.copyOf(peso, cap);
+            hijoA = Arrays.copyOf(hijoA, cap);
+            hijoB = Arrays.copyOf(hijoB, cap);
+        }
+        origen[numAristas] = u;
+        destino[numAristas] = w;
+        peso[numAristas] = p;
+        hijoA[numAristas] = a;
+        hijoB[numAristas] = b;
+        if (a != -1) numAtajos++;
+        return numAristas++;
+    }
+
+    private void contraer() {
+        estado = new byte[n];
+        prioridad = new int[n];
+        vecinosContraidos = new int[n];
+        nivel = new int[n];
+        rango = new int[n];
+        ThreadLocal<Testigo> testigos = ThreadLocal.withInitial(() -> new Testigo(n));
+
+        IntStream.range(0, n).parallel()
+                .forEach(v -> prioridad[v] = calcularPrioridad(v, testigos.get()));
+
+        int siguienteRango = 0;
+        while (siguienteRango < n) {
+            // 1. Conjunto independiente: mínimos locales de prioridad
+            int[] ronda = IntStream.range(0, n).parallel()
+                    .filter(this::esMinimoLocal)
+                    .toArray();
+            for (int v : ronda) {
+                estado[v] = CONTRAYENDO;
+            }
+
+            // 2. Atajos de cada parada, en paralelo (el grafo solo se lee)
+            int[][][] atajos = new int[ronda.length][][];
+            IntStream.range(0, ronda.length).parallel()
+                    .forEach(i -> atajos[i] = atajosDe(ronda[i], LIMITE_TESTIGO, testigos.get()));
+
+            // 3. Aplicar la ronda en orden
+            Set<Integer> afectados = new HashSet<>();
+            for (int i = 0; i < ronda.length; i++) {
+                int v = ronda[i];
+                for (int[] s : atajos[i]) {
+                    agregarArista(s[0], s[1], s[2], s[3], s[4]);
+                }
+                ListaInt ent = entrantes[v];
+                for (int j = 0; j < ent.n; j++) {
+                    int u = origen[ent.a[j]];
+                    salientes[u].quitar(ent.a[j]);
+                    vecinosContraidos[u]++;
+                    nivel[u] = Math.max(nivel[u], nivel[v] + 1);
+                    afectados.add(u);
+                }
+                ListaInt sal = salientes[v];
+                for (int j = 0; j < sal.n; j++) {
+                    int w = destino[sal.a[j]];
+                    entrantes[w].quitar(sal.a[j]);
+                    vecinosContraidos[w]++;
+                    nivel[w] = Math.max(nivel[w], nivel[v] + 1);
+                    afectados.add(w);
+                }
+                estado[v] = CONTRAIDO;
+                rango[v] = siguienteRango++;
+            }
+
+            // 4. Actualizar prioridades de los vecinos
+            afectados.parallelStream()
+                    .filter(v -> estado[v] == ACTIVO)
+                    .forEach(v -> prioridad[v] = calcularPrioridad(v, testigos.get()));
+        }
+        salientes = null;
+        entrantes = null;
+    }
+
+    /**
+     * v entra en la ronda si tiene la menor prioridad entre las paradas a
+     * uno y dos saltos. Así las búsquedas de testigo rara vez se topan con
+     * otra parada de la misma ronda.
+     */
+    private boolean esMinimoLocal(int v) {
+        if (estado[v] != ACTIVO) return false;
+        for (int i = 0; i < salientes[v].n + entrantes[v].n; i++) {
+            int x = vecino(v, i);
+            if (antes(x, v)) return false;
+            for (int j = 0; j < salientes[x].n + entrantes[x].n; j++) {
+                int y = vecino(x, j);
+                if (y != v && antes(y, v)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * i-ésimo vecino de v (primero los salientes, luego los entrantes).
+     */
+    private int vecino(int v, int i) {
+        ListaInt sal = salientes[v];
+        return i < sal.n ? destino[sal.a[i]] : origen[entrantes[v].a[i - sal.n]];
+    }
+
+    private boolean antes(int x, int v) {
+        return prioridad[x] < prioridad[v] || (prioridad[x] == prioridad[v] && x < v);
+    }
+
+    /**
+     * Prioridad = atajos necesarios - aristas eliminadas + vecinos ya contraídos.
+     */
+    private int calcularPrioridad(int v, Testigo testigo) {
+        int atajos = atajosDe(v, LIMITE_TESTIGO_PRIORIDAD, testigo).length;
+        return 2 * (atajos - salientes[v].n - entrantes[v].n) + vecinosContraidos[v] + nivel[v];
+    }
+
+    /**
+     * Atajos {u, w, peso, aristaUV, aristaVW} necesarios al contraer v.
+     * Las búsquedas de testigo evitan las paradas que se contraen en esta ronda.
+     */
+    private int[][] atajosDe(int v, int limite, Testigo testigo) {
+        ListaInt ent = entrantes[v];
+        ListaInt sal = salientes[v];
+        List<int[]> atajos = new ArrayList<>();
+
+        for (int i = 0; i < ent.n; i++) {
+            int eUV = ent.a[i];
+            int u = origen[eUV];
+            if (estado[u] != ACTIVO) continue;
+
+            int maximo = -1;
+            for (int j = 0; j < sal.n; j++) {
+                int w = destino[sal.a[j]];
+                if (w != u && estado[w] == ACTIVO) {
+                    maximo = Math.max(maximo, peso[eUV] + peso[sal.a[j]]);
+                }
+            }
+            if (maximo < 0) continue;
+
+            testigo.buscar(u, v, maximo, limite);
+            for (int j = 0; j < sal.n; j++) {
+                int eVW = sal.a[j];
+                int w = destino[eVW];
+                if (w == u || estado[w] != ACTIVO) continue;
+                int porV = peso[eUV] + peso[eVW];
+                if (testigo.distancia(w) > porV) {
+                    atajos.add(new int[]{u, w, porV, eUV, eVW});
+                }
+            }
+        }
+        return atajos.toArray(new int[0][]);
+    }
+
+    private void construirGrafosBusqueda() {
+        subeOff = new int[n + 1];
+        bajaOff = new int[n + 1];
+        for (int e = 0; e < numAristas; e++) {
+            if (rango[origen[e]] < rango[destino[e]]) subeOff[origen[e] + 1]++;
+            else bajaOff[destino[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            subeOff[v + 1] += subeOff[v];
+            bajaOff[v + 1] += bajaOff[v];
+        }
+        subeDst = new int[subeOff[n]];
+        subeArista = new int[subeOff[n]];
+        bajaOrg = new int[bajaOff[n]];
+        bajaArista = new int[bajaOff[n]];
+        int[] posSube = Arrays.copyOf(subeOff, n);
+        int[] posBaja = Arrays.copyOf(bajaOff, n);
+        for (int e = 0; e < numAristas; e++) {
+            if (rango[origen[e]] < rango[destino[e]]) {
+                int i = posSube[origen[e]]++;
+                subeDst[i] = destino[e];
+                subeArista[i] = e;
+            } else {
+                int i = posBaja[destino[e]]++;
+                bajaOrg[i] = origen[e];
+                bajaArista[i] = e;
+            }
+        }
+    }
+
+    // ================= CONSULTAS =================
+
+    /**
+     * Camino más corto entre dos paradas, con el mismo formato que
+     * Grafo.dijkstra (si no hay camino, solo contiene al destino).
+     */
+    public List<Nodo> dijkstra(Nodo desde, Nodo hasta) {
+        verificarVigente();
+        Busqueda b = busquedas.get();
+        int encuentro = b.buscar(desde.getIndice(), hasta.getIndice());
+        List<Nodo> camino = new ArrayList<>();
+        if (encuentro == -1) {
+            camino.add(hasta);
+            return camino;
+        }
+
+        // Aristas del tramo de subida (desde el origen) y de bajada (hasta el destino)
+        Deque<Integer> aristas = new ArrayDeque<>();
+        for (int v = encuentro; b.aristaAdelante[v] != -1; v = origen[b.aristaAdelante[v]]) {
+            aristas.addFirst(b.aristaAdelante[v]);
+        }
+        for (int v = encuentro; b.aristaAtras[v] != -1; v = destino[b.aristaAtras[v]]) {
+            aristas.addLast(b.aristaAtras[v]);
+        }
+
+        camino.add(desde);
+        Deque<Integer> pila = new ArrayDeque<>();
+        for (int e : aristas) {
+            pila.push(e);
+            while (!pila.isEmpty()) {
+                int x = pila.pop();
+                if (hijoA[x] == -1) {
+                    camino.add(grafo.getNodo(destino[x]));
+                } else {
+                    pila.push(hijoB[x]);
+                    pila.push(hijoA[x]);
+                }
+            }
+        }
+        return camino;
+    }
+
+    /**
+     * Tiempo mínimo en minutos entre dos paradas, o Grafo.INFINITO.
+     */
+    public int distancia(Nodo desde, Nodo hasta) {
+        verificarVigente();
+        Busqueda b = busquedas.get();
+        int encuentro = b.buscar(desde.getIndice(), hasta.getIndice());
+        return encuentro == -1 ? Grafo.INFINITO : b.mejor;
+    }
+
+    /**
+     * Matriz de tiempos muchos-a-muchos con buckets: una búsqueda hacia
+     * arriba por destino llena los buckets de las paradas que toca, y una
+     * búsqueda hacia arriba por origen combina sus distancias con esos
+     * buckets. Ambas fases corren en paralelo.
+     *
+     * @return matriz plana fila-mayor: tiempo(origen i, destino j) en i * destinos.length + j
+     */
+    int[] matriz(int[] origenes, int[] destinos) {
+        verificarVigente();
+        int filas = origenes.length;
+        int columnas = destinos.length;
+        int celdas = MatrizTiempos.celdas(filas, columnas);
+
+        // 1. Búsquedas hacia atrás: (parada, distancia) por destino
+        int[][] paradasPorDestino = new int[columnas][];
+        int[][] distPorDestino = new int[columnas][];
+        IntStream.range(0, columnas).parallel().forEach(j -> {
+            Busqueda b = busquedas.get();
+            int[] visitados = b.visitados();
+            int cantidad = b.subir(destinos[j], false, visitados);
+            paradasPorDestino[j] = Arrays.copyOf(visitados, cantidad);
+            int[] d = new int[cantidad];
+            for (int k = 0; k < cantidad; k++) {
+                d[k] = b.distAtras[visitados[k]];
+            }
+            distPorDestino[j] = d;
+        });
+
+        // 2. Buckets en formato CSR por parada
+        int[] bucketOff = new int[n + 1];
+        for (int[] paradas : paradasPorDestino) {
+            for (int v : paradas) bucketOff[v + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            bucketOff[v + 1] += bucketOff[v];
+        }
+        int[] bucketDestino = new int[bucketOff[n]];
+        int[] bucketDist = new int[bucketOff[n]];
+        int[] pos = Arrays.copyOf(bucketOff, n);
+        for (int j = 0; j < columnas; j++) {
+            int[] paradas = paradasPorDestino[j];
+            for (int k = 0; k < paradas.length; k++) {
+                int i = pos[paradas[k]]++;
+                bucketDestino[i] = j;
+                bucketDist[i] = distPorDestino[j][k];
+            }
+        }
+
+        // 3. Búsquedas hacia adelante: cada origen escribe solo su fila
+        int[] resultado = new int[celdas];
+        Arrays.fill(resultado, Grafo.INFINITO);
+        IntStream.range(0, filas).parallel().forEach(i -> {
+            Busqueda b = busquedas.get();
+            int[] visitados = b.visitados();
+            int cantidad = b.subir(origenes[i], true, visitados);
+            int fila = i * columnas;
+            for (int k = 0; k < cantidad; k++) {
+                int v = visitados[k];
+                int dv = b.distAdelante[v];
+                for (int e = bucketOff[v]; e < bucketOff[v + 1]; e++) {
+                    int total = dv + bucketDist[e];
+                    int celda = fila + bucketDestino[e];
+                    if (total < resultado[celda]) resultado[celda] = total;
+                }
+            }
+        });
+        return resultado;
+    }
+
+    private void verificarVigente() {
+        if (grafo.getVersion() != versionGrafo) {
+            throw new IllegalStateException("El grafo cambió después del preproceso");
+        }
+    }
+
+    // ================= MÉTRICAS =================
+
+    public long getTiempoPreprocesoMs() {
+        return tiempoPreprocesoNs / 1_000_000;
+    }
+
+    public int getNumAtajos() {
+        return numAtajos;
+    }
+
+    /**
+     * Compara la latencia de consultas aleatorias contra Grafo.dijkstra
+     * y retorna un resumen legible.
+     */
+    public String compararConDijkstra(int consultas, long semilla) {
+        Random random = new Random(semilla);
+        List<Nodo> paradas = grafo.getParaderos();
+        Nodo[][] pares = new Nodo[consultas][2];
+        for (int i = 0; i < consultas; i++) {
+            pares[i][0] = paradas.get(random.nextInt(n));
+            pares[i][1] = paradas.get(random.nextInt(n));
+        }
+
+        long t0 = System.nanoTime();
+        for (Nodo[] par : pares) {
+            grafo.dijkstra(par[0], par[1]);
+        }
+        long tDijkstra = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (Nodo[] par : pares) {
+            dijkstra(par[0], par[1]);
+        }
+        long tJerarquia = System.nanoTime() - t0;
+
+        return String.format(
+                "Preproceso: %d ms, %d atajos%n"
+                        + "Grafo.dijkstra: %.3f ms/consulta%n"
+                        + "Jerarquía:      %.3f ms/consulta (%.1fx)",
+                getTiempoPreprocesoMs(), numAtajos,
+                tDijkstra / 1e6 / consultas,
+                tJerarquia / 1e6 / consultas,
+                (double) tDijkstra / Math.max(1, tJerarquia));
+    }
+
+    // ================= AUXILIARES =================
+
+    /**
+     * Lista creciente de enteros (ids de arista).
+     */
+    private static class ListaInt {
+        int[] a = new int[4];
+        int n;
+
+        void agregar(int x) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = x;
+        }
+
+        void quitar(int x) {
+            for (int i = 0; i < n; i++) {
+                if (a[i] == x) {
+                    a[i] = a[--n];
+                    return;
+                }
+            }
+        }
+
+        void reemplazar(int viejo, int nuevo) {
+            for (int i = 0; i < n; i++) {
+                if (a[i] == viejo) {
+                    a[i] = nuevo;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Búsqueda de testigo local (una por hilo durante el preproceso).
+     */
+    private class Testigo {
+        final int[] dist;
+        final int[] marca;
+        final HeapIndexado cola;
+        int ronda;
+
+        Testigo(int n) {
+            dist = new int[n];
+            marca = new int[n];
+            cola = new HeapIndexado(n);
+        }
+
+        int distancia(int v) {
+            return marca[v] == ronda ? dist[v] : Grafo.INFINITO;
+        }
+
+        /**
+         * Dijkstra desde u sin pasar por v ni por paradas no activas,
+         * hasta superar la distancia máxima o el límite de asentados.
+         */
+        void buscar(int u, int v, int maximo, int limite) {
+            ronda++;
+            marca[u] = ronda;
+            dist[u] = 0;
+            cola.limpiar();
+            cola.insertarOReducir(u, 0);
+            int asentados = 0;
+
+            while (!cola.estaVacio() && asentados < limite) {
+                if (cola.claveMinima() > maximo) break;
+                int x = cola.extraerMinimo();
+                asentados++;
+
+                ListaInt sal = salientes[x];
+                for (int i = 0; i < sal.n; i++) {
+                    int e = sal.a[i];
+                    int y = destino[e];
+                    if (y == v || estado[y] != ACTIVO) continue;
+                    int nd = dist[x] + peso[e];
+                    if (nd < distancia(y)) {
+                        marca[y] = ronda;
+                        dist[y] = nd;
+                        cola.insertarOReducir(y, nd);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Búsqueda bidireccional hacia arriba (una por hilo de consulta).
+     */
+    private class Busqueda {
+        final int[] distAdelante;
+        final int[] distAtras;
+        final int[] aristaAdelante;
+        final int[] aristaAtras;
+        final int[] marca;
+        final HeapIndexado colaAdelante;
+        final HeapIndexado colaAtras;
+        int[] visitados;
+        int consulta;
+        int mejor;
+
+        Busqueda(int n) {
+            distAdelante = new int[n];
+            distAtras = new int[n];
+            aristaAdelante = new int[n];
+            aristaAtras = new int[n];
+            marca = new int[n];
+            colaAdelante = new HeapIndexado(n);
+            colaAtras = new HeapIndexado(n);
+        }
+
+        int[] visitados() {
+            if (visitados == null) visitados = new int[distAdelante.length];
+            return visitados;
+        }
+
+        private void tocar(int v) {
+            if (marca[v] != consulta) {
+                marca[v] = consulta;
+                distAdelante[v] = Grafo.INFINITO;
+                distAtras[v] = Grafo.INFINITO;
+                aristaAdelante[v] = -1;
+                aristaAtras[v] = -1;
+            }
+        }
+
+        /**
+         * Retorna la parada de encuentro o -1 si no hay camino.
+         */
+        int buscar(int s, int t) {
+            consulta++;
+            mejor = Grafo.INFINITO;
+            int encuentro = -1;
+            tocar(s);
+            tocar(t);
+            distAdelante[s] = 0;
+            distAtras[t] = 0;
+
+            colaAdelante.limpiar();
+            colaAtras.limpiar();
+            colaAdelante.insertarOReducir(s, 0);
+            colaAtras.insertarOReducir(t, 0);
+
+            while (!colaAdelante.estaVacio() || !colaAtras.estaVacio()) {
+                // Cada lado se detiene cuando su mínimo ya no puede mejorar el resultado
+                if (!colaAdelante.estaVacio() && colaAdelante.claveMinima() >= mejor) colaAdelante.limpiar();
+                if (!colaAtras.estaVacio() && colaAtras.claveMinima() >= mejor) colaAtras.limpiar();
+
+                boolean adelante;
+                if (colaAdelante.estaVacio() && colaAtras.estaVacio()) break;
+                else if (colaAdelante.estaVacio()) adelante = false;
+                else if (colaAtras.estaVacio()) adelante = true;
+                else adelante = colaAdelante.claveMinima() <= colaAtras.claveMinima();
+
+                HeapIndexado cola = adelante ? colaAdelante : colaAtras;
+                int[] dist = adelante ? distAdelante : distAtras;
+                int[] otra = adelante ? distAtras : distAdelante;
+                int[] arista = adelante ? aristaAdelante : aristaAtras;
+                int[] off = adelante ? subeOff : bajaOff;
+                int[] vec = adelante ? subeDst : bajaOrg;
+                int[] ids = adelante ? subeArista : bajaArista;
+
+                int u = cola.extraerMinimo();
+
+                if (otra[u] != Grafo.INFINITO && dist[u] + otra[u] < mejor) {
+                    mejor = dist[u] + otra[u];
+                    encuentro = u;
+                }
+
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    int v = vec[i];
+                    tocar(v);
+                    int nd = dist[u] + peso[ids[i]];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        arista[v] = ids[i];
+                        cola.insertarOReducir(v, nd);
+                    }
+                }
+            }
+            return encuentro;
+        }
+
+        /**
+         * Búsqueda completa hacia arriba desde origen, en un solo sentido.
+         * Deja en visitados las paradas alcanzadas y retorna cuántas son;
+         * sus distancias quedan en distAdelante o distAtras según el sentido.
+         */
+        int subir(int origen, boolean adelante, int[] visitados) {
+            consulta++;
+            tocar(origen);
+            int[] dist = adelante ? distAdelante : distAtras;
+            int[] off = adelante ? subeOff : bajaOff;
+            int[] vec = adelante ? subeDst : bajaOrg;
+            int[] ids = adelante ? subeArista : bajaArista;
+            HeapIndexado cola = colaAdelante;
+            cola.limpiar();
+            dist[origen] = 0;
+            cola.insertarOReducir(origen, 0);
+
+            int cantidad = 0;
+            while (!cola.estaVacio()) {
+                int u = cola.extraerMinimo();
+                visitados[cantidad++] = u;
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    int v = vec[i];
+                    tocar(v);
+                    int nd = dist[u] + peso[ids[i]];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        cola.insertarOReducir(v, nd);
+                    }
+                }
+            }
+            return cantidad;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lector de CSV por filas que trabaja directo sobre bytes.
+ *
+ * Cada fila se copia (ya sin comillas) a un único arreglo reutilizable y
+ * sus campos quedan como rangos [inicio, fin) dentro de él, así que leer un
+ * archivo de millones de filas no crea un String por campo. Los números se
+ * convierten sin pasar por String; texto() crea uno solo cuando se pide.
+ *
+ * La primera fila es la cabecera (como en GTFS); se ignora el BOM UTF-8.
+ */
+final class LectorCsv implements Closeable {
+
+    private final Path archivo;
+    private final InputStream entrada;
+    private final byte[] buffer = new byte[1 << 16];
+    private int lleno;
+    private int pos;
+
+    private byte[] fila = new byte[256];
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private int numCampos;
+    private long linea;
+
+    private final String[] cabecera;
+
+    LectorCsv(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.entrada = Files.newInputStream(archivo);
+        if (!siguiente()) {
+            entrada.close();
+            throw new IOException(archivo + " está vacío");
+        }
+        if (numCampos > 0 && fines[0] - inicios[0] >= 3
+                && fila[0] == (byte) 0xEF && fila[1] == (byte) 0xBB && fila[2] == (byte) 0xBF) {
+            inicios[0] = 3;
+        }
+        this.cabecera = new String[numCampos];
+        for (int c = 0; c < numCampos; c++) {
+            cabecera[c] = texto(c).trim();
+        }
+    }
+
+    // ================= CABECERA =================
+
+    /**
+     * Posición de la columna con ese nombre, o -1 si el archivo no la tiene.
+     */
+    int columna(String nombre) {
+        for (int c = 0; c < cabecera.length; c++) {
+            if (cabecera[c].equals(nombre)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    int columnaObligatoria(String nombre) throws IOException {
+        int c = columna(nombre);
+        if (c < 0) {
+            throw new IOException(archivo + " no tiene la columna " + nombre);
+        }
+        return c;
+    }
+
+    // ================= FILAS =================
+
+    /**
+     * Avanza a la siguiente fila no vacía. Retorna false al final del archivo.
+     */
+    boolean siguiente() throws IOException {
+        while (true) {
+            int b = leerByte();
+            if (b < 0) return false;
+            if (b == '\r') continue;
+            linea++;
+            if (b == '\n') continue;
+            leerFila(b);
+            return true;
+        }
+    }
+
+    /**
+     * Copia la fila que empieza con el byte b, resolviendo comillas
+     * ("" dentro de un campo entre comillas es una comilla).
+     */
+    private void leerFila(int b) throws IOException {
+        int largo = 0;
+        numCampos = 0;
+        int inicio = 0;
+        boolean entreComillas = false;
+        while (b >= 0) {
+            if (entreComillas) {
+                if (b == '"') {
+                    int c = leerByte();
+                    if (c == '"') {
+                        fila = asegurarFila(largo);
+                        fila[largo++] = '"';
+                    } else {
+                        entreComillas = false;
+                        b = c;
+                        continue;
+                    }
+                } else {
+                    fila = asegurarFila(largo);
+                    fila[largo++] = (byte) b;
+                }
+            } else if (b == '"') {
+                entreComillas = true;
+            } else if (b == ',' || b == '\n') {
+                agregarCampo(inicio, largo);
+                inicio = largo;
+                if (b == '\n') return;
+            } else if (b != '\r') {
+                fila = asegurarFila(largo);
+                fila[largo++] = (byte) b;
+            }
+            b = leerByte();
+        }
+        agregarCampo(inicio, largo);
+    }
+
+    private byte[] asegurarFila(int largo) {
+        return largo < fila.length ? fila : Arrays.copyOf(fila, fila.length * 2);
+    }
+
+    private void agregarCampo(int inicio, int fin) {
+        if (numCampos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, numCampos * 2);
+            fines = Arrays.copyOf(fines, numCampos * 2);
+        }
+        inicios[numCampos] = inicio;
+        fines[numCampos] = fin;
+        numCampos++;
+    }
+
+    private int leerByte() throws IOException {
+        if (pos == lleno) {
+            lleno = entrada.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (lleno <= 0) {
+                lleno = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    // ================= CAMPOS =================
+
+    /**
+     * Número de la fila actual en el archivo (para mensajes de error).
+     */
+    long getLinea() {
+        return linea;
+    }
+
+    /**
+     * Indica si el campo falta o está en blanco.
+     */
+    boolean vacio(int c) {
+        if (c < 0 || c >= numCampos) return true;
+        for (int i = inicios[c]; i < fines[c]; i++) {
+            if (fila[i] != ' ') return false;
+        }
+        return true;
+    }
+
+    String texto(int c) {
+        if (c < 0 || c >= numCampos) return "";
+        return new String(fila, inicios[c], fines[c] - inicios[c], StandardCharsets.UTF_8);
+    }
+
+    int entero(int c) throws IOException {
+        long valor = 0;
+        boolean negativo = false;
+        boolean digitos = false;
+        int fin = c < numCampos ? fines[c] : 0;
+        for (int i = c < numCampos ? inicios[c] : 0; i < fin; i++) {
+            byte b = fila[i];
+            if (b >= '0' && b <= '9') {
+                valor = valor * 10 + (b - '0');
+                digitos = true;
+                if (valor > Integer.MAX_VALUE + 1L) break;
+            } else if (b == '-' && !digitos && !negativo) {
+                negativo = true;
+            } else if (b != ' ') {
+                throw error(c, "no es un entero");
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (!digitos || valor > Integer.MAX_VALUE || valor < Integer.MIN_VALUE) {
+            throw error(c, "no es un entero");
+        }
+        return (int) valor;
+    }
+
+    double decimal(int c) throws IOException {
+        try {
+            return Double.parseDouble(texto(c).trim());
+        } catch (NumberFormatException e) {
+            throw error(c, "no es un número");
+        }
+    }
+
+    /**
+     * Segundos desde el inicio del día de un campo H:MM:SS (en GTFS la hora
+     * puede pasar de 24 para viajes que cruzan la medianoche).
+     */
+    int segundos(int c) throws IOException {
+        int total = 0;
+        int parte = 0;
+        int partes = 0;
+        boolean digitos = false;
+        for (int i = inicios[c]; i < fines[c]; i++) {
+            byte b = fila[i];
+            if (b >= '0' && b <= '9') {
+                parte = parte * 10 + (b - '0');
+                digitos = true;
+            } else if (b == ':' && digitos) {
+                total = total * 60 + parte;
+                parte = 0;
+                partes++;
+                digitos = false;
+            } else if (b != ' ') {
+                throw error(c, "no es una hora H:MM:SS");
+            }
+        }
+        if (partes != 2 || !digitos) {
+            throw error(c, "no es una hora H:MM:SS");
+        }
+        return total * 60 + parte;
+    }
+
+    // Acceso a los bytes crudos del campo, para TablaIds
+
+    byte[] bytes() {
+        return fila;
+    }
+
+    int inicio(int c) {
+        return inicios[c];
+    }
+
+    int largo(int c) {
+        return c < numCampos ? fines[c] - inicios[c] : 0;
+    }
+
+    IOException error(int c, String problema) {
+        return new IOException(archivo + ", línea " + linea + ": el campo " + cabecera[c]
+                + " (\"" + texto(c) + "\") " + problema);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+}
@@ -51,24 +51,26 @@ public class Maintest {
         Simulador simulador = new Simulador(grafo);
 
         // 6. Crear y agregar buses
-        Bus bus1 = new Bus(1, 40, rutaIda, rutaVuelta);
-        Bus bus2 = new Bus(2, 40, rutaIda, rutaVuelta);
+        Ruta linea = new Ruta(grafo, rutaIda, rutaVuelta);
+        Bus bus1 = new Bus(1, 40, linea);
+        Bus bus2 = new Bus(2, 40, linea);
 
         simulador.agregarBus(bus1);
         simulador.agregarBus(bus2);
 
         // 7. Agregar pasajeros iniciales en algunas paradas
         System.out.println("Agregando pasajeros iniciales...");
-        parada1.agregarPasajero(new Pasajero(101, "Terminal", System.currentTimeMillis()));
-        parada1.agregarPasajero(new Pasajero(102, "Hospital", System.currentTimeMillis()));
-        parada2.agregarPasajero(new Pasajero(103, "Universidad", System.currentTimeMillis()));
-        parada3.agregarPasajero(new Pasajero(104, "Centro", System.currentTimeMillis()));
+        simulador.agregarPasajero(parada1, parada2);
+        simulador.agregarPasajero(parada1, parada3);
+        simulador.agregarPasajero(parada2, parada4);
+        simulador.agregarPasajero(parada3, parada1);
 
         // 8. Ejecutar la simulación
         System.out.println("Iniciando simulación...\n");
         for (int i = 0; i < 50; i++) {
             simulador.tick();
         }
+        System.out.println("Esperas en parada (min): " + simulador.getEsperasTotales());
 
         // 9. Prueba de Dijkstra
         System.out.println("\n=== Prueba sistema DIJKSTRA ===");
@@ -79,5 +81,10 @@ public class Maintest {
             if (i < ruta.size() - 1) System.out.print(" -> ");
         }
         System.out.println();
+
+        // 10. Comparación con la jerarquía de contracción
+        System.out.println("\n=== Prueba JERARQUÍA DE CONTRACCIÓN ===");
+        JerarquiaContraccion jerarquia = new JerarquiaContraccion(grafo);
+        System.out.println(jerarquia.compararConDijkstra(1000, 42));
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package src;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz de tiempos mínimos entre un conjunto de orígenes y uno de destinos.
+ *
+ * Los valores se guardan en un solo arreglo plano fila-mayor: el tiempo del
+ * origen i al destino j está en i * columnas + j (Grafo.INFINITO si no hay
+ * ruta). Sirve para evaluar escenarios de planificación sin llamar a
+ * Grafo.dijkstra una vez por par. Si orígenes x destinos no cabe en un
+ * arreglo, calcular lanza IllegalArgumentException.
+ */
+public class MatrizTiempos {
+
+    private final int filas;
+    private final int columnas;
+    private final int[] tiempos;
+
+    private MatrizTiempos(int filas, int columnas, int[] tiempos) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.tiempos = tiempos;
+    }
+
+    // ================= CÁLCULO =================
+
+    /**
+     * Calcula la matriz con una búsqueda de Dijkstra por origen, en paralelo
+     * sobre el pool común. Cada búsqueda se detiene al asentar todos los
+     * destinos.
+     */
+    public static MatrizTiempos calcular(Grafo grafo, List<Nodo> origenes, List<Nodo> destinos) {
+        return calcular(grafo, origenes, destinos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que calcular(grafo, origenes, destinos) pero sobre el pool indicado.
+     */
+    public static MatrizTiempos calcular(Grafo grafo, List<Nodo> origenes, List<Nodo> destinos,
+                                         ForkJoinPool pool) {
+        int n = grafo.getNumParaderos();
+        int[] off = grafo.offsets();
+        int[] dst = grafo.destinos();
+        int[] tie = grafo.tiempos();
+        int[] o = indices(origenes);
+        int[] d = indices(destinos);
+        int celdas = celdas(o.length, d.length);
+
+        boolean[] esDestino = new boolean[n];
+        int distintos = 0;
+        for (int v : d) {
+            if (!esDestino[v]) {
+                esDestino[v] = true;
+                distintos++;
+            }
+        }
+        int numDestinos = distintos;
+
+        int[] resultado = new int[celdas];
+        pool.submit(() -> IntStream.range(0, o.length).parallel().forEach(i -> {
+            NucleoDijkstra nucleo = NucleoDijkstra.delHilo(n);
+            nucleo.buscar(off, dst, tie, o[i], esDestino, numDestinos);
+            int fila = i * d.length;
+            for (int j = 0; j < d.length; j++) {
+                resultado[fila + j] = nucleo.distancia(d[j]);
+            }
+        })).join();
+
+        return new MatrizTiempos(o.length, d.length, resultado);
+    }
+
+    /**
+     * Calcula la matriz sobre una jerarquía de contracción con el algoritmo
+     * de buckets muchos-a-muchos (una búsqueda hacia arriba por origen y por
+     * destino, en vez de una búsqueda completa por par).
+     */
+    public static MatrizTiempos calcular(JerarquiaContraccion jerarquia,
+                                         List<Nodo> origenes, List<Nodo> destinos) {
+        int[] o = indices(origenes);
+        int[] d = indices(destinos);
+        return new MatrizTiempos(o.length, d.length, jerarquia.matriz(o, d));
+    }
+
+    /**
+     * Tiempos de un origen a varios destinos (una sola búsqueda).
+     */
+    public static int[] unoAMuchos(Grafo grafo, Nodo origen, List<Nodo> destinos) {
+        return calcular(grafo, List.of(origen), destinos).tiempos;
+    }
+
+    /**
+     * Largo del arreglo plano de filas x columnas.
+     *
+     * @throws IllegalArgumentException si no cabe en un arreglo de Java.
+     */
+    static int celdas(int filas, int columnas) {
+        long celdas = (long) filas * columnas;
+        if (celdas > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("La matriz de " + filas + " x " + columnas
+                    + " no cabe en un solo arreglo");
+        }
+        return (int) celdas;
+    }
+
+    private static int[] indices(List<Nodo> paradas) {
+        int[] indices = new int[paradas.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = paradas.get(i).getIndice();
+        }
+        return indices;
+    }
+
+    // ================= GETTERS =================
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Tiempo del i-ésimo origen al j-ésimo destino, o Grafo.INFINITO.
+     */
+    public int get(int i, int j) {
+        return tiempos[i * columnas + j];
+    }
+
+    /**
+     * Arreglo plano fila-mayor (no se copia).
+     */
+    public int[] getTiempos() {
+        return tiempos;
+    }
+}
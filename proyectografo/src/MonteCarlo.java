@@ -0,0 +1,290 @@
+package src;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Réplicas independientes de un escenario, corridas en paralelo, con sus
+ * métricas resumidas en medias e intervalos de confianza.
+ *
+ * Cada réplica es un Simulador propio con una semilla tomada en orden de un
+ * flujo derivado de la semilla del escenario; todas comparten el Grafo, las
+ * rutas y la demanda, que no se modifican durante la simulación. Las réplicas
+ * se lanzan en lotes sobre un ForkJoinPool (robo de trabajo) y, después de
+ * cada lote, se acumulan en orden de réplica. Si la espera promedio ya
+ * alcanzó la precisión pedida se detiene antes del máximo. Para una misma
+ * semilla y tamaño de lote el resultado es siempre el mismo.
+ *
+ * Cada réplica corre en un solo hilo (el paralelismo está entre réplicas),
+ * con el motor de eventos y la ventana de esperas si se pidieron.
+ */
+public class MonteCarlo {
+
+    private final Escenario escenario;
+    private final long ticks;
+    private int minReplicas;
+    private int maxReplicas;
+    private double precisionRelativa;    // 0 = correr siempre maxReplicas
+    private double nivelConfianza;
+    private int lote;
+    private int hilos;
+    private boolean eventos;
+    private long ventana;
+
+    public MonteCarlo(Escenario escenario, long ticks) {
+        this.escenario = escenario;
+        this.ticks = ticks;
+        this.minReplicas = 5;
+        this.maxReplicas = 100;
+        this.precisionRelativa = 0.05;
+        this.nivelConfianza = 0.95;
+        this.hilos = Runtime.getRuntime().availableProcessors();
+        this.lote = hilos;
+    }
+
+    // ================= CONFIGURACIÓN =================
+
+    public void setReplicas(int minimo, int maximo) {
+        if (minimo < 2 || maximo < minimo) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 réplicas y mínimo <= máximo");
+        }
+        this.minReplicas = minimo;
+        this.maxReplicas = maximo;
+    }
+
+    /**
+     * Semiancho relativo objetivo del intervalo de la espera promedio
+     * (0.05 = ±5 %). Con 0 no hay parada temprana.
+     */
+    public void setPrecisionRelativa(double precisionRelativa) {
+        this.precisionRelativa = precisionRelativa;
+    }
+
+    public void setNivelConfianza(double nivelConfianza) {
+        if (nivelConfianza <= 0 || nivelConfianza >= 1) {
+            throw new IllegalArgumentException("El nivel de confianza debe estar en (0, 1)");
+        }
+        this.nivelConfianza = nivelConfianza;
+    }
+
+    /**
+     * Hilos del pool y réplicas por lote (por defecto, los núcleos
+     * disponibles para ambos).
+     */
+    public void setParalelismo(int hilos, int lote) {
+        if (hilos <= 0 || lote <= 0) {
+            throw new IllegalArgumentException("Hilos y lote deben ser positivos");
+        }
+        this.hilos = hilos;
+        this.lote = lote;
+    }
+
+    /**
+     * Corre cada réplica con el motor de eventos discretos en vez de ticks.
+     */
+    public void setEventos(boolean eventos) {
+        this.eventos = eventos;
+    }
+
+    /**
+     * Ventana deslizante de esperas de cada réplica en minutos (0 = sin ventana).
+     */
+    public void setVentana(long ventana) {
+        if (ventana < 0) {
+            throw new IllegalArgumentException("La ventana no puede ser negativa");
+        }
+        this.ventana = ventana;
+    }
+
+    // ================= EJECUCIÓN =================
+
+    public Resultado ejecutar() {
+        Resultado resultado = new Resultado(escenario, nivelConfianza);
+        SplittableRandom semillas = new SplittableRandom(escenario.getSemilla());
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        long inicio = System.nanoTime();
+        try {
+            while (resultado.replicas < maxReplicas) {
+                int k = Math.min(lote, maxReplicas - resultado.replicas);
+                long[] semilla = new long[k];
+                for (int i = 0; i < k; i++) {
+                    semilla[i] = semillas.nextLong();
+                }
+                Simulador[] corridas = new Simulador[k];
+                pool.submit(() -> IntStream.range(0, k).parallel()
+                        .forEach(i -> corridas[i] = correr(semilla[i]))).join();
+
+                for (Simulador s : corridas) {
+                    resultado.acumular(s);
+                }
+                if (resultado.replicas >= minReplicas && precisionRelativa > 0
+                        && resultado.esperaPromedio.precisionRelativa(nivelConfianza) <= precisionRelativa) {
+                    resultado.convergio = true;
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        resultado.segundos = (System.nanoTime() - inicio) / 1e9;
+        return resultado;
+    }
+
+    private Simulador correr(long semilla) {
+        Simulador simulador = escenario.crearSimulador(semilla);
+        if (eventos) {
+            simulador.activarEventos();
+        }
+        if (ventana > 0) {
+            simulador.setVentanaEsperas(ventana);
+        }
+        for (long t = 0; t < ticks; t++) {
+            simulador.tick();
+        }
+        return simulador;
+    }
+
+    /**
+     * Métricas acumuladas sobre las réplicas.
+     */
+    public static class Resultado {
+
+        private final Grafo grafo;
+        private final double nivel;
+        private int replicas;
+        private boolean convergio;
+        private double segundos;
+
+        private final AcumuladorReplicas esperaPromedio = new AcumuladorReplicas();
+        private final AcumuladorReplicas esperaP90 = new AcumuladorReplicas();
+        private final AcumuladorReplicas abordajes = new AcumuladorReplicas();
+        private final AcumuladorReplicas esperandoFinal = new AcumuladorReplicas();
+        private final AcumuladorReplicas rechazados = new AcumuladorReplicas();
+        private final AcumuladorReplicas[] esperaPorParada;
+        private final AcumuladorReplicas[] abordajesPorParada;
+        private final AcumuladorReplicas[] abordajesPorBus;
+        private final AcumuladorReplicas[] cargaFinalPorBus;
+
+        private Resultado(Escenario escenario, double nivel) {
+            this.grafo = escenario.getGrafo();
+            this.nivel = nivel;
+            int n = grafo.getNumParaderos();
+            int b = escenario.getNumBuses();
+            this.esperaPorParada = nuevos(n);
+            this.abordajesPorParada = nuevos(n);
+            this.abordajesPorBus = nuevos(b);
+            this.cargaFinalPorBus = nuevos(b);
+        }
+
+        private static AcumuladorReplicas[] nuevos(int k) {
+            AcumuladorReplicas[] a = new AcumuladorReplicas[k];
+            for (int i = 0; i < k; i++) {
+                a[i] = new AcumuladorReplicas();
+            }
+            return a;
+        }
+
+        private void acumular(Simulador s) {
+            replicas++;
+            HistogramaLog total = s.getEsperasTotales();
+            esperaPromedio.agregar(total.getPromedio());
+            esperaP90.agregar(total.getP90());
+            abordajes.agregar(total.getCantidad());
+            esperandoFinal.agregar(s.getEsperandoTotales());
+            rechazados.agregar(s.getRechazadosTotales());
+
+            for (Nodo parada : grafo.getParaderos()) {
+                HistogramaLog h = s.getEsperas(parada);
+                int i = parada.getIndice();
+                if (h.getCantidad() > 0) {
+                    esperaPorParada[i].agregar(h.getPromedio());
+                }
+                abordajesPorParada[i].agregar(h.getCantidad());
+            }
+            List<Bus> buses = s.getBuses();
+            for (int i = 0; i < buses.size(); i++) {
+                abordajesPorBus[i].agregar(buses.get(i).getAbordajes());
+                cargaFinalPorBus[i].agregar(buses.get(i).getCapacidadActual());
+            }
+        }
+
+        public int getReplicas() {
+            return replicas;
+        }
+
+        /**
+         * true si se detuvo por alcanzar la precisión pedida.
+         */
+        public boolean isConvergio() {
+            return convergio;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        public double getNivelConfianza() {
+            return nivel;
+        }
+
+        public AcumuladorReplicas getEsperaPromedio() {
+            return esperaPromedio;
+        }
+
+        public AcumuladorReplicas getEsperaP90() {
+            return esperaP90;
+        }
+
+        public AcumuladorReplicas getAbordajes() {
+            return abordajes;
+        }
+
+        public AcumuladorReplicas getEsperandoFinal() {
+            return esperandoFinal;
+        }
+
+        public AcumuladorReplicas getRechazados() {
+            return rechazados;
+        }
+
+        /**
+         * Espera promedio en la parada (solo réplicas en que alguien subió ahí).
+         */
+        public AcumuladorReplicas getEsperaPorParada(Nodo parada) {
+            return esperaPorParada[parada.getIndice()];
+        }
+
+        public AcumuladorReplicas getAbordajesPorParada(Nodo parada) {
+            return abordajesPorParada[parada.getIndice()];
+        }
+
+        /**
+         * Pasajeros que subieron al i-ésimo bus del escenario.
+         */
+        public AcumuladorReplicas getAbordajesPorBus(int i) {
+            return abordajesPorBus[i];
+        }
+
+        public AcumuladorReplicas getCargaFinalPorBus(int i) {
+            return cargaFinalPorBus[i];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d réplicas en %.2f s%s (IC %.0f %%)%n"
+                    + "  espera promedio: %s%n"
+                    + "  espera p90:      %s%n"
+                    + "  abordajes:       %s%n"
+                    + "  esperando final: %s%n"
+                    + "  rechazados:      %s",
+                    replicas, segundos, convergio ? ", precisión alcanzada" : "", nivel * 100,
+                    esperaPromedio.formato(nivel), esperaP90.formato(nivel),
+                    abordajes.formato(nivel), esperandoFinal.formato(nivel),
+                    rechazados.formato(nivel));
+        }
+    }
+}
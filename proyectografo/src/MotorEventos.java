@@ -0,0 +1,152 @@
+package src;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Motor de simulación por eventos discretos.
+ *
+ * En vez de recorrer cada tick minuto a minuto, mantiene una cola ordenada
+ * por tiempo simulado con el próximo evento de cada entidad: la próxima
+ * llegada de cada bus a una parada y la próxima llegada de un pasajero a
+ * cada parada. El reloj salta directo al siguiente evento, así que los arcos
+ * largos o las horas sin demanda no cuestan nada.
+ *
+ * Cada entidad tiene a lo sumo un evento pendiente, por lo que la cola es un
+ * HeapIndexado sobre entidades (paradas 0..n-1, buses n..n+b-1). La clave
+ * combina minuto y entidad, y así los empates se resuelven siempre igual.
+ */
+class MotorEventos {
+
+    private static final long MAXIMA_ESPERA = 1 << 30;   // minutos; evita desbordar la clave
+
+    private final Simulador simulador;
+    private final Grafo grafo;
+    private final List<Bus> buses;
+    private final int numParadas;
+
+    private final HeapIndexado eventos;
+    private long[] proximaLlegada;   // minuto de la próxima llegada de cada bus
+    private long ahora;
+
+    MotorEventos(Simulador simulador, long inicio) {
+        this.simulador = simulador;
+        this.grafo = simulador.getGrafo();
+        this.buses = simulador.getBuses();
+        this.numParadas = grafo.getNumParaderos();
+        this.ahora = inicio;
+
+        this.eventos = new HeapIndexado(numParadas + buses.size());
+        this.proximaLlegada = new long[Math.max(1, buses.size())];
+
+        for (int p = 0; p < numParadas; p++) {
+            programarPasajero(p);
+        }
+        for (int b = 0; b < buses.size(); b++) {
+            programarBus(b, ahora + buses.get(b).minutosHastaLlegada());
+        }
+    }
+
+    /**
+     * Motor con la cola de eventos leída de una instantánea (ver guardar).
+     */
+    MotorEventos(Simulador simulador, ArchivoMapeado archivo) throws IOException {
+        this.simulador = simulador;
+        this.grafo = simulador.getGrafo();
+        this.buses = simulador.getBuses();
+        this.numParadas = grafo.getNumParaderos();
+        this.ahora = archivo.getLong();
+
+        int entidades = numParadas + buses.size();
+        this.eventos = new HeapIndexado(entidades);
+        this.proximaLlegada = new long[Math.max(1, buses.size())];
+        archivo.getLongs(proximaLlegada, 0, buses.size());
+        for (int e = 0; e < entidades; e++) {
+            long clave = archivo.getLong();
+            if (clave >= 0) {
+                eventos.insertarOReducir(e, clave);
+            }
+        }
+    }
+
+    /**
+     * Escribe el reloj, la próxima llegada de cada bus y la clave del evento
+     * pendiente de cada entidad (-1 si no tiene). Como las claves son únicas,
+     * reconstruir el heap con ellas da el mismo orden de eventos.
+     */
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        archivo.putLong(ahora);
+        archivo.putLongs(proximaLlegada, 0, buses.size());
+        for (int e = 0; e < numParadas + buses.size(); e++) {
+            archivo.putLong(eventos.contiene(e) ? eventos.clave(e) : -1);
+        }
+    }
+
+    /**
+     * Registra un bus agregado al simulador después de crear el motor.
+     * Debe llamarse después de agregarlo a la lista de buses.
+     */
+    void agregarBus(Bus bus) {
+        int b = buses.size() - 1;
+        eventos.asegurarCapacidad(numParadas + buses.size());
+        if (b >= proximaLlegada.length) {
+            proximaLlegada = Arrays.copyOf(proximaLlegada, proximaLlegada.length * 2);
+        }
+        programarBus(b, ahora + bus.minutosHastaLlegada());
+    }
+
+    long getAhora() {
+        return ahora;
+    }
+
+    /**
+     * Procesa en orden todos los eventos con minuto <= objetivo y deja el
+     * reloj en objetivo. Al final ajusta el progreso de cada bus en su arco
+     * para que la interfaz lo pueda dibujar.
+     */
+    void avanzarHasta(long objetivo) {
+        while (!eventos.estaVacio()) {
+            long t = eventos.claveMinima() >>> 32;
+            if (t > objetivo) break;
+
+            int entidad = eventos.extraerMinimo();
+            ahora = t;
+
+            if (entidad < numParadas) {
+                simulador.crearPasajero(entidad);
+                programarPasajero(entidad);
+            } else {
+                int b = entidad - numParadas;
+                int minutosArco = buses.get(b).llegar(ahora);
+                buses.get(b).liberarBajados();
+                programarBus(b, ahora + minutosArco);
+            }
+        }
+        ahora = objetivo;
+
+        for (int b = 0; b < buses.size(); b++) {
+            buses.get(b).sincronizarArco(ahora, (int) (proximaLlegada[b] - ahora));
+        }
+    }
+
+    private void programarBus(int b, long minuto) {
+        proximaLlegada[b] = minuto;
+        eventos.insertarOReducir(numParadas + b, clave(minuto, numParadas + b));
+    }
+
+    /**
+     * Programa la próxima llegada de pasajero a la parada según la Demanda
+     * del simulador. Una parada sin demanda queda sin evento.
+     */
+    private void programarPasajero(int parada) {
+        long minuto = simulador.proximaLlegada(parada, ahora, ahora + MAXIMA_ESPERA);
+        if (minuto >= 0) {
+            eventos.insertarOReducir(parada, clave(minuto, parada));
+        }
+    }
+
+    private static long clave(long minuto, int entidad) {
+        return (minuto << 32) | entidad;
+    }
+}
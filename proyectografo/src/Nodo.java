@@ -1,16 +1,15 @@
 package src;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
 /**
  * Representa una parada (paradero) en la red de transporte.
- * Cada parada mantiene una cola de pasajeros esperando subir al bus.
+ * Los datos de la parada no cambian durante una simulación; la cola de
+ * pasajeros y sus contadores los guarda cada Simulador (ver EstadoParadas),
+ * así un mismo grafo puede usarse en varias simulaciones a la vez.
  */
 public class Nodo {
     private int id;
+    private int indice;                // índice denso asignado por el grafo (-1 si no pertenece a uno)
     private String nombre;
-    private Queue<Pasajero> cola;      // cola de pasajeros esperando
     private double posicionX;          // coordenada X (para visualización)
     private double posicionY;          // coordenada Y (para visualización)
 
@@ -19,13 +18,24 @@ public class Nodo {
         this.nombre = nombre;
         this.posicionX = posicionX;
         this.posicionY = posicionY;
-        this.cola = new LinkedList<>();
+        this.indice = -1;
     }
 
     public int getId() {
         return id;
     }
 
+    /**
+     * Retorna el índice denso (0..n-1) de la parada dentro de su grafo.
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    void setIndice(int indice) {
+        this.indice = indice;
+    }
+
     public String getNombre() {
         return nombre;
     }
@@ -37,29 +47,4 @@ public class Nodo {
     public double getPosicionY() {
         return posicionY;
     }
-
-    public Queue<Pasajero> getCola() {
-        return cola;
-    }
-
-    /**
-     * Agrega un pasajero a la cola de la parada.
-     */
-    public void agregarPasajero(Pasajero p) {
-        cola.offer(p);
-    }
-
-    /**
-     * Remueve y retorna el primer pasajero de la cola.
-     */
-    public Pasajero removerPasajero() {
-        return cola.poll();
-    }
-
-    /**
-     * Retorna la cantidad de pasajeros esperando en la parada.
-     */
-    public int getEsperandoCuantos() {
-        return cola.size();
-    }
 }
\ No newline at end of file
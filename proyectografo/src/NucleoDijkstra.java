@@ -0,0 +1,154 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Núcleo de Dijkstra compartido por todas las búsquedas sobre arreglos CSR.
+ *
+ * Cada hilo tiene su propio núcleo con arreglos de trabajo reutilizables.
+ * Las distancias se marcan con el número de consulta, así que no hay que
+ * limpiar los arreglos entre búsquedas y una consulta no genera basura.
+ */
+final class NucleoDijkstra {
+
+    private static final ThreadLocal<NucleoDijkstra> POR_HILO =
+            ThreadLocal.withInitial(() -> new NucleoDijkstra(0));
+
+    private int[] dist;
+    private int[] previo;
+    private int[] marca;        // marca[v] == consulta => dist/previo de v son válidos
+    private int consulta;
+    private final HeapIndexado heap;
+    private int asentados;
+
+    private NucleoDijkstra(int n) {
+        this.dist = new int[n];
+        this.previo = new int[n];
+        this.marca = new int[n];
+        this.heap = new HeapIndexado(n);
+    }
+
+    /**
+     * Núcleo del hilo actual, con espacio para al menos n paradas.
+     */
+    static NucleoDijkstra delHilo(int n) {
+        NucleoDijkstra nucleo = POR_HILO.get();
+        if (nucleo.dist.length < n) {
+            nucleo.dist = Arrays.copyOf(nucleo.dist, n);
+            nucleo.previo = Arrays.copyOf(nucleo.previo, n);
+            nucleo.marca = Arrays.copyOf(nucleo.marca, n);
+            nucleo.heap.asegurarCapacidad(n);
+        }
+        return nucleo;
+    }
+
+    /**
+     * Dijkstra desde origen sobre el CSR dado. Si destino >= 0 termina al
+     * asentarlo; con destino = -1 calcula el árbol completo.
+     */
+    void buscar(int[] off, int[] dst, int[] tie, int origen, int destino) {
+        ejecutar(off, dst, tie, origen, destino, null, 1);
+    }
+
+    /**
+     * Dijkstra desde origen que termina cuando asentó todas las paradas
+     * marcadas en objetivos (numObjetivos es la cantidad de marcadas).
+     */
+    void buscar(int[] off, int[] dst, int[] tie, int origen, boolean[] objetivos, int numObjetivos) {
+        ejecutar(off, dst, tie, origen, -1, objetivos, numObjetivos);
+    }
+
+    /**
+     * El bucle de ambas búsquedas: el objetivo es la parada destino o, si
+     * objetivos no es null, las paradas marcadas ahí. Termina al asentar
+     * el último objetivo pendiente o al vaciarse el heap.
+     */
+    private void ejecutar(int[] off, int[] dst, int[] tie, int origen,
+                          int destino, boolean[] objetivos, int pendientes) {
+        nuevaConsulta();
+        asentados = 0;
+        heap.limpiar();
+        marca[origen] = consulta;
+        dist[origen] = 0;
+        previo[origen] = -1;
+        heap.insertarOReducir(origen, 0);
+
+        while (pendientes > 0 && !heap.estaVacio()) {
+            int u = heap.extraerMinimo();
+            asentados++;
+            if (objetivos != null ? objetivos[u] : u == destino) {
+                if (--pendientes == 0) break;
+            }
+
+            int du = dist[u];
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                int v = dst[e];
+                int nd = du + tie[e];
+                if (marca[v] != consulta || nd < dist[v]) {
+                    marca[v] = consulta;
+                    dist[v] = nd;
+                    previo[v] = u;
+                    heap.insertarOReducir(v, nd);
+                }
+            }
+        }
+    }
+
+    /**
+     * Avanza el número de consulta. Antes de que dé la vuelta se limpian
+     * las marcas, para que una marca vieja nunca vuelva a parecer vigente.
+     */
+    private void nuevaConsulta() {
+        if (consulta == Integer.MAX_VALUE) {
+            Arrays.fill(marca, 0);
+            consulta = 0;
+        }
+        consulta++;
+    }
+
+    /**
+     * Distancia a v en la última búsqueda, o Grafo.INFINITO si no se alcanzó.
+     */
+    int distancia(int v) {
+        return marca[v] == consulta ? dist[v] : Grafo.INFINITO;
+    }
+
+    int previo(int v) {
+        return marca[v] == consulta ? previo[v] : -1;
+    }
+
+    int getAsentados() {
+        return asentados;
+    }
+
+    /**
+     * Copia el resultado de la última búsqueda completa como árbol.
+     */
+    ArbolCaminos comoArbol(int origen, int n, long version) {
+        int[] d = new int[n];
+        int[] p = new int[n];
+        for (int v = 0; v < n; v++) {
+            d[v] = distancia(v);
+            p[v] = previo(v);
+        }
+        return new ArbolCaminos(origen, d, p, version);
+    }
+
+    /**
+     * Camino de la última búsqueda hasta destino (solo el destino si no se alcanzó).
+     */
+    List<Nodo> camino(Grafo grafo, int destino) {
+        int largo = 0;
+        for (int v = destino; v != -1; v = previo(v)) {
+            largo++;
+        }
+        Nodo[] paradas = new Nodo[largo];
+        int i = largo;
+        for (int v = destino; v != -1; v = previo(v)) {
+            paradas[--i] = grafo.getNodo(v);
+        }
+        return new ArrayList<>(Arrays.asList(paradas));
+    }
+}
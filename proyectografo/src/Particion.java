@@ -0,0 +1,100 @@
+package src;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * División de las paradas de un grafo en regiones geográficas.
+ *
+ * Se usa bisección recursiva por coordenadas: el conjunto se corta por la
+ * mediana en X o en Y (el eje más largo) hasta tener la cantidad pedida de
+ * regiones, de tamaño parecido y compactas, para que pocos buses crucen de
+ * una región a otra dentro de un tick.
+ */
+public class Particion {
+
+    private final int[] regionDeParada;       // región de cada índice de parada
+    private final int[][] paradasDeRegion;    // índices de parada de cada región, en orden creciente
+
+    public Particion(Grafo grafo, int numRegiones) {
+        int n = grafo.getNumParaderos();
+        int regiones = Math.max(1, Math.min(numRegiones, Math.max(1, n)));
+        this.regionDeParada = new int[n];
+
+        Integer[] orden = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            orden[i] = i;
+        }
+        dividir(grafo, orden, 0, n, 0, regiones);
+
+        int[] tamanios = new int[regiones];
+        for (int r : regionDeParada) {
+            tamanios[r]++;
+        }
+        this.paradasDeRegion = new int[regiones][];
+        for (int r = 0; r < regiones; r++) {
+            paradasDeRegion[r] = new int[tamanios[r]];
+        }
+        int[] pos = new int[regiones];
+        for (int v = 0; v < n; v++) {
+            int r = regionDeParada[v];
+            paradasDeRegion[r][pos[r]++] = v;
+        }
+    }
+
+    /**
+     * Asigna las regiones [primeraRegion, primeraRegion + regiones) a las
+     * paradas orden[desde, hasta).
+     */
+    private void dividir(Grafo grafo, Integer[] orden, int desde, int hasta,
+                         int primeraRegion, int regiones) {
+        if (regiones == 1 || hasta - desde <= 1) {
+            for (int i = desde; i < hasta; i++) {
+                regionDeParada[orden[i]] = primeraRegion;
+            }
+            return;
+        }
+
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = desde; i < hasta; i++) {
+            Nodo p = grafo.getNodo(orden[i]);
+            minX = Math.min(minX, p.getPosicionX());
+            maxX = Math.max(maxX, p.getPosicionX());
+            minY = Math.min(minY, p.getPosicionY());
+            maxY = Math.max(maxY, p.getPosicionY());
+        }
+        Comparator<Integer> eje = (maxX - minX >= maxY - minY)
+                ? Comparator.comparingDouble(v -> grafo.getNodo(v).getPosicionX())
+                : Comparator.comparingDouble(v -> grafo.getNodo(v).getPosicionY());
+        Arrays.sort(orden, desde, hasta, eje.thenComparingInt(v -> v));
+
+        // Las paradas se reparten en proporción a las regiones de cada lado
+        int izquierda = regiones / 2;
+        int corte = desde + (int) ((long) (hasta - desde) * izquierda / regiones);
+        dividir(grafo, orden, desde, corte, primeraRegion, izquierda);
+        dividir(grafo, orden, corte, hasta, primeraRegion + izquierda, regiones - izquierda);
+    }
+
+    public int getNumRegiones() {
+        return paradasDeRegion.length;
+    }
+
+    public int getRegion(int indiceParada) {
+        return regionDeParada[indiceParada];
+    }
+
+    /**
+     * Arreglo región-por-parada (no se copia; no modificar).
+     */
+    int[] regiones() {
+        return regionDeParada;
+    }
+
+    /**
+     * Índices de las paradas de la región (no se copia; no modificar).
+     */
+    int[] paradasDe(int region) {
+        return paradasDeRegion[region];
+    }
+}
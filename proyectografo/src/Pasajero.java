@@ -6,7 +6,7 @@ package src;
  */
 public class Pasajero {
     private int id;
-    private String destino;
+    private Nodo destino;
     private long tiempoInicio;
     private long tiempoLlegada;
 
@@ -14,21 +14,21 @@ public class Pasajero {
      * Crea una nueva instancia de Pasajero con un id y un destino especificados.
      *
      * @param id            Identificador único del pasajero.
-     * @param destino       Destino al que se dirige el pasajero.
-     * @param tiempoInicio  Tiempo (en ms) en que el pasajero comenzó su viaje.
+     * @param destino       Parada a la que se dirige el pasajero.
+     * @param tiempoInicio  Minuto simulado en que el pasajero llegó a la parada.
      */
-    public Pasajero(int id, String destino, long tiempoInicio) {
+    public Pasajero(int id, Nodo destino, long tiempoInicio) {
         this.id = id;
         this.destino = destino;
         this.tiempoInicio = tiempoInicio;
-        this.tiempoLlegada = -1; // Se asigna cuando sube al bus
+        this.tiempoLlegada = -1; // Minuto simulado en que sube al bus
     }
 
     public int getId() {
         return id;
     }
 
-    public String getDestino() {
+    public Nodo getDestino() {
         return destino;
     }
 
@@ -0,0 +1,156 @@
+package src;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Almacén de pasajeros en arreglos primitivos paralelos.
+ *
+ * Cada pasajero vivo ocupa una casilla y se identifica por su índice
+ * ("handle"); las paradas y los buses guardan solo esos enteros. Al terminar
+ * el viaje la casilla se libera y se reutiliza, así que la memoria depende
+ * de cuántos pasajeros hay a la vez y no de cuántos pasaron. Cada casilla
+ * ocupa 28 bytes (id, destino, dos marcas de tiempo y la pila de libres),
+ * frente a unos 100 de un Pasajero con su nodo de lista.
+ *
+ * crear y liberar no son seguros entre hilos; el Simulador los llama solo
+ * desde sus fases secuenciales.
+ */
+public class PoolPasajeros {
+
+    private int[] ids;
+    private int[] destinos;       // índice de la parada de destino
+    private long[] inicios;       // minuto en que llegó a la parada
+    private long[] llegadas;      // minuto en que subió al bus (-1 si aún no)
+
+    private int[] libres;         // pila de casillas liberadas
+    private int numLibres;
+    private int usadas;           // casillas tocadas alguna vez (0..usadas-1)
+    private int vivos;
+
+    public PoolPasajeros(int capacidadInicial) {
+        int c = Math.max(16, capacidadInicial);
+        this.ids = new int[c];
+        this.destinos = new int[c];
+        this.inicios = new long[c];
+        this.llegadas = new long[c];
+        this.libres = new int[c];
+    }
+
+    /**
+     * Ocupa una casilla con un pasajero nuevo y retorna su handle.
+     */
+    public int crear(int id, int destino, long tiempoInicio) {
+        int h;
+        if (numLibres > 0) {
+            h = libres[--numLibres];
+        } else {
+            if (usadas == ids.length) {
+                crecer();
+            }
+            h = usadas++;
+        }
+        ids[h] = id;
+        destinos[h] = destino;
+        inicios[h] = tiempoInicio;
+        llegadas[h] = -1;
+        vivos++;
+        return h;
+    }
+
+    /**
+     * Devuelve la casilla al pool. El handle deja de ser válido.
+     */
+    public void liberar(int h) {
+        libres[numLibres++] = h;
+        vivos--;
+    }
+
+    private void crecer() {
+        int c = ids.length * 2;
+        ids = Arrays.copyOf(ids, c);
+        destinos = Arrays.copyOf(destinos, c);
+        inicios = Arrays.copyOf(inicios, c);
+        llegadas = Arrays.copyOf(llegadas, c);
+        libres = Arrays.copyOf(libres, c);
+    }
+
+    // ================= ACCESO POR HANDLE =================
+
+    public int getId(int h) {
+        return ids[h];
+    }
+
+    public int getDestino(int h) {
+        return destinos[h];
+    }
+
+    public long getTiempoInicio(int h) {
+        return inicios[h];
+    }
+
+    public long getTiempoLlegada(int h) {
+        return llegadas[h];
+    }
+
+    public void setTiempoLlegada(int h, long minuto) {
+        llegadas[h] = minuto;
+    }
+
+    /**
+     * Copia del pasajero como objeto (para mostrarlo o inspeccionarlo).
+     */
+    public Pasajero leer(int h, Grafo grafo) {
+        Pasajero p = new Pasajero(ids[h], grafo.getNodo(destinos[h]), inicios[h]);
+        p.setTiempoLlegada(llegadas[h]);
+        return p;
+    }
+
+    // ================= INSTANTÁNEAS =================
+
+    void guardar(ArchivoMapeado archivo) throws IOException {
+        archivo.putInt(usadas);
+        archivo.putInt(numLibres);
+        archivo.putInt(vivos);
+        archivo.putInts(ids, 0, usadas);
+        archivo.putInts(destinos, 0, usadas);
+        archivo.putLongs(inicios, 0, usadas);
+        archivo.putLongs(llegadas, 0, usadas);
+        archivo.putInts(libres, 0, numLibres);
+    }
+
+    void restaurar(ArchivoMapeado archivo) throws IOException {
+        usadas = archivo.getInt();
+        numLibres = archivo.getInt();
+        vivos = archivo.getInt();
+        if (usadas > ids.length) {
+            int c = Math.max(usadas, 2 * ids.length);
+            ids = new int[c];
+            destinos = new int[c];
+            inicios = new long[c];
+            llegadas = new long[c];
+            libres = new int[c];
+        }
+        archivo.getInts(ids, 0, usadas);
+        archivo.getInts(destinos, 0, usadas);
+        archivo.getLongs(inicios, 0, usadas);
+        archivo.getLongs(llegadas, 0, usadas);
+        archivo.getInts(libres, 0, numLibres);
+    }
+
+    // ================= ESTADO =================
+
+    /**
+     * Pasajeros vivos (esperando o a bordo).
+     */
+    public int getVivos() {
+        return vivos;
+    }
+
+    /**
+     * Casillas reservadas en los arreglos.
+     */
+    public int getCapacidad() {
+        return ids.length;
+    }
+}
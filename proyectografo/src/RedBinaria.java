@@ -0,0 +1,203 @@
+package src;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario de una red ya indexada, para abrir redes grandes sin
+ * volver a procesar el CSV.
+ *
+ * Todo se guarda como arreglos primitivos contiguos (little-endian) y se
+ * lee en bloque desde un ArchivoMapeado, así que abrir el archivo cuesta
+ * poco más que copiar esos arreglos a memoria:
+ *
+ *   marca, versión, paradas n, arcos m, líneas, nombre, semilla
+ *   ids[n], x[n], y[n], inicioNombre[n+1], bytes de los nombres (UTF-8)
+ *   offsets[n+1], destinos[m], tiempos[m]          (CSR, ver Grafo)
+ *   por línea: buses, capacidad, largo ida, largo vuelta, ida[], vuelta[]
+ *
+ * El modelo de demanda del escenario no se guarda.
+ */
+final class RedBinaria {
+
+    private static final int MARCA = 0x44455252;   // "RRED"
+    private static final int VERSION = 1;
+
+    private RedBinaria() {
+    }
+
+    /**
+     * Escribe el escenario con el tamaño exacto, calculado con una primera
+     * pasada en modo contador.
+     */
+    static void guardar(Escenario escenario, Path archivo) throws IOException {
+        ArchivoMapeado contador = ArchivoMapeado.contador();
+        escribir(escenario, contador);
+        try (ArchivoMapeado salida = ArchivoMapeado.paraEscribir(archivo, contador.getPosicion())) {
+            escribir(escenario, salida);
+        }
+    }
+
+    private static void escribir(Escenario escenario, ArchivoMapeado archivo) throws IOException {
+        Grafo grafo = escenario.getGrafo();
+        int n = grafo.getNumParaderos();
+        int m = grafo.getNumArcos();
+        int lineas = escenario.getRutas().size();
+
+        archivo.putInt(MARCA);
+        archivo.putInt(VERSION);
+        archivo.putInt(n);
+        archivo.putInt(m);
+        archivo.putInt(lineas);
+        byte[] nombre = escenario.getNombre().getBytes(StandardCharsets.UTF_8);
+        archivo.putInt(nombre.length);
+        archivo.putBytes(nombre, 0, nombre.length);
+        archivo.putLong(escenario.getSemilla());
+
+        int[] ids = new int[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] inicioNombre = new int[n + 1];
+        byte[][] nombres = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            Nodo parada = grafo.getNodo(i);
+            ids[i] = parada.getId();
+            x[i] = parada.getPosicionX();
+            y[i] = parada.getPosicionY();
+            nombres[i] = parada.getNombre().getBytes(StandardCharsets.UTF_8);
+            inicioNombre[i + 1] = inicioNombre[i] + nombres[i].length;
+        }
+        archivo.putInts(ids, 0, n);
+        archivo.putDoubles(x, 0, n);
+        archivo.putDoubles(y, 0, n);
+        archivo.putInts(inicioNombre, 0, n + 1);
+        for (byte[] b : nombres) {
+            archivo.putBytes(b, 0, b.length);
+        }
+
+        archivo.putInts(grafo.offsets(), 0, n + 1);
+        archivo.putInts(grafo.destinos(), 0, m);
+        archivo.putInts(grafo.tiempos(), 0, m);
+
+        for (int l = 0; l < lineas; l++) {
+            Ruta ruta = escenario.getRutas().get(l);
+            archivo.putInt(escenario.getBusesLinea(l));
+            archivo.putInt(escenario.getCapacidadLinea(l));
+            archivo.putInt(ruta.largo(true));
+            archivo.putInt(ruta.largo(false));
+            for (int i = 0; i < ruta.largo(true); i++) {
+                archivo.putInt(ruta.indiceParada(true, i));
+            }
+            for (int i = 0; i < ruta.largo(false); i++) {
+                archivo.putInt(ruta.indiceParada(false, i));
+            }
+        }
+    }
+
+    /**
+     * Lee un escenario guardado con guardar. El CSR del archivo pasa al
+     * Grafo tal cual (ver Grafo.desdeCsr), después de validarlo.
+     *
+     * @throws IOException si el archivo no tiene este formato, está truncado
+     *         o sus tamaños e índices no son coherentes.
+     */
+    static Escenario abrir(Path archivo) throws IOException {
+        try (ArchivoMapeado entrada = ArchivoMapeado.paraLeer(archivo)) {
+            if (entrada.getInt() != MARCA || entrada.getInt() != VERSION) {
+                throw new IOException(archivo + " no es una red binaria compatible");
+            }
+            int n = entrada.getInt();
+            int m = entrada.getInt();
+            int lineas = entrada.getInt();
+            int largoNombre = entrada.getInt();
+            exigir(n >= 0 && m >= 0 && lineas >= 0 && largoNombre >= 0, archivo, "tamaños negativos");
+            // Antes de reservar cada bloque se comprueba que el archivo lo contenga
+            exigir(entrada.getRestantes() >= largoNombre + 8L + 28L * n + 4, archivo, "paradas truncadas");
+            byte[] nombre = new byte[largoNombre];
+            entrada.getBytes(nombre, 0, nombre.length);
+            long semilla = entrada.getLong();
+
+            int[] ids = new int[n];
+            double[] x = new double[n];
+            double[] y = new double[n];
+            int[] inicioNombre = new int[n + 1];
+            entrada.getInts(ids, 0, n);
+            entrada.getDoubles(x, 0, n);
+            entrada.getDoubles(y, 0, n);
+            entrada.getInts(inicioNombre, 0, n + 1);
+            exigir(esCreciente(inicioNombre) && inicioNombre[n] <= entrada.getRestantes(),
+                    archivo, "nombres de parada inválidos");
+            byte[] nombres = new byte[inicioNombre[n]];
+            entrada.getBytes(nombres, 0, nombres.length);
+
+            exigir(entrada.getRestantes() >= 4L * (n + 1) + 8L * m, archivo, "arcos truncados");
+            int[] offsets = new int[n + 1];
+            int[] destinos = new int[m];
+            int[] tiempos = new int[m];
+            entrada.getInts(offsets, 0, n + 1);
+            entrada.getInts(destinos, 0, m);
+            entrada.getInts(tiempos, 0, m);
+            exigir(esCreciente(offsets) && offsets[n] == m, archivo, "offsets de arcos inválidos");
+            for (int e = 0; e < m; e++) {
+                exigir(destinos[e] >= 0 && destinos[e] < n, archivo, "arco hacia la parada inexistente " + destinos[e]);
+                exigir(tiempos[e] >= 0, archivo, "arco " + e + " con tiempo negativo " + tiempos[e]);
+            }
+
+            List<Nodo> paradas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                String texto = new String(nombres, inicioNombre[i], inicioNombre[i + 1] - inicioNombre[i],
+                        StandardCharsets.UTF_8);
+                paradas.add(new Nodo(ids[i], texto, x[i], y[i]));
+            }
+            Grafo grafo = Grafo.desdeCsr(paradas, offsets, destinos, tiempos);
+
+            Escenario escenario = new Escenario(new String(nombre, StandardCharsets.UTF_8), grafo);
+            escenario.setSemilla(semilla);
+            for (int l = 0; l < lineas; l++) {
+                exigir(entrada.getRestantes() >= 16, archivo, "líneas truncadas");
+                int buses = entrada.getInt();
+                int capacidad = entrada.getInt();
+                int largoIda = entrada.getInt();
+                int largoVuelta = entrada.getInt();
+                exigir(largoIda >= 0 && largoVuelta >= 0
+                        && entrada.getRestantes() >= 4L * largoIda + 4L * largoVuelta, archivo, "línea " + l + " truncada");
+                List<Nodo> ida = leerRecorrido(entrada, largoIda, grafo, archivo);
+                List<Nodo> vuelta = leerRecorrido(entrada, largoVuelta, grafo, archivo);
+                try {
+                    escenario.agregarLinea(new Ruta(grafo, ida, vuelta), buses, capacidad);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(archivo + ": línea " + l + " inválida: " + e.getMessage(), e);
+                }
+            }
+            return escenario;
+        }
+    }
+
+    private static List<Nodo> leerRecorrido(ArchivoMapeado entrada, int largo, Grafo grafo, Path archivo)
+            throws IOException {
+        List<Nodo> recorrido = new ArrayList<>(largo);
+        for (int i = 0; i < largo; i++) {
+            int p = entrada.getInt();
+            exigir(p >= 0 && p < grafo.getNumParaderos(), archivo, "línea con la parada inexistente " + p);
+            recorrido.add(grafo.getNodo(p));
+        }
+        return recorrido;
+    }
+
+    private static boolean esCreciente(int[] a) {
+        if (a[0] != 0) return false;
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] < a[i - 1]) return false;
+        }
+        return true;
+    }
+
+    private static void exigir(boolean condicion, Path archivo, String problema) throws IOException {
+        if (!condicion) {
+            throw new IOException(archivo + ": " + problema);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package src;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recorrido de ida y vuelta de una línea, compilado contra un grafo.
+ *
+ * Al construirse se resuelven todos los arcos del recorrido y se guardan
+ * como arreglos primitivos, de modo que los buses avanzan sin consultar
+ * el grafo. Una misma Ruta puede compartirse entre varios buses.
+ *
+ * Cada parada distinta del recorrido tiene además una "ranura" 0..k-1, que
+ * los buses usan para agrupar a sus pasajeros según dónde se bajan.
+ */
+public class Ruta {
+
+    private final Nodo[] paradasIda;
+    private final Nodo[] paradasVuelta;
+    private final int[] indicesIda;     // índice denso de cada parada en el grafo
+    private final int[] indicesVuelta;
+    private final int[] tiemposIda;     // tiemposIda[i] = minutos de paradasIda[i] a paradasIda[i+1]
+    private final int[] tiemposVuelta;
+    private final int[] paradasDistintas;   // índices en el grafo, ordenados; la posición es la ranura
+    private final int[] ranurasIda;         // ranura de cada posición del tramo
+    private final int[] ranurasVuelta;
+
+    /**
+     * Compila la ruta validando que cada par de paradas consecutivas esté
+     * unido por un arco y que ida y vuelta se empalmen en sus extremos.
+     *
+     * @throws IllegalArgumentException si la ruta no es recorrible en el grafo.
+     */
+    public Ruta(Grafo grafo, List<Nodo> rutaIda, List<Nodo> rutaVuelta) {
+        if (rutaIda.size() < 2 || rutaVuelta.size() < 2) {
+            throw new IllegalArgumentException("La ida y la vuelta necesitan al menos dos paradas");
+        }
+        if (rutaIda.get(rutaIda.size() - 1) != rutaVuelta.get(0)
+                || rutaVuelta.get(rutaVuelta.size() - 1) != rutaIda.get(0)) {
+            throw new IllegalArgumentException("La vuelta debe comenzar donde termina la ida y viceversa");
+        }
+
+        this.paradasIda = rutaIda.toArray(new Nodo[0]);
+        this.paradasVuelta = rutaVuelta.toArray(new Nodo[0]);
+        this.indicesIda = new int[paradasIda.length];
+        this.indicesVuelta = new int[paradasVuelta.length];
+        this.tiemposIda = new int[paradasIda.length - 1];
+        this.tiemposVuelta = new int[paradasVuelta.length - 1];
+
+        compilar(grafo, paradasIda, indicesIda, tiemposIda);
+        compilar(grafo, paradasVuelta, indicesVuelta, tiemposVuelta);
+
+        int[] todas = new int[indicesIda.length + indicesVuelta.length];
+        System.arraycopy(indicesIda, 0, todas, 0, indicesIda.length);
+        System.arraycopy(indicesVuelta, 0, todas, indicesIda.length, indicesVuelta.length);
+        this.paradasDistintas = Arrays.stream(todas).sorted().distinct().toArray();
+        this.ranurasIda = new int[indicesIda.length];
+        this.ranurasVuelta = new int[indicesVuelta.length];
+        for (int i = 0; i < indicesIda.length; i++) {
+            ranurasIda[i] = ranura(indicesIda[i]);
+        }
+        for (int i = 0; i < indicesVuelta.length; i++) {
+            ranurasVuelta[i] = ranura(indicesVuelta[i]);
+        }
+    }
+
+    private static void compilar(Grafo grafo, Nodo[] paradas, int[] indices, int[] tiempos) {
+        for (int i = 0; i < paradas.length; i++) {
+            if (!grafo.contiene(paradas[i])) {
+                throw new IllegalArgumentException(
+                        "La parada " + paradas[i].getNombre() + " no pertenece al grafo");
+            }
+            indices[i] = paradas[i].getIndice();
+        }
+        for (int i = 0; i < tiempos.length; i++) {
+            int tiempo = grafo.tiempoArco(indices[i], indices[i + 1]);
+            if (tiempo < 0) {
+                throw new IllegalArgumentException("No existe arco entre "
+                        + paradas[i].getNombre() + " y " + paradas[i + 1].getNombre());
+            }
+            tiempos[i] = tiempo;
+        }
+    }
+
+    // ================= GETTERS =================
+
+    /**
+     * Cantidad de paradas del tramo (ida o vuelta).
+     */
+    public int largo(boolean ida) {
+        return ida ? paradasIda.length : paradasVuelta.length;
+    }
+
+    public Nodo parada(boolean ida, int i) {
+        return ida ? paradasIda[i] : paradasVuelta[i];
+    }
+
+    /**
+     * Índice denso en el grafo de la i-ésima parada del tramo.
+     */
+    public int indiceParada(boolean ida, int i) {
+        return ida ? indicesIda[i] : indicesVuelta[i];
+    }
+
+    /**
+     * Minutos para ir de la parada i a la i+1 del tramo.
+     */
+    public int tiempoTramo(boolean ida, int i) {
+        return ida ? tiemposIda[i] : tiemposVuelta[i];
+    }
+
+    /**
+     * Cantidad de paradas distintas del recorrido (ida y vuelta juntas).
+     */
+    public int getNumRanuras() {
+        return paradasDistintas.length;
+    }
+
+    /**
+     * Índice en el grafo de la parada que ocupa la ranura dada.
+     */
+    public int paradaDeRanura(int ranura) {
+        return paradasDistintas[ranura];
+    }
+
+    /**
+     * Ranura de la i-ésima parada del tramo.
+     */
+    public int ranuraParada(boolean ida, int i) {
+        return ida ? ranurasIda[i] : ranurasVuelta[i];
+    }
+
+    /**
+     * Ranura de una parada del grafo (por índice), o -1 si el recorrido
+     * no pasa por ella.
+     */
+    public int ranura(int indiceParada) {
+        int r = Arrays.binarySearch(paradasDistintas, indiceParada);
+        return r >= 0 ? r : -1;
+    }
+}
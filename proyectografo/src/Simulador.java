@@ -1,6 +1,10 @@
 package src;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Simulador de la red de transporte.
@@ -8,33 +12,152 @@ import java.util.*;
  * y coordina el movimiento de los buses.
  *
  * 1 tick = 10 minutos de tiempo simulado.
+ *
+ * En modo paralelo las paradas se dividen en regiones (ver Particion) y
+ * cada trabajador mueve los buses que llegan a paradas de su región. Un bus
+ * que debe llegar a otra región se traspasa a ella en la ronda siguiente
+ * del mismo tick. El resultado depende solo de la semilla y de la cantidad
+ * de regiones, no de la cantidad de hilos.
+ *
+ * En modo eventos (ver MotorEventos) la simulación salta de evento en
+ * evento con precisión de minutos; tick() sigue funcionando y muestrea el
+ * estado al final de cada bloque de 10 minutos.
+ *
+ * Los pasajeros viven en un PoolPasajeros; paradas y buses guardan solo
+ * sus handles. Los genera un modelo de Demanda. Cada parada tiene su propio
+ * flujo aleatorio derivado de la semilla, así que lo generado en una parada
+ * no depende del orden en que se procesen las demás. No hay transbordos:
+ * un pasajero solo sube a un bus que pasa por su destino, y los viajes
+ * que ninguna línea del origen puede llevar no se generan.
  */
 public class Simulador {
 
+    public static final int MINUTOS_POR_TICK = 10;
+    public static final double PASAJEROS_POR_TICK = 0.3;   // llegadas esperadas por parada y tick
+
+    private static final int MARCA_INSTANTANEA = 0x554d4953;   // "SIMU"
+    private static final int VERSION_INSTANTANEA = 3;   // 3: sin grupo de destinos fuera de la ruta
+
     private Grafo grafo;
     private List<Bus> buses;
     private int tiempoActual; // tiempo en TICKS
-    private Map<Nodo, List<Integer>> tiemposEspera;
-    private Random random;
+    private EstadisticasEspera estadisticas;
+    private final EstadoParadas paradas;          // colas y contadores de cada parada
+
+    // Pasajeros y su generación
+    private final PoolPasajeros pasajeros;
+    private Demanda demanda;
+    private final FlujoAleatorio[] flujos;     // flujo aleatorio de cada parada
+    private final int[] generados;               // llegadas del tick actual por parada
+    private final int[][] destinosGenerados;     // destinos de esas llegadas
+    private int siguienteIdPasajero;
+    private boolean desviarExcedentes;           // andén lleno: desviar (true) o rechazar
+    private Ruta[][] rutasDeParada;              // rutas de la flota por parada; null = recalcular
+
+    // Modo paralelo (null = secuencial)
+    private Particion particion;
+    private ForkJoinPool pool;
+    private int[] pendientes;                    // posiciones en buses de los que siguen, en orden
+    private int[] sigue;                         // por posición en buses: 1 si sigue en la ronda siguiente
+    private int[][] busesDeRegion;               // posiciones en buses de cada región en la ronda
+    private int[] cantidadDeRegion;
+
+    // Modo eventos (null = ticks fijos)
+    private MotorEventos motor;
 
     public Simulador(Grafo grafo) {
+        this(grafo, new Random().nextLong());
+    }
+
+    /**
+     * Crea un simulador reproducible: la misma semilla da la misma corrida.
+     */
+    public Simulador(Grafo grafo, long semilla) {
         this.grafo = grafo;
         this.buses = new ArrayList<>();
         this.tiempoActual = 0; // comienza en 0 ticks
-        this.tiemposEspera = new HashMap<>();
-        this.random = new Random();
 
-        // Inicializar registro de espera por parada
-        for (Nodo n : grafo.getParaderos()) {
-            tiemposEspera.put(n, new ArrayList<>());
+        int numParadas = grafo.getNumParaderos();
+        this.estadisticas = new EstadisticasEspera(numParadas);
+        this.paradas = new EstadoParadas(numParadas);
+        this.pasajeros = new PoolPasajeros(4 * numParadas);
+        this.demanda = new DemandaPoisson(numParadas, PASAJEROS_POR_TICK / MINUTOS_POR_TICK);
+        this.flujos = new FlujoAleatorio[numParadas];
+        FlujoAleatorio raiz = new FlujoAleatorio(semilla);
+        for (int i = 0; i < numParadas; i++) {
+            flujos[i] = raiz.split();
         }
+        this.generados = new int[numParadas];
+        this.destinosGenerados = new int[numParadas][4];
+        this.siguienteIdPasajero = 1;
     }
 
     /**
      * Agrega un bus a la simulación.
      */
     public void agregarBus(Bus bus) {
+        bus.sincronizarReloj(getMinutoActual());
+        bus.asignarSimulacion(pasajeros, paradas, estadisticas);
         buses.add(bus);
+        rutasDeParada = null;
+        if (motor != null) {
+            motor.agregarBus(bus);
+        }
+    }
+
+    /**
+     * Reemplaza el modelo de demanda. Si el motor de eventos está activo,
+     * las llegadas ya programadas se mantienen.
+     */
+    public void setDemanda(Demanda demanda) {
+        this.demanda = demanda;
+    }
+
+    /**
+     * Activa el modo paralelo con la cantidad de regiones indicada, sobre un
+     * pool de hilos propio. Con regiones = 1 equivale al modo secuencial.
+     */
+    public void activarParalelo(int regiones, int hilos) {
+        desactivarParalelo();
+        this.particion = new Particion(grafo, regiones);
+        this.pool = new ForkJoinPool(hilos);
+        this.busesDeRegion = new int[particion.getNumRegiones()][];
+        this.cantidadDeRegion = new int[particion.getNumRegiones()];
+    }
+
+    /**
+     * Cantidad de regiones del modo paralelo, o 0 en modo secuencial.
+     */
+    public int getRegiones() {
+        return particion == null ? 0 : particion.getNumRegiones();
+    }
+
+    /**
+     * Vuelve al modo secuencial y libera el pool de hilos.
+     */
+    public void desactivarParalelo() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        this.particion = null;
+        this.pool = null;
+        this.busesDeRegion = null;
+        this.cantidadDeRegion = null;
+    }
+
+    /**
+     * Cambia al motor de eventos discretos a partir del minuto actual.
+     * Tiene prioridad sobre el modo paralelo mientras esté activo.
+     */
+    public void activarEventos() {
+        motor = new MotorEventos(this, (long) tiempoActual * MINUTOS_POR_TICK);
+    }
+
+    /**
+     * Vuelve a los ticks fijos conservando la posición de cada bus.
+     */
+    public void desactivarEventos() {
+        motor = null;
     }
 
     /**
@@ -46,65 +169,529 @@ public class Simulador {
         // 1. Avanzar tiempo (1 tick = 10 minutos)
         tiempoActual++;
 
+        if (motor != null) {
+            // Procesar todos los eventos hasta el final del tick
+            motor.avanzarHasta((long) tiempoActual * MINUTOS_POR_TICK);
+            return;
+        }
+
         // 2. Generar pasajeros aleatoriamente
         generarPasajeros();
 
-        // 3. Avanzar buses (cada bus maneja su propio tiempo)
+        if (particion == null) {
+            // 3. Avanzar buses (cada bus maneja su propio tiempo;
+            //    las esperas se registran al subir cada pasajero)
+            for (Bus bus : buses) {
+                bus.avanzar();
+            }
+        } else {
+            avanzarBusesPorRegion();
+        }
+
+        // 4. Reciclar las casillas de los que terminaron su viaje
         for (Bus bus : buses) {
-            bus.avanzar(grafo);
+            bus.liberarBajados();
         }
+    }
+
+    /**
+     * Mueve los buses en rondas paralelas: en cada ronda, cada región avanza
+     * (en el orden de la lista de buses) los buses que se dirigen a una de sus
+     * paradas. Los que quedan detenidos en el borde pasan a la ronda siguiente.
+     */
+    private void avanzarBusesPorRegion() {
+        int regiones = particion.getNumRegiones();
+        int[] regionDeParada = particion.regiones();
+        int total = buses.size();
+        if (pendientes == null || pendientes.length < total) {
+            pendientes = new int[total];
+            sigue = new int[total];
+        }
+
+        for (int b = 0; b < total; b++) {
+            buses.get(b).iniciarTick(MINUTOS_POR_TICK);
+            pendientes[b] = b;
+        }
+        int numPendientes = total;
+
+        while (numPendientes > 0) {
+            Arrays.fill(cantidadDeRegion, 0);
+            for (int i = 0; i < numPendientes; i++) {
+                int b = pendientes[i];
+                int r = regionDeParada[buses.get(b).getIndiceSiguiente()];
+                int[] propios = busesDeRegion[r];
+                int k = cantidadDeRegion[r];
+                if (propios == null || k == propios.length) {
+                    propios = busesDeRegion[r] = propios == null ? new int[16] : Arrays.copyOf(propios, 2 * k);
+                }
+                propios[k] = b;
+                cantidadDeRegion[r] = k + 1;
+            }
+
+            // Cada bus está en una sola región: cada tarea escribe solo sus casillas de sigue
+            pool.submit(() -> IntStream.range(0, regiones).parallel().forEach(r -> {
+                int[] propios = busesDeRegion[r];
+                for (int i = 0; i < cantidadDeRegion[r]; i++) {
+                    int b = propios[i];
+                    sigue[b] = buses.get(b).avanzarEnRegion(regionDeParada, r) ? 1 : 0;
+                }
+            })).join();
 
-        // 4. Registrar tiempos de espera
-        registrarTiemposEspera();
+            // Mantener el orden original de los buses para la ronda siguiente
+            int k = 0;
+            for (int i = 0; i < numPendientes; i++) {
+                if (sigue[pendientes[i]] != 0) pendientes[k++] = pendientes[i];
+            }
+            numPendientes = k;
+        }
     }
 
     /**
-     * Genera pasajeros aleatoriamente en las paradas.
+     * Genera las llegadas de pasajeros del tick que empieza en el minuto
+     * actual. La tasa de cada parada se toma al inicio del tick (con el
+     * perfil horario de DemandaPoisson un tick nunca cruza un cambio de hora).
+     *
+     * Primero cada parada sortea, con su propio flujo, cuántos llegan y a
+     * dónde van (en paralelo si hay pool de hilos); luego se crean los
+     * pasajeros en orden de parada, con ids crecientes.
      */
     private void generarPasajeros() {
-        for (Nodo parada : grafo.getParaderos()) {
+        int n = flujos.length;
+        long minuto = (long) (tiempoActual - 1) * MINUTOS_POR_TICK;
+        indexarRutas();
 
-            // 30% de probabilidad por tick
-            if (random.nextDouble() < 0.3) {
+        if (pool == null) {
+            for (int i = 0; i < n; i++) {
+                sortearLlegadas(i, minuto);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, n).parallel()
+                    .forEach(i -> sortearLlegadas(i, minuto))).join();
+        }
 
-                int idPasajero = random.nextInt(10000);
+        // El pool de pasajeros no es concurrente: se llena en orden.
+        // Los handles reemplazan a los destinos en el mismo arreglo.
+        for (int i = 0; i < n; i++) {
+            int k = generados[i];
+            if (k == 0) continue;
+            int[] lote = destinosGenerados[i];
+            for (int j = 0; j < k; j++) {
+                lote[j] = pasajeros.crear(siguienteIdPasajero++, lote[j], minuto);
+            }
+            int aceptados = paradas.agregarLote(pasajeros, i, lote, k);
+            for (int j = aceptados; j < k; j++) {
+                desbordar(i, lote[j]);
+            }
+        }
+    }
 
-                Nodo destino;
-                do {
-                    destino = grafo.getParaderos()
-                            .get(random.nextInt(grafo.getParaderos().size()));
-                } while (destino == parada);
+    /**
+     * Pone al pasajero en la cola de la parada; si el andén está lleno lo
+     * desvía o lo rechaza.
+     *
+     * @return false si el pasajero fue rechazado (su handle ya no es válido).
+     */
+    private boolean encolar(int parada, int pasajero) {
+        return paradas.agregar(pasajeros, parada, pasajero) || desbordar(parada, pasajero);
+    }
 
-                Pasajero p = new Pasajero(
-                        idPasajero,
-                        destino.getNombre(),
-                        System.currentTimeMillis()
-                );
+    /**
+     * Atiende a un pasajero que no cupo en su parada. Con desvío activado va
+     * a la primera parada vecina (según los arcos salientes) con lugar que no
+     * sea su destino; si no hay ninguna, o el desvío está desactivado, se
+     * pierde y su casilla vuelve al pool.
+     */
+    private boolean desbordar(int parada, int pasajero) {
+        if (desviarExcedentes) {
+            int[] off = grafo.offsets();
+            int[] dst = grafo.destinos();
+            int destino = pasajeros.getDestino(pasajero);
+            for (int e = off[parada]; e < off[parada + 1]; e++) {
+                int vecina = dst[e];
+                if (vecina != destino && paradas.agregar(pasajeros, vecina, pasajero)) {
+                    paradas.contarDesvio(parada);
+                    return true;
+                }
+            }
+        }
+        paradas.contarRechazo(parada);
+        pasajeros.liberar(pasajero);
+        return false;
+    }
 
-                parada.agregarPasajero(p);
+    private void sortearLlegadas(int parada, long minuto) {
+        if (grafo.getNumParaderos() < 2) {
+            generados[parada] = 0;      // nadie puede viajar a otra parada
+            return;
+        }
+        FlujoAleatorio flujo = flujos[parada];
+        double media = demanda.tasa(parada, minuto) * MINUTOS_POR_TICK;
+        int k = media > 0 ? poisson(media, flujo) : 0;
+
+        if (destinosGenerados[parada].length < k) {
+            destinosGenerados[parada] = new int[Math.max(k, 2 * destinosGenerados[parada].length)];
+        }
+        int validos = 0;
+        for (int j = 0; j < k; j++) {
+            int destino = demanda.destino(parada, minuto, flujo);
+            if (destino >= 0 && hayLinea(parada, destino)) {
+                destinosGenerados[parada][validos++] = destino;
             }
         }
+        generados[parada] = validos;
     }
 
     /**
-     * Registra el tiempo de espera promedio por parada.
+     * Arma, si hace falta, la lista de rutas distintas de la flota que pasan
+     * por cada parada.
      */
-    private void registrarTiemposEspera() {
-        for (Nodo parada : grafo.getParaderos()) {
+    private void indexarRutas() {
+        if (rutasDeParada != null) return;
+        Set<Ruta> distintas = Collections.newSetFromMap(new IdentityHashMap<>());
+        int[] cuantas = new int[flujos.length];
+        for (Bus bus : buses) {
+            Ruta ruta = bus.getRuta();
+            if (!distintas.add(ruta)) continue;
+            for (int r = 0; r < ruta.getNumRanuras(); r++) {
+                cuantas[ruta.paradaDeRanura(r)]++;
+            }
+        }
+        Ruta[][] porParada = new Ruta[flujos.length][];
+        for (int p = 0; p < porParada.length; p++) {
+            porParada[p] = new Ruta[cuantas[p]];
+            cuantas[p] = 0;
+        }
+        for (Ruta ruta : distintas) {
+            for (int r = 0; r < ruta.getNumRanuras(); r++) {
+                int p = ruta.paradaDeRanura(r);
+                porParada[p][cuantas[p]++] = ruta;
+            }
+        }
+        rutasDeParada = porParada;
+    }
 
-            if (!parada.getCola().isEmpty()) {
-                int total = 0;
+    /**
+     * Indica si alguna línea de la flota pasa por origen y por destino.
+     */
+    private boolean hayLinea(int origen, int destino) {
+        for (Ruta ruta : rutasDeParada[origen]) {
+            if (ruta.ranura(destino) >= 0) return true;
+        }
+        return false;
+    }
 
-                for (Pasajero p : parada.getCola()) {
-                    total += (System.currentTimeMillis() - p.getTiempoInicio());
-                }
+    /**
+     * Muestra de Poisson por el método de Knuth. Las medias grandes se
+     * parten en trozos (la suma de Poisson independientes es Poisson) para
+     * que exp(-media) no se vaya a cero.
+     */
+    private static int poisson(double media, FlujoAleatorio flujo) {
+        int total = 0;
+        while (media > 0) {
+            double trozo = Math.min(media, 30.0);
+            media -= trozo;
+            double limite = Math.exp(-trozo);
+            double p = flujo.nextDouble();
+            while (p > limite) {
+                total++;
+                p *= flujo.nextDouble();
+            }
+        }
+        return total;
+    }
 
-                int promedio = total / parada.getCola().size();
-                tiemposEspera.get(parada).add(promedio);
+    /**
+     * Minuto de la próxima llegada de pasajero a la parada después de desde,
+     * o -1 si no hay ninguna antes de hasta. Usa adelgazamiento: se proponen
+     * llegadas con la tasa máxima y se aceptan con probabilidad
+     * tasa(minuto) / tasaMaxima.
+     */
+    long proximaLlegada(int parada, long desde, long hasta) {
+        double maxima = demanda.tasaMaxima(parada);
+        if (maxima <= 0) {
+            return -1;
+        }
+        FlujoAleatorio flujo = flujos[parada];
+        double t = desde;
+        while (true) {
+            t += -Math.log(1.0 - flujo.nextDouble()) / maxima;
+            long minuto = Math.max(desde + 1, (long) Math.ceil(t));
+            if (minuto >= hasta) {
+                return -1;
+            }
+            if (flujo.nextDouble() * maxima < demanda.tasa(parada, minuto)) {
+                return minuto;
             }
         }
     }
 
+    /**
+     * Crea un pasajero con destino según la demanda y lo pone en la cola de
+     * la parada (usado por el motor de eventos).
+     */
+    void crearPasajero(int parada) {
+        indexarRutas();
+        int destino = demanda.destino(parada, getMinutoActual(), flujos[parada]);
+        if (destino < 0 || !hayLinea(parada, destino)) return;
+        encolar(parada, pasajeros.crear(siguienteIdPasajero++, destino, getMinutoActual()));
+    }
+
+    /**
+     * Agrega un pasajero a la cola de una parada en el minuto actual. Si el
+     * andén está lleno se aplica la misma política que a los generados.
+     *
+     * @return el handle del pasajero en el pool, o -1 si fue rechazado
+     * @throws IllegalArgumentException si alguna parada no es del grafo o
+     *         si origen y destino coinciden.
+     */
+    public int agregarPasajero(Nodo parada, Nodo destino) {
+        if (!grafo.contiene(parada) || !grafo.contiene(destino)) {
+            throw new IllegalArgumentException("Las paradas deben pertenecer al grafo");
+        }
+        if (parada == destino) {
+            throw new IllegalArgumentException("El destino debe ser distinto de la parada");
+        }
+        int h = pasajeros.crear(siguienteIdPasajero++, destino.getIndice(), getMinutoActual());
+        return encolar(parada.getIndice(), h) ? h : -1;
+    }
+
+    /**
+     * Elige qué pasa con quien llega a una parada con el andén lleno (ver
+     * setCapacidadMaxima): true lo desvía a una parada vecina con
+     * lugar, false (por defecto) lo rechaza.
+     */
+    public void setDesviarExcedentes(boolean desviar) {
+        this.desviarExcedentes = desviar;
+    }
+
+    /**
+     * Limita la cantidad de pasajeros que pueden esperar en la parada.
+     * Integer.MAX_VALUE la deja sin límite.
+     */
+    public void setCapacidadMaxima(Nodo parada, int capacidadMaxima) {
+        paradas.cola(parada.getIndice()).setCapacidadMaxima(capacidadMaxima);
+    }
+
+    public int getCapacidadMaxima(Nodo parada) {
+        return paradas.cola(parada.getIndice()).getCapacidadMaxima();
+    }
+
+    // ================= INSTANTÁNEAS =================
+
+    /**
+     * Guarda el estado completo de la simulación en un archivo binario
+     * escrito por mapeo de memoria: reloj, flujos aleatorios, colas, pool de
+     * pasajeros, buses, estadísticas y, si está activo, el motor de eventos.
+     * No incluye el grafo, las rutas ni la demanda, que se toman del
+     * escenario al restaurar.
+     */
+    public void guardarEstado(Path archivo) throws IOException {
+        ArchivoMapeado contador = ArchivoMapeado.contador();
+        escribirEstado(contador);
+        try (ArchivoMapeado salida = ArchivoMapeado.paraEscribir(archivo, contador.getPosicion())) {
+            escribirEstado(salida);
+        }
+    }
+
+    /**
+     * Reemplaza el estado por el de una instantánea. El simulador debe
+     * haberse creado con el mismo grafo y los mismos buses (por ejemplo con
+     * el mismo Escenario); desde ahí la corrida continúa exactamente igual
+     * que la original. También se recupera el modo (eventos o regiones); si
+     * ya había un pool de hilos se conserva su tamaño.
+     *
+     * @throws IllegalStateException si la instantánea es de otra red o flota.
+     */
+    public void restaurarEstado(Path archivo) throws IOException {
+        try (ArchivoMapeado entrada = ArchivoMapeado.paraLeer(archivo)) {
+            if (entrada.getInt() != MARCA_INSTANTANEA || entrada.getInt() != VERSION_INSTANTANEA) {
+                throw new IOException("El archivo no es una instantánea de simulación compatible");
+            }
+            if (entrada.getInt() != grafo.getNumParaderos() || entrada.getInt() != grafo.getNumArcos()
+                    || entrada.getInt() != buses.size()) {
+                throw new IllegalStateException("La instantánea es de otra red o de otra flota");
+            }
+
+            tiempoActual = entrada.getInt();
+            siguienteIdPasajero = entrada.getInt();
+            desviarExcedentes = entrada.getBoolean();
+            for (FlujoAleatorio flujo : flujos) {
+                flujo.setEstado(entrada.getLong(), entrada.getLong());
+            }
+            pasajeros.restaurar(entrada);
+            paradas.restaurar(entrada);
+            estadisticas.restaurar(entrada);
+            for (Bus bus : buses) {
+                bus.restaurar(entrada);
+            }
+
+            int regiones = entrada.getInt();
+            if (regiones == 0) {
+                desactivarParalelo();
+            } else if (particion == null || particion.getNumRegiones() != regiones) {
+                activarParalelo(regiones, pool != null ? pool.getParallelism()
+                        : Runtime.getRuntime().availableProcessors());
+            }
+            motor = entrada.getBoolean() ? new MotorEventos(this, entrada) : null;
+        }
+    }
+
+    private void escribirEstado(ArchivoMapeado salida) throws IOException {
+        salida.putInt(MARCA_INSTANTANEA);
+        salida.putInt(VERSION_INSTANTANEA);
+        salida.putInt(grafo.getNumParaderos());
+        salida.putInt(grafo.getNumArcos());
+        salida.putInt(buses.size());
+
+        salida.putInt(tiempoActual);
+        salida.putInt(siguienteIdPasajero);
+        salida.putBoolean(desviarExcedentes);
+        for (FlujoAleatorio flujo : flujos) {
+            salida.putLong(flujo.getSemilla());
+            salida.putLong(flujo.getGamma());
+        }
+        pasajeros.guardar(salida);
+        paradas.guardar(salida);
+        estadisticas.guardar(salida);
+        for (Bus bus : buses) {
+            bus.guardar(salida);
+        }
+
+        salida.putInt(particion == null ? 0 : particion.getNumRegiones());
+        salida.putBoolean(motor != null);
+        if (motor != null) {
+            motor.guardar(salida);
+        }
+    }
+
+    // ================= ESTADÍSTICAS =================
+
+    /**
+     * Pasajeros esperando en la parada.
+     */
+    public int getEsperandoCuantos(Nodo parada) {
+        return paradas.esperando(parada.getIndice());
+    }
+
+    /**
+     * Espera promedio en minutos de los que están ahora en la cola de la
+     * parada (0 si no hay nadie). Se calcula sin recorrer la cola.
+     */
+    public double getEsperaPromedio(Nodo parada) {
+        return paradas.esperaPromedio(parada.getIndice(), getMinutoActual());
+    }
+
+    /**
+     * Llegadas perdidas en la parada por andén lleno.
+     */
+    public long getRechazados(Nodo parada) {
+        return paradas.rechazados(parada.getIndice());
+    }
+
+    /**
+     * Llegadas de la parada desviadas a otra por andén lleno.
+     */
+    public long getDesviados(Nodo parada) {
+        return paradas.desviados(parada.getIndice());
+    }
+
+    /**
+     * Pasajeros esperando en todas las paradas.
+     */
+    public long getEsperandoTotales() {
+        long total = 0;
+        for (Nodo parada : grafo.getParaderos()) {
+            total += getEsperandoCuantos(parada);
+        }
+        return total;
+    }
+
+    /**
+     * Pasajeros a bordo de todos los buses.
+     */
+    public long getABordoTotales() {
+        long total = 0;
+        for (Bus bus : buses) {
+            total += bus.getCapacidadActual();
+        }
+        return total;
+    }
+
+    /**
+     * Llegadas perdidas en toda la red por andenes llenos.
+     */
+    public long getRechazadosTotales() {
+        long total = 0;
+        for (Nodo parada : grafo.getParaderos()) {
+            total += getRechazados(parada);
+        }
+        return total;
+    }
+
+    /**
+     * Llegadas desviadas a otra parada por andenes llenos.
+     */
+    public long getDesviadosTotales() {
+        long total = 0;
+        for (Nodo parada : grafo.getParaderos()) {
+            total += getDesviados(parada);
+        }
+        return total;
+    }
+
+    /**
+     * Activa una ventana deslizante de esperas de la duración indicada en
+     * minutos simulados (por ejemplo 60 para la última hora), o la desactiva
+     * con minutos <= 0. La ventana avanza en intervalos de un sexto de su
+     * duración.
+     */
+    public void setVentanaEsperas(long minutos) {
+        estadisticas.setVentana(minutos);
+    }
+
+    /**
+     * Esperas de los pasajeros que subieron en la parada desde el inicio
+     * de la corrida (copia).
+     */
+    public HistogramaLog getEsperas(Nodo parada) {
+        HistogramaLog h = new HistogramaLog();
+        estadisticas.sumarAcumulado(parada.getIndice(), h);
+        return h;
+    }
+
+    /**
+     * Esperas de toda la red desde el inicio de la corrida.
+     */
+    public HistogramaLog getEsperasTotales() {
+        HistogramaLog h = new HistogramaLog();
+        for (int i = 0; i < estadisticas.getNumParadas(); i++) {
+            estadisticas.sumarAcumulado(i, h);
+        }
+        return h;
+    }
+
+    /**
+     * Esperas de la parada dentro de la ventana deslizante (vacío si no
+     * está activada).
+     */
+    public HistogramaLog getEsperasRecientes(Nodo parada) {
+        HistogramaLog h = new HistogramaLog();
+        estadisticas.sumarVentana(parada.getIndice(), getMinutoActual(), h);
+        return h;
+    }
+
+    /**
+     * Esperas de toda la red dentro de la ventana deslizante.
+     */
+    public HistogramaLog getEsperasRecientesTotales() {
+        HistogramaLog h = new HistogramaLog();
+        long ahora = getMinutoActual();
+        for (int i = 0; i < estadisticas.getNumParadas(); i++) {
+            estadisticas.sumarVentana(i, ahora, h);
+        }
+        return h;
+    }
+
     // ================= GETTERS =================
 
     /**
@@ -114,6 +701,25 @@ public class Simulador {
         return tiempoActual;
     }
 
+    /**
+     * Retorna el minuto simulado actual (en modo eventos, el del último
+     * evento procesado o el borde del último tick).
+     */
+    public long getMinutoActual() {
+        return motor != null ? motor.getAhora() : (long) tiempoActual * MINUTOS_POR_TICK;
+    }
+
+    /**
+     * Pool con los pasajeros vivos (esperando o a bordo).
+     */
+    public PoolPasajeros getPasajeros() {
+        return pasajeros;
+    }
+
+    public Demanda getDemanda() {
+        return demanda;
+    }
+
     /**
      * Retorna los buses activos.
      */
@@ -0,0 +1,63 @@
+package src;
+
+/**
+ * Tabla de alias (método de Vose) para muestrear una distribución discreta
+ * en O(1) por muestra, después de una preparación O(k).
+ */
+public class TablaAlias {
+
+    private final int[] valores;
+    private final double[] probabilidad;
+    private final int[] alias;
+
+    /**
+     * @param valores resultados posibles
+     * @param pesos   pesos no negativos (no necesitan sumar 1)
+     */
+    public TablaAlias(int[] valores, double[] pesos) {
+        int k = valores.length;
+        if (k == 0 || pesos.length != k) {
+            throw new IllegalArgumentException("Se necesita un peso por valor");
+        }
+        double suma = 0;
+        for (double p : pesos) {
+            if (p < 0) throw new IllegalArgumentException("Pesos negativos");
+            suma += p;
+        }
+        if (suma <= 0) {
+            throw new IllegalArgumentException("La suma de los pesos debe ser positiva");
+        }
+
+        this.valores = valores.clone();
+        this.probabilidad = new double[k];
+        this.alias = new int[k];
+
+        double[] escalado = new double[k];
+        int[] chicos = new int[k];
+        int[] grandes = new int[k];
+        int numChicos = 0, numGrandes = 0;
+        for (int i = 0; i < k; i++) {
+            escalado[i] = pesos[i] * k / suma;
+            if (escalado[i] < 1.0) chicos[numChicos++] = i;
+            else grandes[numGrandes++] = i;
+        }
+
+        while (numChicos > 0 && numGrandes > 0) {
+            int chico = chicos[--numChicos];
+            int grande = grandes[--numGrandes];
+            probabilidad[chico] = escalado[chico];
+            alias[chico] = grande;
+            escalado[grande] = escalado[grande] + escalado[chico] - 1.0;
+            if (escalado[grande] < 1.0) chicos[numChicos++] = grande;
+            else grandes[numGrandes++] = grande;
+        }
+        // Los que quedan valen 1 salvo por error de redondeo
+        while (numGrandes > 0) probabilidad[grandes[--numGrandes]] = 1.0;
+        while (numChicos > 0) probabilidad[chicos[--numChicos]] = 1.0;
+    }
+
+    public int muestrear(FlujoAleatorio random) {
+        int i = random.nextInt(probabilidad.length);
+        return random.nextDouble() < probabilidad[i] ? valores[i] : valores[alias[i]];
+    }
+}
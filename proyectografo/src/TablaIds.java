@@ -0,0 +1,98 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * Numeración densa de identificadores de texto (stop_id, trip_id, ...).
+ *
+ * Los identificadores se guardan concatenados en un único arreglo de bytes y
+ * se buscan con direccionamiento abierto sobre ese arreglo, así que numerar
+ * millones de ids no crea un String ni una entrada de HashMap por cada uno.
+ * El primer id agregado recibe el número 0, el siguiente 1, etc.
+ */
+final class TablaIds {
+
+    private byte[] bytes = new byte[1 << 12];   // ids concatenados
+    private int usados;
+    private int[] inicios = new int[64];        // inicios[k]..inicios[k+1] = bytes del id k
+    private int cantidad;
+    private int[] tabla = new int[128];         // k + 1 por casilla, 0 = libre
+    private int[] hashes = new int[64];
+
+    /**
+     * Número del id bytes[desde, desde + largo), o -1 si no fue agregado.
+     */
+    int buscar(byte[] b, int desde, int largo) {
+        int h = hash(b, desde, largo);
+        int mascara = tabla.length - 1;
+        for (int i = h & mascara; tabla[i] != 0; i = (i + 1) & mascara) {
+            int k = tabla[i] - 1;
+            if (hashes[k] == h && igual(k, b, desde, largo)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Número del id, agregándolo si es nuevo.
+     */
+    int agregar(byte[] b, int desde, int largo) {
+        int h = hash(b, desde, largo);
+        int mascara = tabla.length - 1;
+        int i = h & mascara;
+        for (; tabla[i] != 0; i = (i + 1) & mascara) {
+            int k = tabla[i] - 1;
+            if (hashes[k] == h && igual(k, b, desde, largo)) {
+                return k;
+            }
+        }
+
+        if (cantidad + 1 >= inicios.length) {
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        if (usados + largo > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(usados + largo, bytes.length * 2));
+        }
+        System.arraycopy(b, desde, bytes, usados, largo);
+        inicios[cantidad] = usados;
+        usados += largo;
+        inicios[cantidad + 1] = usados;
+        hashes[cantidad] = h;
+        tabla[i] = ++cantidad;
+
+        if (cantidad * 2 > tabla.length) {
+            redimensionar();
+        }
+        return cantidad - 1;
+    }
+
+    int size() {
+        return cantidad;
+    }
+
+    private boolean igual(int k, byte[] b, int desde, int largo) {
+        return Arrays.equals(bytes, inicios[k], inicios[k + 1], b, desde, desde + largo);
+    }
+
+    private void redimensionar() {
+        tabla = new int[tabla.length * 2];
+        int mascara = tabla.length - 1;
+        for (int k = 0; k < cantidad; k++) {
+            int i = hashes[k] & mascara;
+            while (tabla[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = k + 1;
+        }
+    }
+
+    private static int hash(byte[] b, int desde, int largo) {
+        int h = 0x811C9DC5;                 // FNV-1a
+        for (int i = desde; i < desde + largo; i++) {
+            h = (h ^ b[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -3,7 +3,13 @@ package src;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.swing.Timer;
 import java.util.List;
@@ -33,9 +39,12 @@ public class TransporteGUI extends JFrame {
     private JComboBox<String> cbDestino;
     private JLabel lblResultadoRuta;
     private List<Nodo> rutaResaltada; // Para guardar el camino a dibujar
+    private boolean eligiendoDestino; // El próximo clic derecho en el mapa elige el destino
 
-    // Control animación
+    // Control animación: la simulación corre en su hilo y el timer solo repinta
+    private HiloSimulacion hilo;
     private Timer timer;
+    private int tickMostrado = -1;
 
     public TransporteGUI(Simulador simulador) {
         this.simulador = simulador;
@@ -49,11 +58,13 @@ public class TransporteGUI extends JFrame {
         setLayout(new BorderLayout());
 
         panelGrafo = new GraphPanel();
+        hilo = new HiloSimulacion(simulador, panelGrafo::repaint);
         add(panelGrafo, BorderLayout.CENTER);
         add(crearPanelControl(), BorderLayout.EAST);
 
-        // Timer: controla ticks automáticos
-        timer = new Timer(600, e -> ejecutarTick());
+        // Timer: hasta 60 cuadros por segundo mientras haya algo que animar
+        timer = new Timer(16, e -> refrescar());
+        timer.start();
 
         setVisible(true);
     }
@@ -67,9 +78,9 @@ public class TransporteGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // --- SUB-PANEL SIMULACIÓN ---
-        JPanel pSim = new JPanel(new GridLayout(4, 1, 5, 5));
+        JPanel pSim = new JPanel(new GridLayout(6, 1, 5, 5));
         pSim.setBorder(new TitledBorder("Control Simulación"));
-        pSim.setMaximumSize(new Dimension(300, 150));
+        pSim.setMaximumSize(new Dimension(300, 220));
 
         lblTiempo = new JLabel("Tiempo: 0 ticks", SwingConstants.CENTER);
         lblTiempo.setFont(new Font("Arial", Font.BOLD, 14));
@@ -83,22 +94,31 @@ public class TransporteGUI extends JFrame {
             btnIniciar.setEnabled(false);
             btnPausar.setEnabled(true);
             btnPaso.setEnabled(false);
-            timer.start();
+            hilo.iniciar();
         });
 
         btnPausar.addActionListener(e -> {
-            timer.stop();
+            hilo.pausar();
             btnIniciar.setEnabled(true);
             btnPausar.setEnabled(false);
             btnPaso.setEnabled(true);
         });
 
-        btnPaso.addActionListener(e -> ejecutarTick());
+        btnPaso.addActionListener(e -> hilo.paso());
+
+        String[] velocidades = {"0.5x", "1x", "2x", "5x", "20x", "Máxima"};
+        double[] multiplicadores = {0.5, 1, 2, 5, 20, HiloSimulacion.VELOCIDAD_MAXIMA};
+        JComboBox<String> cbVelocidad = new JComboBox<>(velocidades);
+        cbVelocidad.setSelectedIndex(1);
+        cbVelocidad.addActionListener(e ->
+                hilo.setVelocidad(multiplicadores[cbVelocidad.getSelectedIndex()]));
 
         pSim.add(lblTiempo);
         pSim.add(btnIniciar);
         pSim.add(btnPausar);
         pSim.add(btnPaso);
+        pSim.add(new JLabel("Velocidad:"));
+        pSim.add(cbVelocidad);
 
         // --- SUB-PANEL RUTAS (NUEVO) ---
         JPanel pRuta = new JPanel(new GridLayout(6, 1, 5, 5));
@@ -124,7 +144,7 @@ public class TransporteGUI extends JFrame {
         btnLimpiar.addActionListener(e -> {
             rutaResaltada.clear();
             lblResultadoRuta.setText("");
-            panelGrafo.repaint();
+            panelGrafo.invalidarRuta();
         });
 
         pRuta.add(new JLabel("Origen:"));
@@ -154,262 +174,611 @@ public class TransporteGUI extends JFrame {
             return;
         }
 
-        Nodo inicio = grafo.getParaderos().stream().filter(n -> n.getNombre().equals(nombreOrigen)).findFirst().orElse(null);
-        Nodo fin = grafo.getParaderos().stream().filter(n -> n.getNombre().equals(nombreDestino)).findFirst().orElse(null);
+        Nodo inicio = grafo.getParaderoPorNombre(nombreOrigen);
+        Nodo fin = grafo.getParaderoPorNombre(nombreDestino);
 
         if (inicio == null || fin == null) return;
 
-        // Estructuras para Dijkstra
-        Map<Nodo, Integer> distancias = new HashMap<>();
-        Map<Nodo, Nodo> previo = new HashMap<>();
-        PriorityQueue<Nodo> cola = new PriorityQueue<>(Comparator.comparingInt(distancias::get));
-
-        // Inicialización
-        for (Nodo n : grafo.getParaderos()) {
-            distancias.put(n, Integer.MAX_VALUE);
-        }
-        distancias.put(inicio, 0);
-        cola.add(inicio);
-
-        while (!cola.isEmpty()) {
-            Nodo actual = cola.poll();
-
-            if (actual.equals(fin)) break; // Llegamos al destino
-
-            if (distancias.get(actual) == Integer.MAX_VALUE) break; // No hay ruta
-
-            for (Arco arco : grafo.getAdyacentes(actual)) {
-                Nodo vecino = arco.getDestino();
-                int nuevaDist = distancias.get(actual) + arco.getTiempo();
-
-                if (nuevaDist < distancias.get(vecino)) {
-                    distancias.put(vecino, nuevaDist);
-                    previo.put(vecino, actual);
-                    
-                    // Actualizar cola (remover y agregar para reordenar)
-                    cola.remove(vecino);
-                    cola.add(vecino);
-                }
-            }
-        }
+        // El grafo resuelve la consulta (y reutiliza árboles ya calculados)
+        int distancia = grafo.distancia(inicio, fin);
 
         // Reconstruir camino
         rutaResaltada.clear();
-        if (distancias.get(fin) == Integer.MAX_VALUE) {
+        if (distancia == Grafo.INFINITO) {
             lblResultadoRuta.setText("No hay ruta posible.");
         } else {
-            Nodo paso = fin;
-            while (paso != null) {
-                rutaResaltada.add(0, paso); // Insertar al inicio
-                paso = previo.get(paso);
-            }
-            lblResultadoRuta.setText("Tiempo estimado: " + distancias.get(fin) + " min");
+            rutaResaltada.addAll(grafo.dijkstra(inicio, fin));
+            lblResultadoRuta.setText("Tiempo estimado: " + distancia + " min");
         }
         
-        panelGrafo.repaint();
+        panelGrafo.invalidarRuta();
+    }
+
+    /**
+     * Clic derecho en el mapa: la parada más cercana pasa a ser el origen
+     * y, en el clic siguiente, el destino, y se calcula la ruta.
+     */
+    private void elegirParada(Nodo parada) {
+        if (parada == null) return;
+        if (!eligiendoDestino) {
+            cbOrigen.setSelectedItem(parada.getNombre());
+            lblResultadoRuta.setText("Origen: " + parada.getNombre() + " (clic derecho: destino)");
+        } else {
+            cbDestino.setSelectedItem(parada.getNombre());
+            calcularDijkstra();
+        }
+        eligiendoDestino = !eligiendoDestino;
     }
 
     // SIMULACIÓN 
 
-    private void ejecutarTick() {
-        simulador.tick();
-        lblTiempo.setText(
-                "Tiempo: " + simulador.getTiempoActual() + " ticks (10 min c/u)"
-        );
-        panelGrafo.repaint();
+    /**
+     * Se llama en cada cuadro: actualiza el reloj y repinta solo si llegó
+     * una vista nueva o los buses aún se están moviendo hacia ella. Los
+     * repaint se fusionan, así que la interfaz no depende de cuánto tarde
+     * un tick.
+     */
+    private void refrescar() {
+        VistaSimulacion vista = hilo.getVista();
+        if (vista.getTick() != tickMostrado) {
+            tickMostrado = vista.getTick();
+            lblTiempo.setText("Tiempo: " + tickMostrado + " ticks (10 min c/u)");
+        }
+        if (panelGrafo.animando(vista)) {
+            panelGrafo.repaint();
+        }
     }
 
     //  PANEL DE DIBUJO 
 
+    /**
+     * Dibuja la red en capas. La red (arcos, tiempos y paradas) y la ruta
+     * resaltada se pintan una vez en imágenes que se reutilizan mientras no
+     * cambien el grafo, el tamaño del panel, la vista o la ruta; en cada
+     * repintado solo se dibujan encima los buses y las colas de las paradas.
+     *
+     * La vista se acerca con la rueda (hacia el cursor), se arrastra con el
+     * ratón y se ajusta a la red con doble clic; el clic derecho elige la
+     * parada más cercana como origen o destino de una ruta. La capa de la red recorre
+     * solo lo visible con un ArbolCuadrantes y baja el detalle al alejarse:
+     * sin tiempos ni nombres cuando las paradas quedan juntas, y con las
+     * celdas de menos de UMBRAL_CELDA píxeles reducidas a un punto. Las
+     * colas se suman por casillas de la pantalla. Así el costo de un cuadro
+     * depende de los píxeles y no del tamaño de la red.
+     *
+     * Buses y colas salen de las vistas que publica el hilo de la
+     * simulación. Entre la vista anterior y la actual cada bus se desliza
+     * durante lo que tardó en llegar la actual, así el movimiento es
+     * continuo sea cual sea el ritmo de ticks, que depende de la velocidad
+     * fijada en HiloSimulacion (un tick cada 600 ms a velocidad 1).
+     */
     private class GraphPanel extends JPanel {
 
+        private static final double UMBRAL_CELDA = 10;          // px
+        private static final double SEPARACION_DETALLE = 40;    // px entre paradas para mostrar nombres
+        private static final double LARGO_ETIQUETA = 60;        // px de arco para mostrar su tiempo
+        private static final int CASILLA_COLAS = 32;            // px
+
+        private final Color colorFondo = new Color(245, 245, 250);
+        private final Color colorParada = new Color(100, 149, 237);
+        private final Color colorRuta = new Color(50, 205, 50, 180);   // verde lima semitransparente
+        private final Color colorBordeRuta = new Color(0, 100, 0);
+        private final Color colorBus = new Color(255, 69, 0);
+        private final BasicStroke trazoArco = new BasicStroke(2);
+        private final BasicStroke trazoRuta = new BasicStroke(4);
+        private final BasicStroke trazoBordeRuta = new BasicStroke(3);
+        private final BasicStroke trazoNormal = new BasicStroke(1);
+
+        // Vista: pantalla = mundo · zoom + desplazamiento
+        private double zoom = 1;
+        private double desplazamientoX;
+        private double desplazamientoY;
+        private ArbolCuadrantes arbol;
+        private long versionArbol = -1;
+
+        // Capas en caché y lo que las invalida
+        private BufferedImage capaRed;
+        private BufferedImage capaRuta;
+        private long versionRed = -1;
+        private double zoomCapa, desplazamientoXCapa, desplazamientoYCapa;
+        private boolean rutaVigente;
+
+        // Paradas visibles en la capa de la red, reutilizadas entre repintados
+        private int[] paradasVisibles = new int[256];
+        private int numVisibles;
+
+        // Vistas entre las que se interpola y cuánto tardó en llegar la actual
+        private VistaSimulacion anterior;
+        private VistaSimulacion actual;
+        private long intervalo = 600_000_000L;
+
+        // Marcas de cola ya ubicadas en pantalla para la vista actual
+        private VistaSimulacion vistaColas;
+        private double zoomColas, desplazamientoXColas, desplazamientoYColas;
+        private int[] colaX = new int[64];
+        private int[] colaY = new int[64];
+        private String[] colaTexto = new String[64];
+        private int numColas;
+
+        private String[] etiquetasBus = new String[0];
+        private boolean[] ocupado = new boolean[0];
+
         public GraphPanel() {
-            setBackground(new Color(245, 245, 250));
+            setBackground(colorFondo);
+
+            MouseAdapter raton = new MouseAdapter() {
+                private Point ultimo;
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    ultimo = e.getPoint();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (ultimo == null) return;
+                    desplazamientoX += e.getX() - ultimo.x;
+                    desplazamientoY += e.getY() - ultimo.y;
+                    ultimo = e.getPoint();
+                    repaint();
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    acercar(Math.pow(1.2, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (SwingUtilities.isRightMouseButton(e)) {
+                        elegirParada(grafo.paradaMasCercana((e.getX() - desplazamientoX) / zoom,
+                                (e.getY() - desplazamientoY) / zoom));
+                    } else if (e.getClickCount() == 2) {
+                        ajustarVista();
+                    }
+                }
+            };
+            addMouseListener(raton);
+            addMouseMotionListener(raton);
+            addMouseWheelListener(raton);
+        }
+
+        /**
+         * Vuelve a pintar la capa de la ruta en el próximo repintado.
+         */
+        void invalidarRuta() {
+            rutaVigente = false;
+            repaint();
+        }
+
+        /**
+         * Indica si hace falta otro cuadro: llegó una vista que no se ha
+         * pintado o los buses no terminan de llegar a la última.
+         */
+        boolean animando(VistaSimulacion vista) {
+            return vista != actual || System.nanoTime() - actual.getPublicada() < intervalo;
+        }
+
+        /**
+         * Encuadra toda la red en el panel, con un margen.
+         */
+        void ajustarVista() {
+            asegurarArbol();
+            double margen = 40;
+            double anchoRed = Math.max(arbol.getMaxX() - arbol.getMinX(), 1e-9);
+            double altoRed = Math.max(arbol.getMaxY() - arbol.getMinY(), 1e-9);
+            zoom = Math.max(1e-9, Math.min((getWidth() - 2 * margen) / anchoRed,
+                    (getHeight() - 2 * margen) / altoRed));
+            desplazamientoX = (getWidth() - anchoRed * zoom) / 2 - arbol.getMinX() * zoom;
+            desplazamientoY = (getHeight() - altoRed * zoom) / 2 - arbol.getMinY() * zoom;
+            repaint();
+        }
+
+        /**
+         * Multiplica el zoom dejando fijo el punto del mundo bajo (x, y).
+         */
+        private void acercar(double factor, int x, int y) {
+            asegurarArbol();
+            double anchoRed = Math.max(arbol.getMaxX() - arbol.getMinX(), arbol.getMaxY() - arbol.getMinY());
+            // Desde ver la red en un cuarto del panel hasta ver paradas a 300 px
+            double minimo = Math.min(getWidth(), getHeight()) / 4.0 / Math.max(anchoRed, 1e-9);
+            double maximo = Math.max(minimo * 32, 300 / arbol.getSeparacion());
+            double nuevo = Math.max(minimo, Math.min(maximo, zoom * factor));
+            double mundoX = (x - desplazamientoX) / zoom;
+            double mundoY = (y - desplazamientoY) / zoom;
+            zoom = nuevo;
+            desplazamientoX = x - mundoX * zoom;
+            desplazamientoY = y - mundoY * zoom;
+            repaint();
+        }
+
+        /**
+         * Rehace el índice espacial si cambió el grafo. La primera vez deja
+         * la vista tal cual si la red ya entra en el panel y si no la ajusta.
+         */
+        private void asegurarArbol() {
+            if (arbol != null && versionArbol == grafo.getVersion()) return;
+            boolean primera = arbol == null;
+            arbol = new ArbolCuadrantes(grafo);
+            versionArbol = grafo.getVersion();
+            if (primera && (arbol.getMinX() < 0 || arbol.getMinY() < 0
+                    || arbol.getMaxX() > getWidth() || arbol.getMaxY() > getHeight())) {
+                ajustarVista();
+            }
+        }
+
+        private boolean detalle() {
+            return arbol.getSeparacion() * zoom >= SEPARACION_DETALLE;
+        }
+
+        private double pantallaX(double x) {
+            return x * zoom + desplazamientoX;
+        }
+
+        private double pantallaY(double y) {
+            return y * zoom + desplazamientoY;
+        }
+
+        /**
+         * Pasa a la vista recién publicada, si la hay.
+         */
+        private void tomarVista() {
+            VistaSimulacion vista = hilo.getVista();
+            if (vista == actual) return;
+            if (actual != null) {
+                // Entre 16 ms y 1,2 s (el ritmo a 0.5x): tras una pausa o un paso suelto no se arrastra
+                intervalo = Math.max(16_000_000L, Math.min(1_200_000_000L,
+                        vista.getPublicada() - actual.getPublicada()));
+            }
+            anterior = actual;
+            actual = vista;
         }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
             Graphics2D g2 = (Graphics2D) g;
+            int ancho = getWidth(), alto = getHeight();
+            if (ancho <= 0 || alto <= 0) return;
+            asegurarArbol();
+
+            // Las capas se pintan a la resolución real de la pantalla (HiDPI)
+            double escala = g2.getTransform().getScaleX();
+            int anchoImagen = (int) Math.ceil(ancho * escala);
+            int altoImagen = (int) Math.ceil(alto * escala);
+
+            if (capaRed == null || capaRed.getWidth() != anchoImagen || capaRed.getHeight() != altoImagen) {
+                capaRed = new BufferedImage(anchoImagen, altoImagen, BufferedImage.TYPE_INT_RGB);
+                capaRuta = new BufferedImage(anchoImagen, altoImagen, BufferedImage.TYPE_INT_ARGB);
+                versionRed = -1;
+            }
+            if (versionRed != grafo.getVersion() || zoomCapa != zoom
+                    || desplazamientoXCapa != desplazamientoX || desplazamientoYCapa != desplazamientoY) {
+                pintarRed(capaRed, escala);
+                versionRed = grafo.getVersion();
+                zoomCapa = zoom;
+                desplazamientoXCapa = desplazamientoX;
+                desplazamientoYCapa = desplazamientoY;
+                rutaVigente = false;
+            }
+            g2.drawImage(capaRed, 0, 0, ancho, alto, null);
+            if (!rutaResaltada.isEmpty()) {
+                if (!rutaVigente) {
+                    pintarRuta(capaRuta, escala);
+                    rutaVigente = true;
+                }
+                g2.drawImage(capaRuta, 0, 0, ancho, alto, null);
+            }
 
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                     RenderingHints.VALUE_ANTIALIAS_ON);
+            tomarVista();
+            pintarColas(g2);
+            pintarBuses(g2);
+        }
 
-            // 1. Dibujar arcos (Grafo base)
-            g2.setStroke(new BasicStroke(2));
+        private Graphics2D graficosDe(BufferedImage imagen, double escala) {
+            Graphics2D g2 = imagen.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.scale(escala, escala);
+            g2.setFont(getFont());
+            return g2;
+        }
+
+        /**
+         * Capa fija: los arcos visibles con su tiempo y las paradas con su
+         * nombre, según el nivel de detalle.
+         */
+        private void pintarRed(BufferedImage imagen, double escala) {
+            Graphics2D g2 = graficosDe(imagen, escala);
+            g2.setColor(colorFondo);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+
+            int[] dst = grafo.destinos();
+            int[] tie = grafo.tiempos();
+            boolean detalle = detalle();
+            if (!detalle) {
+                // Miles de trazos cortos: sin suavizado se dibujan varias veces más rápido
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            }
+            Line2D.Double linea = new Line2D.Double();
+            g2.setStroke(detalle ? trazoArco : trazoNormal);
             g2.setColor(Color.LIGHT_GRAY);
 
-            for (Nodo n : grafo.getParaderos()) {
-                for (Arco a : grafo.getAdyacentes(n)) {
-                    Nodo d = a.getDestino();
-                    g2.draw(new Line2D.Double(
-                            n.getPosicionX(), n.getPosicionY(),
-                            d.getPosicionX(), d.getPosicionY()
-                    ));
-                    // Peso
-                    int mx = (int) ((n.getPosicionX() + d.getPosicionX()) / 2);
-                    int my = (int) ((n.getPosicionY() + d.getPosicionY()) / 2);
-                    g2.drawString(a.getTiempo() + "m", mx, my);
+            // Los arcos se dibujan al recorrer; las paradas se juntan para ir encima
+            numVisibles = 0;
+            arbol.recorrer(-desplazamientoX / zoom, -desplazamientoY / zoom,
+                    (getWidth() - desplazamientoX) / zoom, (getHeight() - desplazamientoY) / zoom,
+                    UMBRAL_CELDA / zoom, new ArbolCuadrantes.Visitante() {
+                        @Override
+                        public void arco(int origen, int arco) {
+                            Nodo n = grafo.getNodo(origen);
+                            Nodo d = grafo.getNodo(dst[arco]);
+                            double x1 = pantallaX(n.getPosicionX()), y1 = pantallaY(n.getPosicionY());
+                            double x2 = pantallaX(d.getPosicionX()), y2 = pantallaY(d.getPosicionY());
+                            linea.setLine(x1, y1, x2, y2);
+                            g2.draw(linea);
+                            // Peso, si el arco se ve lo bastante largo
+                            if (detalle && Math.hypot(x2 - x1, y2 - y1) >= LARGO_ETIQUETA) {
+                                g2.drawString(tie[arco] + "m", (int) ((x1 + x2) / 2), (int) ((y1 + y2) / 2));
+                            }
+                        }
+
+                        @Override
+                        public void parada(int parada) {
+                            agregarVisible(parada);
+                        }
+
+                        @Override
+                        public void grupo(int representante, int cantidad) {
+                            agregarVisible(representante);
+                        }
+                    });
+
+            for (int i = 0; i < numVisibles; i++) {
+                Nodo n = grafo.getNodo(paradasVisibles[i]);
+                int x = (int) pantallaX(n.getPosicionX());
+                int y = (int) pantallaY(n.getPosicionY());
+                if (detalle) {
+                    g2.setColor(colorParada);
+                    g2.fillOval(x - 12, y - 12, 24, 24);
+                    g2.setColor(Color.BLACK);
+                    g2.drawOval(x - 12, y - 12, 24, 24);
+                    g2.drawString(n.getNombre(), x - 15, y - 15);
+                } else {
+                    g2.setColor(colorParada);
+                    g2.fillRect(x - 1, y - 1, 3, 3);
                 }
             }
+            g2.dispose();
+        }
 
-            // Dibujar RUTA RESALTADA
-            if (!rutaResaltada.isEmpty()) {
-                g2.setStroke(new BasicStroke(4)); // Línea más gruesa
-                g2.setColor(new Color(50, 205, 50, 180)); // Verde lima semitransparente
-
-                for (int i = 0; i < rutaResaltada.size() - 1; i++) {
-                    Nodo n1 = rutaResaltada.get(i);
-                    Nodo n2 = rutaResaltada.get(i + 1);
-                    g2.draw(new Line2D.Double(
-                            n1.getPosicionX(), n1.getPosicionY(),
-                            n2.getPosicionX(), n2.getPosicionY()
-                    ));
-                }
-                // Volver a trazo normal
-                g2.setStroke(new BasicStroke(1));
+        private void agregarVisible(int parada) {
+            if (numVisibles == paradasVisibles.length) {
+                paradasVisibles = Arrays.copyOf(paradasVisibles, 2 * numVisibles);
             }
+            paradasVisibles[numVisibles++] = parada;
+        }
 
-            // 2. Dibujar nodos
-            for (Nodo n : grafo.getParaderos()) {
-                int x = (int) n.getPosicionX();
-                int y = (int) n.getPosicionY();
-
-                g2.setColor(new Color(100, 149, 237));
-                g2.fillOval(x - 12, y - 12, 24, 24);
-                
-                // Si el nodo es parte de la ruta, bordearlo de verde
-                if(rutaResaltada.contains(n)){
-                    g2.setColor(new Color(0, 100, 0));
-                    g2.setStroke(new BasicStroke(3));
-                } else {
-                    g2.setColor(Color.BLACK);
-                    g2.setStroke(new BasicStroke(1));
+        /**
+         * Capa de la ruta resaltada: el camino y el borde verde de sus paradas.
+         */
+        private void pintarRuta(BufferedImage imagen, double escala) {
+            Graphics2D g2 = graficosDe(imagen, escala);
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setComposite(AlphaComposite.SrcOver);
+
+            Line2D.Double linea = new Line2D.Double();
+            g2.setStroke(trazoRuta);
+            g2.setColor(colorRuta);
+            for (int i = 0; i < rutaResaltada.size() - 1; i++) {
+                Nodo n1 = rutaResaltada.get(i);
+                Nodo n2 = rutaResaltada.get(i + 1);
+                linea.setLine(pantallaX(n1.getPosicionX()), pantallaY(n1.getPosicionY()),
+                        pantallaX(n2.getPosicionX()), pantallaY(n2.getPosicionY()));
+                g2.draw(linea);
+            }
+            if (detalle()) {
+                g2.setStroke(trazoBordeRuta);
+                g2.setColor(colorBordeRuta);
+                for (Nodo n : rutaResaltada) {
+                    g2.drawOval((int) pantallaX(n.getPosicionX()) - 12, (int) pantallaY(n.getPosicionY()) - 12, 24, 24);
                 }
-                
-                g2.drawOval(x - 12, y - 12, 24, 24);
-                
-                // Reset color texto
-                g2.setColor(Color.BLACK);
-                g2.drawString(n.getNombre(), x - 15, y - 15);
-
-                if (n.getEsperandoCuantos() > 0) {
-                    g2.setColor(Color.RED);
-                    g2.fillOval(x + 6, y - 14, 16, 16);
-                    g2.setColor(Color.WHITE);
-                    g2.drawString(
-                            String.valueOf(n.getEsperandoCuantos()),
-                            x + 10, y - 2
-                    );
+            }
+            g2.dispose();
+        }
+
+        /**
+         * Ubica en pantalla las marcas de cola de la vista actual. Con
+         * detalle hay una por parada visible (las de la capa de la red); si
+         * no, cada casilla de CASILLA_COLAS px muestra la suma de sus colas,
+         * así las marcas no se tapan. Se recalcula solo si cambian la vista
+         * de la simulación o la de la pantalla.
+         */
+        private void ubicarColas() {
+            if (vistaColas == actual && zoomColas == zoom
+                    && desplazamientoXColas == desplazamientoX && desplazamientoYColas == desplazamientoY) {
+                return;
+            }
+            vistaColas = actual;
+            zoomColas = zoom;
+            desplazamientoXColas = desplazamientoX;
+            desplazamientoYColas = desplazamientoY;
+            numColas = 0;
+
+            if (detalle()) {
+                for (int i = 0; i < numVisibles; i++) {
+                    int p = paradasVisibles[i];
+                    int k = actual.buscarCola(p);
+                    if (k >= 0) {
+                        agregarCola((int) pantallaX(arbol.x(p)), (int) pantallaY(arbol.y(p)), actual.textoCola(k));
+                    }
                 }
+                return;
             }
 
-            // Dibujar buses
-            for (Bus b : simulador.getBuses()) {
-                int offset = (b.getId() - 1) * 14; 
+            int ancho = getWidth(), alto = getHeight();
+            int columnas = ancho / CASILLA_COLAS + 1;
+            int[] suma = new int[columnas * (alto / CASILLA_COLAS + 1)];
+            for (int k = 0; k < actual.getNumConCola(); k++) {
+                int p = actual.paradaConCola(k);
+                int x = (int) pantallaX(arbol.x(p));
+                int y = (int) pantallaY(arbol.y(p));
+                if (x < 0 || y < 0 || x >= ancho || y >= alto) continue;
+                suma[(y / CASILLA_COLAS) * columnas + x / CASILLA_COLAS] += actual.cantidadCola(k);
+            }
+            for (int casilla = 0; casilla < suma.length; casilla++) {
+                if (suma[casilla] == 0) continue;
+                // La marca se dibuja 6 px a la derecha y 14 px arriba del punto
+                int x = (casilla % columnas) * CASILLA_COLAS - 4;
+                int y = (casilla / columnas) * CASILLA_COLAS + 22;
+                agregarCola(x, y, String.valueOf(suma[casilla]));
+            }
+        }
+
+        private void agregarCola(int x, int y, String texto) {
+            if (numColas == colaX.length) {
+                colaX = Arrays.copyOf(colaX, 2 * numColas);
+                colaY = Arrays.copyOf(colaY, 2 * numColas);
+                colaTexto = Arrays.copyOf(colaTexto, 2 * numColas);
+            }
+            colaX[numColas] = x;
+            colaY[numColas] = y;
+            colaTexto[numColas++] = texto;
+        }
 
-                Nodo a = b.getNodoActual();
-                Nodo d = b.getNodoSiguiente();
-                
-                // Protección contra nulos al inicio
-                if (a == null || d == null) continue; 
-                
-                double t = b.getProgreso();
+        private void pintarColas(Graphics2D g2) {
+            ubicarColas();
+            FontMetrics metricas = g2.getFontMetrics();
+            for (int k = 0; k < numColas; k++) {
+                int x = colaX[k];
+                int y = colaY[k];
+                // Las sumas pueden tener varias cifras: la marca se estira con el texto
+                int largo = Math.max(16, metricas.stringWidth(colaTexto[k]) + 8);
+                g2.setColor(Color.RED);
+                g2.fillRoundRect(x + 6, y - 14, largo, 16, 16, 16);
+                g2.setColor(Color.WHITE);
+                g2.drawString(colaTexto[k], x + 6 + (largo - metricas.stringWidth(colaTexto[k])) / 2, y - 2);
+            }
+        }
 
-                double x = a.getPosicionX() + (d.getPosicionX() - a.getPosicionX()) * t;
-                double y = a.getPosicionY() + (d.getPosicionY() - a.getPosicionY()) * t;
+        private void pintarBuses(Graphics2D g2) {
+            int numBuses = actual.getNumBuses();
+            if (etiquetasBus.length != numBuses) {
+                etiquetasBus = new String[numBuses];
+                for (int i = 0; i < numBuses; i++) {
+                    etiquetasBus[i] = "B" + actual.idBus(i);
+                }
+            }
+            boolean interpolar = anterior != null && anterior.getNumBuses() == numBuses;
+            double alfa = Math.min(1.0, (double) (System.nanoTime() - actual.getPublicada()) / intervalo);
+            boolean detalle = detalle();
+            int ancho = getWidth(), alto = getHeight();
+            double[] punto = new double[2];
+            // Sin detalle, un solo punto por bloque de 3×3 px aunque haya miles de buses
+            int columnas = ancho / 3 + 1;
+            if (!detalle) {
+                int bloques = columnas * (alto / 3 + 1);
+                if (ocupado.length < bloques) ocupado = new boolean[bloques];
+                Arrays.fill(ocupado, 0, bloques, false);
+                g2.setColor(colorBus);
+            }
 
+            for (int i = 0; i < numBuses; i++) {
+                if (interpolar && alfa < 1) {
+                    interpolarBus(i, alfa, punto);
+                } else {
+                    posicion(actual, i, punto);
+                }
+                double x = pantallaX(punto[0]);
+                double y = pantallaY(punto[1]);
+
+                if (!detalle) {
+                    if (x < 0 || y < 0 || x >= ancho || y >= alto) continue;
+                    int bloque = ((int) y / 3) * columnas + (int) x / 3;
+                    if (ocupado[bloque]) continue;
+                    ocupado[bloque] = true;
+                    g2.fillRect((int) x - 2, (int) y - 2, 5, 5);
+                    continue;
+                }
+                // Separa un poco los buses que comparten arco
+                int offset = ((actual.idBus(i) - 1) % 8) * 14;
                 x += offset;
                 y += offset;
+                if (x < -10 || y < -10 || x > ancho + 10 || y > alto + 10) continue;
 
-                g2.setColor(new Color(255, 69, 0));
+                g2.setColor(colorBus);
                 g2.fillRoundRect((int) x - 10, (int) y - 10, 20, 20, 6, 6);
                 g2.setColor(Color.BLACK);
-                g2.drawString("B" + b.getId(), (int) x - 8, (int) y + 4);
+                g2.drawString(etiquetasBus[i], (int) x - 8, (int) y + 4);
+            }
+        }
+
+        /**
+         * Posición del bus i en una vista, según su progreso en el arco.
+         */
+        private void posicion(VistaSimulacion vista, int i, double[] punto) {
+            Nodo a = grafo.getNodo(vista.origen(i));
+            Nodo d = grafo.getNodo(vista.destino(i));
+            double t = vista.progreso(i);
+            punto[0] = a.getPosicionX() + (d.getPosicionX() - a.getPosicionX()) * t;
+            punto[1] = a.getPosicionY() + (d.getPosicionY() - a.getPosicionY()) * t;
+        }
+
+        /**
+         * Posición del bus i a una fracción alfa del camino entre la vista
+         * anterior y la actual. Si siguió en el mismo arco avanza sobre él;
+         * si pasó a la parada siguiente recorre el resto del arco anterior y
+         * luego el nuevo; en otro caso (varios ticks de una vez) va derecho.
+         */
+        private void interpolarBus(int i, double alfa, double[] punto) {
+            if (anterior.origen(i) == actual.origen(i) && anterior.destino(i) == actual.destino(i)
+                    && anterior.progreso(i) <= actual.progreso(i)) {
+                Nodo a = grafo.getNodo(actual.origen(i));
+                Nodo d = grafo.getNodo(actual.destino(i));
+                double t = anterior.progreso(i) + (actual.progreso(i) - anterior.progreso(i)) * alfa;
+                punto[0] = a.getPosicionX() + (d.getPosicionX() - a.getPosicionX()) * t;
+                punto[1] = a.getPosicionY() + (d.getPosicionY() - a.getPosicionY()) * t;
+                return;
+            }
+            posicion(anterior, i, punto);
+            double x0 = punto[0], y0 = punto[1];
+            posicion(actual, i, punto);
+            double x1 = punto[0], y1 = punto[1];
+
+            if (anterior.destino(i) == actual.origen(i)) {
+                Nodo parada = grafo.getNodo(actual.origen(i));
+                double px = parada.getPosicionX(), py = parada.getPosicionY();
+                double tramo1 = Math.hypot(px - x0, py - y0);
+                double tramo2 = Math.hypot(x1 - px, y1 - py);
+                double recorrido = (tramo1 + tramo2) * alfa;
+                if (recorrido <= tramo1) {
+                    double t = tramo1 == 0 ? 1 : recorrido / tramo1;
+                    punto[0] = x0 + (px - x0) * t;
+                    punto[1] = y0 + (py - y0) * t;
+                } else {
+                    double t = tramo2 == 0 ? 1 : (recorrido - tramo1) / tramo2;
+                    punto[0] = px + (x1 - px) * t;
+                    punto[1] = py + (y1 - py) * t;
+                }
+                return;
             }
+            punto[0] = x0 + (x1 - x0) * alfa;
+            punto[1] = y0 + (y1 - y0) * alfa;
         }
     }
 
     // MAIN 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Opcional: una red (carpeta GTFS o archivo binario) en vez de la demo
+        Escenario escenario = args.length > 0 ? Escenario.cargar(Path.of(args[0])) : Escenario.demo();
 
         SwingUtilities.invokeLater(() -> {
-
-            Grafo grafo = new Grafo();
-
-            Nodo estacion = new Nodo(1, "Estacion", 80, 140);
-            Nodo centro = new Nodo(2, "Centro", 250, 140);
-            Nodo parque = new Nodo(3, "Parque", 400, 80);
-            Nodo terminal = new Nodo(4, "Terminal", 550, 140);
-            Nodo museo = new Nodo(5, "Museo", 700, 140);
-
-            Nodo plaza = new Nodo(6, "Plaza", 400, 280);
-            Nodo universidad = new Nodo(7, "Universidad", 250, 420);
-            Nodo hospital = new Nodo(8, "Hospital", 550, 420);
-            Nodo mercado = new Nodo(9, "Mercado", 700, 420);
-            Nodo aeropuerto = new Nodo(10, "Aeropuerto", 400, 520);
-
-            grafo.agregarParadero(estacion);
-            grafo.agregarParadero(centro);
-            grafo.agregarParadero(parque);
-            grafo.agregarParadero(terminal);
-            grafo.agregarParadero(museo);
-            grafo.agregarParadero(plaza);
-            grafo.agregarParadero(universidad);
-            grafo.agregarParadero(hospital);
-            grafo.agregarParadero(mercado);
-            grafo.agregarParadero(aeropuerto);
-
-            // Horizontales superiores
-            grafo.agregarArco(estacion, centro, 5);
-            grafo.agregarArco(centro, parque, 6);
-            grafo.agregarArco(parque, terminal, 7);
-            grafo.agregarArco(terminal, museo, 4);
-
-            // Verticales
-            grafo.agregarArco(parque, plaza, 8);
-            grafo.agregarArco(terminal, hospital, 8);
-            grafo.agregarArco(centro, universidad, 10);
-
-            // Inferiores
-            grafo.agregarArco(universidad, hospital, 12);
-            grafo.agregarArco(hospital, mercado, 5);
-            grafo.agregarArco(universidad, aeropuerto, 7);
-            grafo.agregarArco(aeropuerto, hospital, 6);
-
-            // Diagonales
-            grafo.agregarArco(plaza, universidad, 6);
-            grafo.agregarArco(plaza, hospital, 6);
-            grafo.agregarArco(plaza, aeropuerto, 6);
-
-            // Arcos inversos
-            grafo.agregarArco(centro, estacion, 5);
-            grafo.agregarArco(parque, centro, 6);
-            grafo.agregarArco(terminal, parque, 7);
-            grafo.agregarArco(museo, terminal, 4);
-            grafo.agregarArco(plaza, parque, 8);
-            grafo.agregarArco(hospital, terminal, 8);
-            grafo.agregarArco(hospital, universidad, 12);
-            grafo.agregarArco(mercado, hospital, 5);
-            grafo.agregarArco(aeropuerto, universidad, 7);
-            grafo.agregarArco(hospital, aeropuerto, 6);
-            grafo.agregarArco(universidad, plaza, 6);
-            grafo.agregarArco(hospital, plaza, 6);
-            grafo.agregarArco(aeropuerto, plaza, 6);
-
-            List<Nodo> ida = Arrays.asList(
-                    estacion, centro, parque, terminal, museo,
-                    terminal, parque, plaza, universidad, aeropuerto
-            );
-
-            List<Nodo> vuelta = Arrays.asList(
-                    aeropuerto, universidad, plaza, parque,
-                    centro, estacion
-            );
-
-            Simulador simulador = new Simulador(grafo);
-            simulador.agregarBus(new Bus(1, 40, ida, vuelta));
-
+            Simulador simulador = escenario.crearSimulador(new Random().nextLong());
             new TransporteGUI(simulador);
         });
     }
@@ -0,0 +1,135 @@
+package src;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copia inmutable de lo que la interfaz necesita dibujar de un Simulador:
+ * el reloj, el arco y el progreso de cada bus y las colas de las paradas.
+ *
+ * La toma el hilo de la simulación (ver HiloSimulacion) y la lee el hilo
+ * de Swing, que así nunca toca el Simulador mientras avanza. Los arreglos
+ * no se modifican después de crearla.
+ */
+final class VistaSimulacion {
+
+    private final int tick;
+    private final long minuto;
+    private final long publicada;      // System.nanoTime() al tomarla
+
+    private final int[] idsBus;
+    private final int[] origenes;      // índice de la parada de la que sale cada bus
+    private final int[] destinos;      // índice de la parada a la que va
+    private final float[] progresos;
+
+    private final int[] paradasConCola;     // en orden creciente
+    private final int[] cantidadCola;
+    private final String[] textoCola;
+
+    private VistaSimulacion(Simulador simulador) {
+        this.tick = simulador.getTiempoActual();
+        this.minuto = simulador.getMinutoActual();
+
+        List<Bus> buses = simulador.getBuses();
+        int b = buses.size();
+        this.idsBus = new int[b];
+        this.origenes = new int[b];
+        this.destinos = new int[b];
+        this.progresos = new float[b];
+        for (int i = 0; i < b; i++) {
+            Bus bus = buses.get(i);
+            idsBus[i] = bus.getId();
+            origenes[i] = bus.getNodoActual().getIndice();
+            destinos[i] = bus.getNodoSiguiente().getIndice();
+            progresos[i] = (float) bus.getProgreso();
+        }
+
+        Grafo grafo = simulador.getGrafo();
+        int[] paradas = new int[16];
+        int[] cantidades = new int[16];
+        String[] textos = new String[16];
+        int k = 0;
+        for (int p = 0; p < grafo.getNumParaderos(); p++) {
+            int esperando = simulador.getEsperandoCuantos(grafo.getNodo(p));
+            if (esperando == 0) continue;
+            if (k == paradas.length) {
+                paradas = Arrays.copyOf(paradas, 2 * k);
+                cantidades = Arrays.copyOf(cantidades, 2 * k);
+                textos = Arrays.copyOf(textos, 2 * k);
+            }
+            paradas[k] = p;
+            cantidades[k] = esperando;
+            textos[k] = String.valueOf(esperando);
+            k++;
+        }
+        this.paradasConCola = Arrays.copyOf(paradas, k);
+        this.cantidadCola = Arrays.copyOf(cantidades, k);
+        this.textoCola = Arrays.copyOf(textos, k);
+        this.publicada = System.nanoTime();
+    }
+
+    /**
+     * Toma la vista del estado actual. Debe llamarse desde el hilo que hace
+     * avanzar el simulador.
+     */
+    static VistaSimulacion tomar(Simulador simulador) {
+        return new VistaSimulacion(simulador);
+    }
+
+    int getTick() {
+        return tick;
+    }
+
+    long getMinuto() {
+        return minuto;
+    }
+
+    long getPublicada() {
+        return publicada;
+    }
+
+    int getNumBuses() {
+        return idsBus.length;
+    }
+
+    int idBus(int i) {
+        return idsBus[i];
+    }
+
+    int origen(int i) {
+        return origenes[i];
+    }
+
+    int destino(int i) {
+        return destinos[i];
+    }
+
+    float progreso(int i) {
+        return progresos[i];
+    }
+
+    int getNumConCola() {
+        return paradasConCola.length;
+    }
+
+    int paradaConCola(int k) {
+        return paradasConCola[k];
+    }
+
+    /**
+     * Posición de la parada en la lista de colas, o -1 si nadie espera en
+     * ella.
+     */
+    int buscarCola(int parada) {
+        int k = Arrays.binarySearch(paradasConCola, parada);
+        return k >= 0 ? k : -1;
+    }
+
+    int cantidadCola(int k) {
+        return cantidadCola[k];
+    }
+
+    String textoCola(int k) {
+        return textoCola[k];
+    }
+}
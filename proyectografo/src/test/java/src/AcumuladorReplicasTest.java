@@ -0,0 +1,32 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Los cuantiles de la t coinciden con las tablas usuales (4 decimales),
+ * también con pocas réplicas y niveles altos.
+ */
+class AcumuladorReplicasTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.95, 1, 6.3138",
+            "0.995, 1, 63.6567",
+            "0.975, 2, 4.3027",
+            "0.995, 2, 9.9248",
+            "0.975, 3, 3.1824",
+            "0.995, 4, 4.6041",
+            "0.995, 5, 4.0321",
+            "0.975, 10, 2.2281",
+            "0.995, 30, 2.7500",
+            "0.9995, 30, 3.6460",
+            "0.975, 60, 2.0003",
+            "0.995, 120, 2.6174",
+            "0.025, 4, -2.7764"})
+    void cuantilT(double p, long gl, double tabla) {
+        assertEquals(tabla, AcumuladorReplicas.cuantilT(p, gl), 5e-5 * Math.abs(tabla));
+    }
+}
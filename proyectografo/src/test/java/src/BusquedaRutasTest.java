@@ -0,0 +1,96 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * ALT y la jerarquía de contracción dan las mismas distancias que Dijkstra
+ * y caminos de ese mismo largo, en grafos dirigidos al azar con arcos de
+ * tiempo cero, arcos repetidos y partes inalcanzables.
+ */
+class BusquedaRutasTest {
+
+    private static final int CONSULTAS = 300;
+
+    private static Grafo grafoAlAzar(Random random) {
+        Grafo grafo = new Grafo();
+        int n = 50 + random.nextInt(400);
+        for (int i = 0; i < n; i++) {
+            grafo.agregarParadero(new Nodo(i, "P" + i, random.nextDouble() * 1000, random.nextDouble() * 1000));
+        }
+        int m = n * (1 + random.nextInt(4));
+        for (int k = 0; k < m; k++) {
+            grafo.agregarArco(grafo.getNodo(random.nextInt(n)), grafo.getNodo(random.nextInt(n)), random.nextInt(20));
+        }
+        return grafo;
+    }
+
+    /**
+     * Largo del camino sumando el arco más corto entre cada par de paradas
+     * consecutivas.
+     */
+    private static int largo(Grafo grafo, List<Nodo> camino) {
+        int total = 0;
+        for (int i = 0; i + 1 < camino.size(); i++) {
+            int minimo = Integer.MAX_VALUE;
+            for (Arco arco : grafo.getAdyacentes(camino.get(i))) {
+                if (arco.getDestino() == camino.get(i + 1)) {
+                    minimo = Math.min(minimo, arco.getTiempo());
+                }
+            }
+            total += minimo;
+        }
+        return total;
+    }
+
+    private static void comprobarCamino(Grafo grafo, Nodo origen, Nodo destino, int distancia, List<Nodo> camino) {
+        if (distancia == Grafo.INFINITO) {
+            return;
+        }
+        assertSame(origen, camino.get(0));
+        assertSame(destino, camino.get(camino.size() - 1));
+        assertEquals(distancia, largo(grafo, camino));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 2, 3, 4, 5, 6, 7})
+    void altIgualQueDijkstra(long semilla) {
+        Random random = new Random(semilla);
+        Grafo grafo = grafoAlAzar(random);
+        int n = grafo.getNumParaderos();
+        BuscadorALT alt = new BuscadorALT(grafo, 1 + random.nextInt(8));
+        for (int q = 0; q < CONSULTAS; q++) {
+            if (q == CONSULTAS / 2) {
+                // Un arco nuevo invalida los landmarks: se recalculan solos
+                grafo.agregarArco(grafo.getNodo(random.nextInt(n)), grafo.getNodo(random.nextInt(n)), 1);
+            }
+            Nodo origen = grafo.getNodo(random.nextInt(n));
+            Nodo destino = grafo.getNodo(random.nextInt(n));
+            int distancia = grafo.distancia(origen, destino);
+            assertEquals(distancia, alt.distancia(origen, destino));
+            comprobarCamino(grafo, origen, destino, distancia, alt.ruta(origen, destino));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 2, 3, 4, 5, 6, 7})
+    void contraccionIgualQueDijkstra(long semilla) {
+        Random random = new Random(semilla);
+        Grafo grafo = grafoAlAzar(random);
+        int n = grafo.getNumParaderos();
+        JerarquiaContraccion jerarquia = new JerarquiaContraccion(grafo);
+        for (int q = 0; q < CONSULTAS; q++) {
+            Nodo origen = grafo.getNodo(random.nextInt(n));
+            Nodo destino = grafo.getNodo(random.nextInt(n));
+            int distancia = grafo.distancia(origen, destino);
+            assertEquals(distancia, jerarquia.distancia(origen, destino));
+            comprobarCamino(grafo, origen, destino, distancia, jerarquia.dijkstra(origen, destino));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package src;
+
+/**
+ * Escenarios y huellas compartidos por las pruebas del simulador.
+ */
+final class EscenariosPrueba {
+
+    private EscenariosPrueba() {
+    }
+
+    /**
+     * Grilla sintética de la cantidad de paradas dada, siempre la misma.
+     */
+    static Escenario grilla(int paradas) {
+        GeneradorRed generador = new GeneradorRed();
+        generador.setSemilla(7);
+        return generador.grilla(paradas);
+    }
+
+    /**
+     * Resume el estado visible de la simulación: posición, progreso y carga
+     * de cada bus, colas de cada parada y estadísticas de espera.
+     */
+    static long huella(Simulador simulador) {
+        long h = 17;
+        for (Bus bus : simulador.getBuses()) {
+            h = h * 31 + bus.getNodoActual().getIndice();
+            h = h * 31 + bus.getCapacidadActual();
+            h = h * 31 + Double.doubleToLongBits(bus.getProgreso());
+        }
+        for (Nodo parada : simulador.getGrafo().getParaderos()) {
+            h = h * 31 + simulador.getEsperandoCuantos(parada);
+        }
+        HistogramaLog esperas = simulador.getEsperasTotales();
+        h = h * 31 + esperas.getCantidad();
+        h = h * 31 + Double.doubleToLongBits(esperas.getPromedio());
+        h = h * 31 + esperas.getMaximo();
+        return h * 31 + simulador.getPasajeros().getVivos();
+    }
+}
@@ -0,0 +1,62 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Los escenarios sintéticos no se atascan: los buses no se llenan de
+ * pasajeros que no pueden bajar y siguen subiendo gente durante todo el día.
+ */
+class GeneradorRedTest {
+
+    private static Escenario escenario(String topologia, int paradas) {
+        GeneradorRed generador = new GeneradorRed();
+        generador.setSemilla(11);
+        switch (topologia) {
+            case "grilla": return generador.grilla(paradas);
+            case "geometrica": return generador.geometrica(paradas, 6);
+            default: return generador.radial(paradas);
+        }
+    }
+
+    /**
+     * Treinta días simulados: a bordo nunca va más de la mitad de los
+     * asientos y la carga media de los últimos diez días no supera a la de
+     * los diez anteriores. Con pasajeros que no pueden bajar, la carga crece
+     * día a día hasta llenar los buses.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"grilla", "geometrica", "radial"})
+    void aBordoQuedaAcotado(String topologia) {
+        Escenario escenario = escenario(topologia, 2000);
+        Simulador simulador = escenario.crearSimulador();
+        long asientos = 0;
+        for (Bus bus : simulador.getBuses()) {
+            asientos += bus.getCapacidadMax();
+        }
+
+        int dia = 144;
+        double sumaMedio = 0, sumaFinal = 0;
+        long maximo = 0;
+        long abordajesAntes = 0;
+        for (int t = 1; t <= 30 * dia; t++) {
+            simulador.tick();
+            long aBordo = simulador.getABordoTotales();
+            maximo = Math.max(maximo, aBordo);
+            if (t > 10 * dia && t <= 20 * dia) sumaMedio += aBordo;
+            if (t > 20 * dia) sumaFinal += aBordo;
+            if (t % dia == 0) {
+                long abordajes = simulador.getEsperasTotales().getCantidad();
+                assertTrue(abordajes > abordajesAntes, topologia + ": nadie subió el día " + t / dia);
+                abordajesAntes = abordajes;
+            }
+        }
+        assertTrue(2 * maximo < asientos,
+                topologia + ": " + maximo + " a bordo de " + asientos + " asientos");
+        double medio = sumaMedio / (10 * dia), fin = sumaFinal / (10 * dia);
+        assertTrue(fin <= 1.1 * medio + asientos / 100.0,
+                topologia + ": la carga media crece de " + medio + " a " + fin);
+    }
+}
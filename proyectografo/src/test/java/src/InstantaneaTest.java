@@ -0,0 +1,72 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Una simulación restaurada desde una instantánea continúa exactamente
+ * igual que la original, en los tres modos.
+ */
+class InstantaneaTest {
+
+    private static final int TICKS = 500;
+
+    @TempDir
+    Path carpeta;
+
+    private static Simulador crear(Escenario escenario, String modo) {
+        Simulador simulador = escenario.crearSimulador(5);
+        switch (modo) {
+            case "eventos": simulador.activarEventos(); break;
+            case "regiones": simulador.activarParalelo(4, 2); break;
+            default: break;
+        }
+        return simulador;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"secuencial", "eventos", "regiones"})
+    void continuaIgual(String modo) throws IOException {
+        Escenario escenario = EscenariosPrueba.grilla(400);
+        Simulador original = crear(escenario, modo);
+        original.setVentanaEsperas(60);
+        original.setDesviarExcedentes(true);
+        for (Nodo parada : original.getGrafo().getParaderos()) {
+            if (parada.getIndice() % 3 == 0) {
+                original.setCapacidadMaxima(parada, 15);
+            }
+        }
+        for (int t = 0; t < TICKS; t++) {
+            original.tick();
+        }
+        Path archivo = carpeta.resolve(modo + ".bin");
+        original.guardarEstado(archivo);
+        for (int t = 0; t < TICKS; t++) {
+            original.tick();
+        }
+
+        // Capacidades, ventana y modo vienen en la instantánea
+        Simulador restaurada = escenario.crearSimulador(5);
+        restaurada.restaurarEstado(archivo);
+        for (int t = 0; t < TICKS; t++) {
+            restaurada.tick();
+        }
+        try {
+            assertEquals(original.getTiempoActual(), restaurada.getTiempoActual());
+            assertEquals(EscenariosPrueba.huella(original), EscenariosPrueba.huella(restaurada));
+            assertEquals(original.getEsperasRecientesTotales().getCantidad(),
+                    restaurada.getEsperasRecientesTotales().getCantidad());
+            assertEquals(original.getRechazadosTotales(), restaurada.getRechazadosTotales());
+            assertEquals(original.getDesviadosTotales(), restaurada.getDesviadosTotales());
+        } finally {
+            original.desactivarParalelo();
+            restaurada.desactivarParalelo();
+        }
+    }
+}
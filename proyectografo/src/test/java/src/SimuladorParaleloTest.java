@@ -0,0 +1,36 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * El modo por regiones da el mismo resultado que el secuencial, sin
+ * importar cuántas regiones ni cuántos hilos se usen.
+ */
+class SimuladorParaleloTest {
+
+    private static final int TICKS = 300;
+
+    private static long correr(int regiones, int hilos) {
+        Simulador simulador = EscenariosPrueba.grilla(900).crearSimulador(42);
+        if (regiones > 0) {
+            simulador.activarParalelo(regiones, hilos);
+        }
+        try {
+            for (int t = 0; t < TICKS; t++) {
+                simulador.tick();
+            }
+            return EscenariosPrueba.huella(simulador);
+        } finally {
+            simulador.desactivarParalelo();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "8, 1", "8, 2", "8, 4", "8, 8", "3, 5"})
+    void igualQueSecuencial(int regiones, int hilos) {
+        assertEquals(correr(0, 0), correr(regiones, hilos));
+    }
+}